@@ -11,6 +11,7 @@ import com.crm.backend.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -22,6 +23,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -73,10 +76,18 @@ public class AccountController {
     }
 
     // GET /api/account/ (get all)
+    // Optional filters: ?ownerId=&createdFrom=yyyy-MM-dd&createdTo=yyyy-MM-dd&updatedFrom=yyyy-MM-ddTHH:mm:ss&page=&size=
     @GetMapping
-    public ResponseEntity<List<AccountDTO>> getAllAccounts() {
+    public ResponseEntity<List<AccountDTO>> getAllAccounts(
+            @RequestParam(required = false) String ownerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<AccountDTO> accounts = accountService.getAllAccounts();
+            List<AccountDTO> accounts = accountService.getAccounts(
+                    ownerId != null && !ownerId.isBlank() ? ownerId : null, createdFrom, createdTo, updatedFrom, page, size);
             return ResponseEntity.ok(accounts);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -19,11 +19,14 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -56,10 +59,18 @@ public class ContactController {
 
     // --- GET ALL (Fixed Mapping) ---
     // This maps both /ac/api/contact and /ac/api/contact/
+    // Optional filters: ?accountId=&createdFrom=yyyy-MM-dd&createdTo=yyyy-MM-dd&updatedFrom=yyyy-MM-ddTHH:mm:ss&page=&size=
     @GetMapping(value = {"", "/"})
-    public ResponseEntity<List<ContactResponseDTO>> getAllContacts() {
+    public ResponseEntity<List<ContactResponseDTO>> getAllContacts(
+            @RequestParam(required = false) String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         System.out.println("Fetching all contacts...");
-        List<Contact> contacts = contactService.getAllContacts();
+        List<Contact> contacts = contactService.getContacts(
+                accountId != null && !accountId.isBlank() ? accountId : null, createdFrom, createdTo, updatedFrom, page, size);
         List<ContactResponseDTO> responses = contacts.stream()
                 .map(ContactResponseDTO::fromEntity)
                 .collect(Collectors.toList());
@@ -19,9 +19,14 @@
 package com.crm.backend.repository;
 
 import com.crm.backend.model.Account;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -38,4 +43,17 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
 
     // Custom delete by accountId for DELETE operation
     void deleteByAccountId(String accountId);
+
+    // Filtered list used by GET /ac/api/account?ownerId=&createdFrom=&createdTo=&updatedFrom=&page=&size=
+    // Null parameters are ignored so callers only send the predicates they need.
+    // Rows without createdAt pass the created range, as in the analytics report filter.
+    @Query("SELECT a FROM Account a WHERE (:ownerId IS NULL OR a.ownerId = :ownerId) " +
+            "AND (:createdFrom IS NULL OR a.createdAt IS NULL OR a.createdAt >= :createdFrom) " +
+            "AND (:createdTo IS NULL OR a.createdAt IS NULL OR a.createdAt < :createdTo) " +
+            "AND (:updatedFrom IS NULL OR a.updatedAt >= :updatedFrom)")
+    Slice<Account> findFiltered(@Param("ownerId") String ownerId,
+                                @Param("createdFrom") LocalDateTime createdFrom,
+                                @Param("createdTo") LocalDateTime createdTo,
+                                @Param("updatedFrom") LocalDateTime updatedFrom,
+                                Pageable pageable);
 }
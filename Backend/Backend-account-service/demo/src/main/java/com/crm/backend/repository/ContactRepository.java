@@ -2,9 +2,13 @@ package com.crm.backend.repository;
 
 import com.crm.backend.dto.ContactIdNameDTO;
 import com.crm.backend.model.Contact;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -15,4 +19,16 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
 
     // ✅ Add this method
     long countByAccount_AccountId(String accountId);
+
+    // Filtered list used by GET /ac/api/contact?accountId=&createdFrom=&createdTo=&updatedFrom=&page=&size=
+    // Rows without createdAt pass the created range, as in the analytics report filter.
+    @Query("SELECT c FROM Contact c WHERE (:accountId IS NULL OR c.account.accountId = :accountId) " +
+            "AND (:createdFrom IS NULL OR c.createdAt IS NULL OR c.createdAt >= :createdFrom) " +
+            "AND (:createdTo IS NULL OR c.createdAt IS NULL OR c.createdAt < :createdTo) " +
+            "AND (:updatedFrom IS NULL OR c.updatedAt >= :updatedFrom)")
+    Slice<Contact> findFiltered(@Param("accountId") String accountId,
+                                @Param("createdFrom") LocalDateTime createdFrom,
+                                @Param("createdTo") LocalDateTime createdTo,
+                                @Param("updatedFrom") LocalDateTime updatedFrom,
+                                Pageable pageable);
 }
@@ -13,17 +13,26 @@ import com.crm.backend.repository.AccountRepository;
 import com.crm.backend.repository.ContactRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import com.crm.backend.dto.AccountCreateDTO;
 import com.crm.backend.dto.AccountDTO;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class AccountService {
 
+	// Upper bound for one page of the filtered list endpoint
+	private static final int MAX_PAGE_SIZE = 5000;
+	private static final int DEFAULT_PAGE_SIZE = 500;
+
 	@Autowired
 	private AccountRepository accountRepository;
 
@@ -128,6 +137,35 @@ public class AccountService {
 				.collect(Collectors.toList());
 	}
 
+	// Filtered (and optionally paged) list. Falls back to the full list when no
+	// parameter is given so existing callers of GET /ac/api/account are unaffected.
+	public List<AccountDTO> getAccounts(String ownerId, LocalDate createdFrom, LocalDate createdTo,
+			LocalDateTime updatedFrom, Integer page, Integer size) {
+		if (ownerId == null && createdFrom == null && createdTo == null && updatedFrom == null
+				&& page == null && size == null) {
+			return getAllAccounts();
+		}
+
+		return accountRepository.findFiltered(
+				ownerId,
+				CreatedDayRange.from(createdFrom),
+				CreatedDayRange.until(createdTo),
+				updatedFrom,
+				toPageable(page, size))
+				.stream()
+				.map(this::mapToDTO)
+				.collect(Collectors.toList());
+	}
+
+	private Pageable toPageable(Integer page, Integer size) {
+		Sort sort = Sort.by("createdAt", "id");
+		if (page == null && size == null) {
+			return Pageable.unpaged(sort);
+		}
+		int pageSize = size != null ? Math.min(Math.max(size, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+		return PageRequest.of(page != null ? Math.max(page, 0) : 0, pageSize, sort);
+	}
+
 	public AccountDTO getAccountById(String accountId) {
 		Account account = accountRepository.findByAccountId(accountId)
 				.orElseThrow(() -> new AccountNotFoundException("Account not found with accountId: " + accountId));
@@ -11,8 +11,13 @@ import com.crm.backend.model.Contact;
 import com.crm.backend.repository.AccountRepository;
 import com.crm.backend.repository.ContactRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +25,10 @@ import java.util.Optional;
 @Service
 public class ContactService {
 
+    // Upper bound for one page of the filtered list endpoint
+    private static final int MAX_PAGE_SIZE = 5000;
+    private static final int DEFAULT_PAGE_SIZE = 500;
+
     @Autowired
     private ContactRepository contactRepository;
 
@@ -40,6 +49,33 @@ public class ContactService {
         return contactRepository.findAll();
     }
 
+    // Filtered (and optionally paged) list. Falls back to the full list when no
+    // parameter is given so existing callers of GET /ac/api/contact are unaffected.
+    public List<Contact> getContacts(String accountId, LocalDate createdFrom, LocalDate createdTo,
+                                     LocalDateTime updatedFrom, Integer page, Integer size) {
+        if (accountId == null && createdFrom == null && createdTo == null && updatedFrom == null
+                && page == null && size == null) {
+            return getAllContacts();
+        }
+
+        return contactRepository.findFiltered(
+                accountId,
+                CreatedDayRange.from(createdFrom),
+                CreatedDayRange.until(createdTo),
+                updatedFrom,
+                toPageable(page, size))
+                .getContent();
+    }
+
+    private Pageable toPageable(Integer page, Integer size) {
+        Sort sort = Sort.by("createdAt", "contactId");
+        if (page == null && size == null) {
+            return Pageable.unpaged(sort);
+        }
+        int pageSize = size != null ? Math.min(Math.max(size, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        return PageRequest.of(page != null ? Math.max(page, 0) : 0, pageSize, sort);
+    }
+
     public List<ContactIdNameDTO> getAllContactIdsNames() {
         return contactRepository.findAllIdsNames();
     }
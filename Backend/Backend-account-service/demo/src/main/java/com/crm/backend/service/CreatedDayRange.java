@@ -0,0 +1,24 @@
+package com.crm.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Bounds of the createdFrom/createdTo list filters. createdAt is stored and
+// serialized as this JVM's local wall time without an offset, and the
+// analytics report filter reads it as-is, so both sides compare local
+// calendar days.
+final class CreatedDayRange {
+
+    private CreatedDayRange() {
+    }
+
+    // Inclusive lower bound: start of createdFrom.
+    static LocalDateTime from(LocalDate createdFrom) {
+        return createdFrom != null ? createdFrom.atStartOfDay() : null;
+    }
+
+    // Exclusive upper bound: start of the day after createdTo.
+    static LocalDateTime until(LocalDate createdTo) {
+        return createdTo != null ? createdTo.plusDays(1).atStartOfDay() : null;
+    }
+}
@@ -1,14 +1,12 @@
 package com.galvinusanalytics.backend_at.client;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
@@ -23,31 +21,58 @@ import lombok.extern.slf4j.Slf4j;
 public class AccountManagementClient {
 
     private final RestTemplate restTemplate;
+    private final UpstreamCoalescer upstreamCoalescer;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${account.management.service.url:http://localhost:4003}")
     private String accountServiceUrl;
 
-    @SuppressWarnings("unchecked")
-    public List<AccountDataDTO> fetchAllAccounts() {
-        try {
-            String url = accountServiceUrl + "/api/account";
+    /** Largest page the account service returns; bigger requests are clamped to it. */
+    static final int MAX_PAGE_SIZE = 5000;
 
-            log.info("Fetching accounts from: {}", url);
+    @Value("${account.management.service.page-size:1000}")
+    private int pageSize;
 
-            ResponseEntity<List> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    List.class);
+    public List<AccountDataDTO> fetchAllAccounts() {
+        return fetchAccounts(UpstreamQuery.none());
+    }
 
-            List<Map<String, Object>> body = response.getBody();
-            if (body == null) {
-                return List.of();
+    /**
+     * Fetch accounts matching the pushed-down report filters, one page at a time.
+     */
+    public List<AccountDataDTO> fetchAccounts(UpstreamQuery query) {
+        return upstreamCoalescer.fetch("accounts", query, q -> upstreamGuard.call("account", () -> requestAccounts(q)));
+    }
+
+    private List<AccountDataDTO> requestAccounts(UpstreamQuery query) {
+        try {
+            List<AccountDataDTO> accounts = new ArrayList<>();
+            int size = pageSize(pageSize);
+            int page = 0;
+
+            while (true) {
+                URI url = query.toUri(accountServiceUrl + "/api/account", page, size);
+
+                log.info("Fetching accounts from: {}", url);
+
+                List<AccountDataDTO> body = restTemplate.execute(
+                        url,
+                        HttpMethod.GET,
+                        request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                        response -> ACCOUNTS.readList(response.getBody()));
+
+                if (body == null || body.isEmpty()) {
+                    break;
+                }
+                accounts.addAll(body);
+
+                if (body.size() < size) {
+                    break;
+                }
+                page++;
             }
 
-            return body.stream()
-                    .map(this::mapToAccountDataDTO)
-                    .collect(Collectors.toList());
+            return accounts;
 
         } catch (Exception e) {
             log.error("Error fetching accounts from Account service", e);
@@ -55,52 +80,39 @@ public class AccountManagementClient {
         }
     }
 
-    private AccountDataDTO mapToAccountDataDTO(Map<String, Object> m) {
-        AccountDataDTO dto = new AccountDataDTO();
-
-        dto.setAccountId(str(m, "accountId"));
-        dto.setName(str(m, "name"));
-        dto.setType(str(m, "type"));
-        dto.setOwnerId(str(m, "ownerId"));
-        dto.setWebsite(str(m, "website"));
-        dto.setIndustry(str(m, "industry"));
-        dto.setParentAccountId(str(m, "parentAccountId"));
-        dto.setNote(str(m, "note"));
-
-        dto.setBillingCountry(str(m, "billingCountry"));
-        dto.setBillingState(str(m, "billingState"));
-        dto.setBillingCity(str(m, "billingCity"));
-        dto.setBillingZipCode(str(m, "billingZipCode"));
-        dto.setBillingAddressLine1(str(m, "billingAddressLine1"));
-        dto.setBillingAddressLine2(str(m, "billingAddressLine2"));
-
-        dto.setShippingCountry(str(m, "shippingCountry"));
-        dto.setShippingState(str(m, "shippingState"));
-        dto.setShippingCity(str(m, "shippingCity"));
-        dto.setShippingZipCode(str(m, "shippingZipCode"));
-        dto.setShippingAddressLine1(str(m, "shippingAddressLine1"));
-        dto.setShippingAddressLine2(str(m, "shippingAddressLine2"));
-
-        dto.setCreatedAt(ts(str(m, "createdAt")));
-        dto.setUpdatedAt(ts(str(m, "updatedAt")));
-
-        return dto;
+    /**
+     * Page size to request: a short page ends the fetch, so it must not exceed
+     * what the account service actually returns.
+     */
+    static int pageSize(int configured) {
+        return Math.min(Math.max(configured, 1), MAX_PAGE_SIZE);
     }
 
-    private String str(Map<String, Object> m, String key) {
-        Object v = m.get(key);
-        return v != null ? v.toString() : null;
-    }
-
-    private LocalDateTime ts(String s) {
-        if (s == null || s.isBlank())
-            return null;
-        try {
-            String base = s.length() >= 19 ? s.substring(0, 19) : s;
-            return LocalDateTime.parse(base, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        } catch (Exception e) {
-            log.warn("Failed to parse timestamp: {}", s);
-            return null;
-        }
-    }
+    private static final JsonRecordDecoder<AccountDataDTO> ACCOUNTS = JsonRecordDecoder.builder(AccountDataDTO::new)
+            .string("accountId", AccountDataDTO::setAccountId)
+            .string("name", AccountDataDTO::setName)
+            .string("type", AccountDataDTO::setType)
+            .string("ownerId", AccountDataDTO::setOwnerId)
+            .string("website", AccountDataDTO::setWebsite)
+            .string("industry", AccountDataDTO::setIndustry)
+            .string("parentAccountId", AccountDataDTO::setParentAccountId)
+            .string("note", AccountDataDTO::setNote)
+
+            .string("billingCountry", AccountDataDTO::setBillingCountry)
+            .string("billingState", AccountDataDTO::setBillingState)
+            .string("billingCity", AccountDataDTO::setBillingCity)
+            .string("billingZipCode", AccountDataDTO::setBillingZipCode)
+            .string("billingAddressLine1", AccountDataDTO::setBillingAddressLine1)
+            .string("billingAddressLine2", AccountDataDTO::setBillingAddressLine2)
+
+            .string("shippingCountry", AccountDataDTO::setShippingCountry)
+            .string("shippingState", AccountDataDTO::setShippingState)
+            .string("shippingCity", AccountDataDTO::setShippingCity)
+            .string("shippingZipCode", AccountDataDTO::setShippingZipCode)
+            .string("shippingAddressLine1", AccountDataDTO::setShippingAddressLine1)
+            .string("shippingAddressLine2", AccountDataDTO::setShippingAddressLine2)
+
+            .timestamp("createdAt", AccountDataDTO::setCreatedAt)
+            .timestamp("updatedAt", AccountDataDTO::setUpdatedAt)
+            .build();
 }
@@ -1,8 +1,10 @@
 package com.galvinusanalytics.backend_at.client;
 
-import java.util.Collections;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
@@ -20,25 +22,58 @@ import lombok.extern.slf4j.Slf4j;
 public class ContactManagementClient {
 
     private final RestTemplate restTemplate;
+    private final UpstreamCoalescer upstreamCoalescer;
+    private final UpstreamGuard upstreamGuard;
     private static final String CONTACT_SERVICE_URL = "http://localhost:4003/api/contact";
 
+    @Value("${account.management.service.page-size:1000}")
+    private int pageSize;
+
     public List<ContactDataDTO> fetchAllContacts() {
+        return fetchContacts(UpstreamQuery.none());
+    }
+
+    /**
+     * Fetch contacts matching the pushed-down report filters, one page at a time.
+     */
+    public List<ContactDataDTO> fetchContacts(UpstreamQuery query) {
+        return upstreamCoalescer.fetch("contacts", query, q -> upstreamGuard.call("account", () -> requestContacts(q)));
+    }
+
+    private List<ContactDataDTO> requestContacts(UpstreamQuery query) {
         try {
-            log.info("Fetching contacts from: {}", CONTACT_SERVICE_URL);
-            ResponseEntity<List<ContactDataDTO>> response = restTemplate.exchange(
-                    CONTACT_SERVICE_URL,
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<List<ContactDataDTO>>() {
-                    });
-
-            List<ContactDataDTO> contacts = response.getBody();
-            log.info("Successfully fetched {} contacts", contacts != null ? contacts.size() : 0);
-            return contacts != null ? contacts : Collections.emptyList();
+            List<ContactDataDTO> contacts = new ArrayList<>();
+            int size = AccountManagementClient.pageSize(pageSize);
+            int page = 0;
+
+            while (true) {
+                URI url = query.toUri(CONTACT_SERVICE_URL, page, size);
+                log.info("Fetching contacts from: {}", url);
+                ResponseEntity<List<ContactDataDTO>> response = restTemplate.exchange(
+                        url,
+                        HttpMethod.GET,
+                        null,
+                        new ParameterizedTypeReference<List<ContactDataDTO>>() {
+                        });
+
+                List<ContactDataDTO> body = response.getBody();
+                if (body == null || body.isEmpty()) {
+                    break;
+                }
+                contacts.addAll(body);
+
+                if (body.size() < size) {
+                    break;
+                }
+                page++;
+            }
+
+            log.info("Successfully fetched {} contacts", contacts.size());
+            return contacts;
 
         } catch (Exception e) {
             log.error("Error fetching contacts from Contact service", e);
-            return Collections.emptyList();
+            throw new RuntimeException("Failed to fetch contacts: " + e.getMessage(), e);
         }
     }
 }
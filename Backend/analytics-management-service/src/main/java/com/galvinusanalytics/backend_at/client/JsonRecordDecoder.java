@@ -0,0 +1,211 @@
+package com.galvinusanalytics.backend_at.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Decodes a JSON array of upstream records straight into module DTOs, token
+ * by token, without building an intermediate map tree. Each JSON field is
+ * bound to one or more setters; unknown fields are skipped.
+ */
+@Slf4j
+final class JsonRecordDecoder<T> {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @FunctionalInterface
+    private interface FieldReader<T> {
+        void read(JsonParser parser, T target) throws IOException;
+    }
+
+    private final Supplier<T> factory;
+    private final Map<String, FieldReader<T>> fields;
+
+    private JsonRecordDecoder(Supplier<T> factory, Map<String, FieldReader<T>> fields) {
+        this.factory = factory;
+        this.fields = fields;
+    }
+
+    static <T> Builder<T> builder(Supplier<T> factory) {
+        return new Builder<>(factory);
+    }
+
+    /**
+     * Read a top-level array of records.
+     */
+    List<T> readList(InputStream in) throws IOException {
+        try (JsonParser parser = JSON.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return new ArrayList<>();
+            }
+            return readArray(parser);
+        }
+    }
+
+    /**
+     * Read the records in the {@code field} array of a top-level object, such
+     * as {@code {"data": [...]}}.
+     */
+    List<T> readEnvelope(InputStream in, String field) throws IOException {
+        try (JsonParser parser = JSON.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new ArrayList<>();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals(name) && value == JsonToken.START_ARRAY) {
+                    return readArray(parser);
+                }
+                parser.skipChildren();
+            }
+            return new ArrayList<>();
+        }
+    }
+
+    private List<T> readArray(JsonParser parser) throws IOException {
+        List<T> records = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                records.add(readObject(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return records;
+    }
+
+    private T readObject(JsonParser parser) throws IOException {
+        T target = factory.get();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            FieldReader<T> reader = fields.get(parser.currentName());
+            parser.nextToken();
+            if (reader != null) {
+                reader.read(parser, target);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return target;
+    }
+
+    /* ===================== VALUE READERS ===================== */
+
+    /** Scalar as text (numbers and booleans included); null for null, objects and arrays. */
+    private static String readText(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Double readNumber(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static LocalDateTime readTimestamp(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+        LocalDateTime value = Timestamps.parse(
+                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        if (value == null && parser.getTextLength() > 0) {
+            log.warn("Failed to parse timestamp: {}", parser.getText());
+        }
+        return value;
+    }
+
+    /** {@code field} of a nested object, e.g. the name of {@code "city": {"name": ...}}. */
+    private static String readNested(JsonParser parser, String field) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            if (field.equals(name)) {
+                value = readText(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /* ===================== BUILDER ===================== */
+
+    static final class Builder<T> {
+        private final Supplier<T> factory;
+        private final Map<String, FieldReader<T>> fields = new HashMap<>();
+
+        private Builder(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * Bind a JSON field to one or more setters; all receive the same value.
+         */
+        @SafeVarargs
+        final Builder<T> string(String field, BiConsumer<T, String>... setters) {
+            return bind(field, (parser, target) -> {
+                String value = readText(parser);
+                for (BiConsumer<T, String> setter : setters) {
+                    setter.accept(target, value);
+                }
+            });
+        }
+
+        Builder<T> number(String field, BiConsumer<T, Double> setter) {
+            return bind(field, (parser, target) -> setter.accept(target, readNumber(parser)));
+        }
+
+        Builder<T> timestamp(String field, BiConsumer<T, LocalDateTime> setter) {
+            return bind(field, (parser, target) -> setter.accept(target, readTimestamp(parser)));
+        }
+
+        Builder<T> nested(String field, String nestedField, BiConsumer<T, String> setter) {
+            return bind(field, (parser, target) -> setter.accept(target, readNested(parser, nestedField)));
+        }
+
+        private Builder<T> bind(String field, FieldReader<T> reader) {
+            if (fields.putIfAbsent(field, reader) != null) {
+                throw new IllegalStateException("Field already bound: " + field);
+            }
+            return this;
+        }
+
+        JsonRecordDecoder<T> build() {
+            return new JsonRecordDecoder<>(factory, Map.copyOf(fields));
+        }
+    }
+}
@@ -1,14 +1,11 @@
 package com.galvinusanalytics.backend_at.client;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.net.URI;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
@@ -23,6 +20,8 @@ import lombok.extern.slf4j.Slf4j;
 public class LeadManagementClient {
 
     private final RestTemplate restTemplate;
+    private final UpstreamCoalescer upstreamCoalescer;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${lead.management.service.url:http://localhost:4004}")
     private String leadManagementServiceUrl;
@@ -31,27 +30,29 @@ public class LeadManagementClient {
      * Fetch all leads from Lead Management Service
      */
     public List<LeadDataDTO> fetchAllLeads() {
+        return fetchLeads(UpstreamQuery.none());
+    }
+
+    /**
+     * Fetch leads matching the pushed-down report filters
+     */
+    public List<LeadDataDTO> fetchLeads(UpstreamQuery query) {
+        return upstreamCoalescer.fetch("leads", query, q -> upstreamGuard.call("lead", () -> requestLeads(q)));
+    }
+
+    private List<LeadDataDTO> requestLeads(UpstreamQuery query) {
         try {
-            String url = leadManagementServiceUrl + "/api/leads";
+            URI url = query.toUri(leadManagementServiceUrl + "/api/leads");
 
             log.info("Fetching leads from: {}", url);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            List<LeadDataDTO> leads = restTemplate.execute(
                     url,
                     HttpMethod.GET,
-                    null,
-                    Map.class);
-
-            Map<String, Object> responseBody = response.getBody();
-
-            if (responseBody != null && responseBody.containsKey("data")) {
-                List<Map<String, Object>> leadsData = (List<Map<String, Object>>) responseBody.get("data");
-                return leadsData.stream()
-                        .map(this::mapToLeadDataDTO)
-                        .collect(Collectors.toList());
-            }
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                    response -> LEADS.readEnvelope(response.getBody(), "data"));
 
-            return List.of();
+            return leads != null ? leads : List.of();
 
         } catch (Exception e) {
             log.error("Error fetching leads from Lead Management Service", e);
@@ -60,107 +61,54 @@ public class LeadManagementClient {
     }
 
     /**
-     * Map raw lead data to LeadDataDTO
+     * Field bindings from the lead service payload to LeadDataDTO
      */
-    private LeadDataDTO mapToLeadDataDTO(Map<String, Object> leadMap) {
-        LeadDataDTO dto = new LeadDataDTO();
-
-        // Basic fields
-        dto.setLeadId(getString(leadMap, "leadId"));
-        dto.setFirstName(getString(leadMap, "firstName"));
-        dto.setLastName(getString(leadMap, "lastName"));
-        dto.setEmail(getString(leadMap, "email"));
-        dto.setPhoneNumber(getString(leadMap, "phoneNumber"));
-        dto.setSecondaryEmail(getString(leadMap, "secondaryEmail"));
-        dto.setFax(getString(leadMap, "fax"));
-        dto.setWebsite(getString(leadMap, "website"));
-        dto.setCompany(getString(leadMap, "company"));
-        dto.setTitle(getString(leadMap, "title"));
-        dto.setNotes(getString(leadMap, "notes"));
-
-        // Lead qualification
-        dto.setLeadSource(getString(leadMap, "leadSource"));
-        dto.setLeadStatus(getString(leadMap, "leadStatus"));
-        dto.setInterestLevel(getString(leadMap, "interestLevel"));
-        dto.setStage(getString(leadMap, "interestLevel"));
-
-        // Budget fields
-        dto.setBudget(getDouble(leadMap, "budget"));
-        dto.setPotentialRevenue(getDouble(leadMap, "potentialRevenue"));
-
-        // Address fields
-        dto.setAddressLine1(getString(leadMap, "addressLine1"));
-        dto.setAddressLine2(getString(leadMap, "addressLine2"));
-        dto.setZipcode(getString(leadMap, "zipcode"));
-
-        // Location (nested objects)
-        if (leadMap.containsKey("city") && leadMap.get("city") != null) {
-            Map<String, Object> cityMap = (Map<String, Object>) leadMap.get("city");
-            dto.setCity(getString(cityMap, "name"));
-        }
-
-        if (leadMap.containsKey("state") && leadMap.get("state") != null) {
-            Map<String, Object> stateMap = (Map<String, Object>) leadMap.get("state");
-            dto.setState(getString(stateMap, "name"));
-        }
-
-        if (leadMap.containsKey("country") && leadMap.get("country") != null) {
-            Map<String, Object> countryMap = (Map<String, Object>) leadMap.get("country");
-            dto.setCountry(getString(countryMap, "name"));
-        }
-
-        // Owner and timestamps
-        dto.setLeadOwner(getString(leadMap, "leadOwner"));
-        dto.setCreatedBy(getString(leadMap, "leadOwner"));
-        dto.setLastModifiedBy(getString(leadMap, "leadOwner"));
-
-        // Parse timestamps
-        dto.setCreatedDate(parseTimestamp(getString(leadMap, "createdAt")));
-        dto.setModifiedDate(parseTimestamp(getString(leadMap, "updatedAt")));
-        dto.setLastInteractionDate(parseTimestamp(getString(leadMap, "interactionDate")));
-
-        // Interaction tracking
-        dto.setInteractionType(getString(leadMap, "interactionType"));
-        dto.setInteractionOutcome(getString(leadMap, "interactionOutcome"));
-        dto.setInteractionNote(getString(leadMap, "interactionNote"));
-
-        // Additional IDs
-        dto.setAccountId(getString(leadMap, "accountId"));
-        dto.setContactId(getString(leadMap, "contactId"));
-
-        return dto;
-    }
-
-    private String getString(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        return value != null ? value.toString() : null;
-    }
-
-    private Double getDouble(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        if (value == null)
-            return null;
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
-        }
-        try {
-            return Double.parseDouble(value.toString());
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-
-    private LocalDateTime parseTimestamp(String timestamp) {
-        if (timestamp == null || timestamp.trim().isEmpty()) {
-            return null;
-        }
-        try {
-            return LocalDateTime.parse(
-                    timestamp.substring(0, 19),
-                    DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        } catch (Exception e) {
-            log.warn("Failed to parse timestamp: {}", timestamp);
-            return null;
-        }
-    }
+    private static final JsonRecordDecoder<LeadDataDTO> LEADS = JsonRecordDecoder.builder(LeadDataDTO::new)
+            // Basic fields
+            .string("leadId", LeadDataDTO::setLeadId)
+            .string("firstName", LeadDataDTO::setFirstName)
+            .string("lastName", LeadDataDTO::setLastName)
+            .string("email", LeadDataDTO::setEmail)
+            .string("phoneNumber", LeadDataDTO::setPhoneNumber)
+            .string("secondaryEmail", LeadDataDTO::setSecondaryEmail)
+            .string("fax", LeadDataDTO::setFax)
+            .string("website", LeadDataDTO::setWebsite)
+            .string("company", LeadDataDTO::setCompany)
+            .string("title", LeadDataDTO::setTitle)
+            .string("notes", LeadDataDTO::setNotes)
+
+            // Lead qualification
+            .string("leadSource", LeadDataDTO::setLeadSource)
+            .string("leadStatus", LeadDataDTO::setLeadStatus)
+            .string("interestLevel", LeadDataDTO::setInterestLevel, LeadDataDTO::setStage)
+
+            // Budget fields
+            .number("budget", LeadDataDTO::setBudget)
+            .number("potentialRevenue", LeadDataDTO::setPotentialRevenue)
+
+            // Address fields
+            .string("addressLine1", LeadDataDTO::setAddressLine1)
+            .string("addressLine2", LeadDataDTO::setAddressLine2)
+            .string("zipcode", LeadDataDTO::setZipcode)
+
+            // Location (nested objects)
+            .nested("city", "name", LeadDataDTO::setCity)
+            .nested("state", "name", LeadDataDTO::setState)
+            .nested("country", "name", LeadDataDTO::setCountry)
+
+            // Owner and timestamps
+            .string("leadOwner", LeadDataDTO::setLeadOwner, LeadDataDTO::setCreatedBy, LeadDataDTO::setLastModifiedBy)
+            .timestamp("createdAt", LeadDataDTO::setCreatedDate)
+            .timestamp("updatedAt", LeadDataDTO::setModifiedDate)
+            .timestamp("interactionDate", LeadDataDTO::setLastInteractionDate)
+
+            // Interaction tracking
+            .string("interactionType", LeadDataDTO::setInteractionType)
+            .string("interactionOutcome", LeadDataDTO::setInteractionOutcome)
+            .string("interactionNote", LeadDataDTO::setInteractionNote)
+
+            // Additional IDs
+            .string("accountId", LeadDataDTO::setAccountId)
+            .string("contactId", LeadDataDTO::setContactId)
+            .build();
 }
@@ -1,5 +1,6 @@
 package com.galvinusanalytics.backend_at.client;
 
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 
@@ -20,13 +21,27 @@ import lombok.extern.slf4j.Slf4j;
 public class OpportunityManagementClient {
 
     private final RestTemplate restTemplate;
+    private final UpstreamCoalescer upstreamCoalescer;
+    private final UpstreamGuard upstreamGuard;
     private static final String OPPORTUNITY_SERVICE_URL = "http://localhost:4002/api/opportunity";
 
     public List<OpportunityDataDTO> fetchAllOpportunities() {
+        return fetchOpportunities(UpstreamQuery.none());
+    }
+
+    /**
+     * Fetch records matching the pushed-down report filters
+     */
+    public List<OpportunityDataDTO> fetchOpportunities(UpstreamQuery query) {
+        return upstreamCoalescer.fetch("opportunities", query, q -> upstreamGuard.call("sales", () -> requestOpportunities(q)));
+    }
+
+    private List<OpportunityDataDTO> requestOpportunities(UpstreamQuery query) {
         try {
-            log.info("Fetching opportunities from: {}", OPPORTUNITY_SERVICE_URL);
+            URI url = query.toUri(OPPORTUNITY_SERVICE_URL);
+            log.info("Fetching opportunities from: {}", url);
             ResponseEntity<List<OpportunityDataDTO>> response = restTemplate.exchange(
-                    OPPORTUNITY_SERVICE_URL,
+                    url,
                     HttpMethod.GET,
                     null,
                     new ParameterizedTypeReference<List<OpportunityDataDTO>>() {
@@ -38,7 +53,7 @@ public class OpportunityManagementClient {
 
         } catch (Exception e) {
             log.error("Error fetching opportunities from Opportunity service", e);
-            return Collections.emptyList();
+            throw new RuntimeException("Failed to fetch opportunities: " + e.getMessage(), e);
         }
     }
 }
@@ -1,5 +1,6 @@
 package com.galvinusanalytics.backend_at.client;
 
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 
@@ -20,13 +21,27 @@ import lombok.extern.slf4j.Slf4j;
 public class SalesOrderManagementClient {
 
     private final RestTemplate restTemplate;
+    private final UpstreamCoalescer upstreamCoalescer;
+    private final UpstreamGuard upstreamGuard;
     private static final String SALES_ORDER_SERVICE_URL = "http://localhost:4002/api/sales-order";
 
     public List<SalesOrderDataDTO> fetchAllSalesOrders() {
+        return fetchSalesOrders(UpstreamQuery.none());
+    }
+
+    /**
+     * Fetch records matching the pushed-down report filters
+     */
+    public List<SalesOrderDataDTO> fetchSalesOrders(UpstreamQuery query) {
+        return upstreamCoalescer.fetch("sales-orders", query, q -> upstreamGuard.call("sales", () -> requestSalesOrders(q)));
+    }
+
+    private List<SalesOrderDataDTO> requestSalesOrders(UpstreamQuery query) {
         try {
-            log.info("Fetching sales orders from: {}", SALES_ORDER_SERVICE_URL);
+            URI url = query.toUri(SALES_ORDER_SERVICE_URL);
+            log.info("Fetching sales orders from: {}", url);
             ResponseEntity<List<SalesOrderDataDTO>> response = restTemplate.exchange(
-                    SALES_ORDER_SERVICE_URL,
+                    url,
                     HttpMethod.GET,
                     null,
                     new ParameterizedTypeReference<List<SalesOrderDataDTO>>() {
@@ -38,7 +53,7 @@ public class SalesOrderManagementClient {
 
         } catch (Exception e) {
             log.error("Error fetching sales orders from Sales Order service", e);
-            return Collections.emptyList();
+            throw new RuntimeException("Failed to fetch sales orders: " + e.getMessage(), e);
         }
     }
 }
@@ -1,5 +1,6 @@
 package com.galvinusanalytics.backend_at.client;
 
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 
@@ -20,13 +21,27 @@ import lombok.extern.slf4j.Slf4j;
 public class SalesQuoteManagementClient {
 
     private final RestTemplate restTemplate;
+    private final UpstreamCoalescer upstreamCoalescer;
+    private final UpstreamGuard upstreamGuard;
     private static final String SALES_QUOTE_SERVICE_URL = "http://localhost:4002/api/sales-quote";
 
     public List<SalesQuoteDataDTO> fetchAllSalesQuotes() {
+        return fetchSalesQuotes(UpstreamQuery.none());
+    }
+
+    /**
+     * Fetch records matching the pushed-down report filters
+     */
+    public List<SalesQuoteDataDTO> fetchSalesQuotes(UpstreamQuery query) {
+        return upstreamCoalescer.fetch("sales-quotes", query, q -> upstreamGuard.call("sales", () -> requestSalesQuotes(q)));
+    }
+
+    private List<SalesQuoteDataDTO> requestSalesQuotes(UpstreamQuery query) {
         try {
-            log.info("Fetching sales quotes from: {}", SALES_QUOTE_SERVICE_URL);
+            URI url = query.toUri(SALES_QUOTE_SERVICE_URL);
+            log.info("Fetching sales quotes from: {}", url);
             ResponseEntity<List<SalesQuoteDataDTO>> response = restTemplate.exchange(
-                    SALES_QUOTE_SERVICE_URL,
+                    url,
                     HttpMethod.GET,
                     null,
                     new ParameterizedTypeReference<List<SalesQuoteDataDTO>>() {
@@ -38,7 +53,7 @@ public class SalesQuoteManagementClient {
 
         } catch (Exception e) {
             log.error("Error fetching sales quotes from Sales Quote service", e);
-            return Collections.emptyList();
+            throw new RuntimeException("Failed to fetch sales quotes: " + e.getMessage(), e);
         }
     }
 }
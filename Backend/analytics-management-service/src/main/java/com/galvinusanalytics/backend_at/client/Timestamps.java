@@ -0,0 +1,58 @@
+package com.galvinusanalytics.backend_at.client;
+
+import java.time.LocalDateTime;
+
+/**
+ * Parser for the upstream timestamp format {@code yyyy-MM-ddTHH:mm:ss[...]}.
+ * Like the formatter-based parsing it replaces, only the first 19 characters
+ * are read: fractions and offsets are ignored. Works on the parser's
+ * character buffer, so no substring or formatter state is created per value.
+ */
+final class Timestamps {
+
+    private Timestamps() {
+    }
+
+    /**
+     * @return the timestamp, or null when the text is not in the expected format
+     */
+    static LocalDateTime parse(char[] text, int offset, int length) {
+        if (length < 19
+                || text[offset + 4] != '-' || text[offset + 7] != '-'
+                || (text[offset + 10] != 'T' && text[offset + 10] != ' ')
+                || text[offset + 13] != ':' || text[offset + 16] != ':') {
+            return null;
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        int hour = digits(text, offset + 11, 2);
+        int minute = digits(text, offset + 14, 2);
+        int second = digits(text, offset + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    static LocalDateTime parse(String text) {
+        return text == null ? null : parse(text.toCharArray(), 0, text.length());
+    }
+
+    /** Decimal value of {@code count} digits, or -1 if any is not a digit. */
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = text[offset + i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,112 @@
+package com.galvinusanalytics.backend_at.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Single-flight layer in front of the module clients: concurrent fetches of
+ * the same upstream with the same query share one HTTP call and its decoded
+ * result. A flight ends when its call returns, so nothing is cached beyond
+ * the callers that were already waiting.
+ */
+@Slf4j
+@Component
+public class UpstreamCoalescer {
+
+    /** Per-upstream counters; {@code coalesced} are callers served by another caller's flight. */
+    public record Stats(long flights, long callers, long coalesced, long maxCallersPerFlight) {
+    }
+
+    private static final class Flight<T> {
+        final CompletableFuture<List<T>> result = new CompletableFuture<>();
+        final AtomicInteger callers = new AtomicInteger(1);
+    }
+
+    private static final class Counters {
+        final LongAdder flights = new LongAdder();
+        final LongAdder callers = new LongAdder();
+        final LongAccumulator maxCallers = new LongAccumulator(Long::max, 0);
+    }
+
+    private final Map<String, Flight<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Run {@code fetcher} for this query, or wait for an identical call that
+     * is already in flight. The returned list is shared and unmodifiable.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> fetch(String upstream, UpstreamQuery query, Function<UpstreamQuery, List<T>> fetcher) {
+        String key = upstream + new TreeMap<>(query.getParams());
+        Flight<T> flight = new Flight<>();
+        Flight<T> existing = (Flight<T>) inFlight.putIfAbsent(key, flight);
+        if (existing != null && existing.callers.getAndIncrement() > 0) {
+            return await(existing);
+        }
+        if (existing != null) {
+            // The flight finished and was closed between lookup and join; start a new one.
+            inFlight.put(key, flight);
+        }
+
+        try {
+            flight.result.complete(Collections.unmodifiableList(fetcher.apply(query)));
+        } catch (Throwable e) {
+            // Complete on errors too, or callers that joined would wait forever
+            flight.result.completeExceptionally(e);
+        } finally {
+            int served = flight.callers.getAndSet(0);
+            inFlight.remove(key, flight);
+            record(upstream, served);
+        }
+        return await(flight);
+    }
+
+    public Map<String, Stats> stats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        counters.forEach((upstream, c) -> {
+            long flights = c.flights.sum();
+            long callers = c.callers.sum();
+            stats.put(upstream, new Stats(flights, callers, callers - flights, c.maxCallers.get()));
+        });
+        return stats;
+    }
+
+    private void record(String upstream, int served) {
+        Counters c = counters.computeIfAbsent(upstream, u -> new Counters());
+        c.flights.increment();
+        c.callers.add(served);
+        c.maxCallers.accumulate(served);
+        if (served > 1) {
+            log.debug("{} flight served {} callers", upstream, served);
+        }
+    }
+
+    private <T> List<T> await(Flight<T> flight) {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for upstream fetch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
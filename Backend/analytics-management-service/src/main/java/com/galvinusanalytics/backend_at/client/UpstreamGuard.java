@@ -0,0 +1,188 @@
+package com.galvinusanalytics.backend_at.client;
+
+import com.galvinusanalytics.backend_at.exception.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and bulkhead per upstream service ({@code lead},
+ * {@code account}, {@code sales}).
+ * <p>
+ * After {@code upstream.guard.failure-threshold} consecutive failures the
+ * circuit opens and calls fail fast with {@link UpstreamUnavailableException}.
+ * After {@code upstream.guard.open-ms} one probe call is let through
+ * (half-open): success closes the circuit, failure opens it again. Independent
+ * of the circuit, at most {@code upstream.guard.max-concurrent} calls run per
+ * upstream; a caller that cannot get a slot within
+ * {@code upstream.guard.bulkhead-wait-ms} is rejected, so a slow upstream
+ * cannot take every request thread with it.
+ * <p>
+ * 4xx responses mean the request was wrong, not that the upstream is
+ * unhealthy, so they do not count as failures.
+ */
+@Slf4j
+@Component
+public class UpstreamGuard {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public record Stats(State state, int consecutiveFailures, int inFlight, long calls, long failures,
+                        long shortCircuited, long rejected) {
+    }
+
+    private final class Breaker {
+        private final String upstream;
+        private final Semaphore bulkhead = new Semaphore(maxConcurrent);
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder shortCircuited = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probing;
+
+        Breaker(String upstream) {
+            this.upstream = upstream;
+        }
+
+        synchronized boolean tryEnter() {
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> {
+                    if (System.nanoTime() - openedAt < TimeUnit.MILLISECONDS.toNanos(openMs)) {
+                        yield false;
+                    }
+                    state = State.HALF_OPEN;
+                    log.info("Circuit for {} half-open, probing", upstream);
+                    yield tryProbe();
+                }
+                case HALF_OPEN -> tryProbe();
+            };
+        }
+
+        /** Let the caller through as the single half-open probe, if none is running. */
+        private boolean tryProbe() {
+            if (probing) {
+                return false;
+            }
+            probing = true;
+            return true;
+        }
+
+        /** The caller entered but never reached the upstream. */
+        synchronized void abandon() {
+            probing = false;
+        }
+
+        synchronized void succeeded() {
+            if (state != State.CLOSED) {
+                log.info("Circuit for {} closed", upstream);
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probing = false;
+        }
+
+        synchronized void failed() {
+            failures.increment();
+            consecutiveFailures++;
+            probing = false;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+                log.warn("Circuit for {} opened after {} consecutive failures", upstream, consecutiveFailures);
+            }
+        }
+
+        synchronized Stats stats() {
+            State current = state == State.OPEN
+                    && System.nanoTime() - openedAt >= TimeUnit.MILLISECONDS.toNanos(openMs)
+                    ? State.HALF_OPEN : state;
+            return new Stats(current, consecutiveFailures, maxConcurrent - bulkhead.availablePermits(),
+                    calls.sum(), failures.sum(), shortCircuited.sum(), rejected.sum());
+        }
+    }
+
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    @Value("${upstream.guard.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${upstream.guard.open-ms:30000}")
+    private long openMs;
+
+    @Value("${upstream.guard.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${upstream.guard.bulkhead-wait-ms:1000}")
+    private long bulkheadWaitMs;
+
+    /**
+     * Run an upstream call through the circuit breaker and bulkhead of {@code upstream}.
+     */
+    public <R> R call(String upstream, Supplier<R> work) {
+        Breaker breaker = breakers.computeIfAbsent(upstream, Breaker::new);
+        if (!breaker.tryEnter()) {
+            breaker.shortCircuited.increment();
+            throw new UpstreamUnavailableException(upstream, "Upstream " + upstream + " is unavailable (circuit open)");
+        }
+
+        boolean acquired;
+        try {
+            acquired = breaker.bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            breaker.abandon();
+            throw new UpstreamUnavailableException(upstream, "Interrupted waiting for upstream " + upstream);
+        }
+        if (!acquired) {
+            breaker.abandon();
+            breaker.rejected.increment();
+            throw new UpstreamUnavailableException(upstream, "Upstream " + upstream + " is busy (bulkhead full)");
+        }
+
+        breaker.calls.increment();
+        try {
+            R result = work.get();
+            breaker.succeeded();
+            return result;
+        } catch (Throwable e) {
+            // Errors count too, or a failed half-open probe would never clear probing
+            if (isClientError(e)) {
+                breaker.succeeded();
+            } else {
+                breaker.failed();
+            }
+            throw e;
+        } finally {
+            breaker.bulkhead.release();
+        }
+    }
+
+    public Map<String, Stats> stats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        breakers.forEach((upstream, breaker) -> stats.put(upstream, breaker.stats()));
+        return stats;
+    }
+
+    private static boolean isClientError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpClientErrorException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package com.galvinusanalytics.backend_at.client;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Query parameters sent to an upstream module service together with the
+ * report filter keys they replace. Filters that were not pushed down are
+ * still evaluated in memory.
+ */
+public class UpstreamQuery {
+
+    private final Map<String, String> params = new LinkedHashMap<>();
+    private final Set<String> pushedFilters = new HashSet<>();
+
+    public static UpstreamQuery none() {
+        return new UpstreamQuery();
+    }
+
+    /**
+     * Add a query parameter that fully enforces the given report filter on the
+     * upstream side.
+     */
+    public UpstreamQuery push(String filterKey, String param, String value) {
+        params.put(param, value);
+        pushedFilters.add(filterKey);
+        return this;
+    }
+
+    /**
+     * Add a query parameter that does not correspond to a report filter, such
+     * as the {@code updatedFrom} watermark of an incremental sync.
+     */
+    public UpstreamQuery param(String param, String value) {
+        params.put(param, value);
+        return this;
+    }
+
+    public Map<String, String> getParams() {
+        return Collections.unmodifiableMap(params);
+    }
+
+    public Set<String> getPushedFilters() {
+        return Collections.unmodifiableSet(pushedFilters);
+    }
+
+    public boolean isEmpty() {
+        return params.isEmpty();
+    }
+
+    /**
+     * Build the request URI for the given base, appending the pushed parameters.
+     */
+    public URI toUri(String baseUrl) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl);
+        params.forEach(builder::queryParam);
+        return builder.encode().build().toUri();
+    }
+
+    /**
+     * Same as {@link #toUri(String)} with extra paging parameters.
+     */
+    public URI toUri(String baseUrl, int page, int size) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl);
+        params.forEach(builder::queryParam);
+        builder.queryParam("page", page).queryParam("size", size);
+        return builder.encode().build().toUri();
+    }
+
+    @Override
+    public String toString() {
+        return params.toString();
+    }
+}
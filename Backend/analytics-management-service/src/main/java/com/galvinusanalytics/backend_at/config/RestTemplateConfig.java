@@ -2,13 +2,23 @@ package com.galvinusanalytics.backend_at.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+
 @Configuration
 public class RestTemplateConfig {
     
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public UpstreamHttpRequestFactory upstreamHttpRequestFactory(Environment environment) {
+        return new UpstreamHttpRequestFactory(environment);
+    }
+    
+    @Bean
+    public RestTemplate restTemplate(UpstreamHttpRequestFactory upstreamHttpRequestFactory) {
+        RestTemplate restTemplate = new RestTemplate(upstreamHttpRequestFactory);
+        restTemplate.setInterceptors(List.of(new UpstreamHttpInterceptor(upstreamHttpRequestFactory)));
+        return restTemplate;
     }
 }
@@ -0,0 +1,182 @@
+package com.galvinusanalytics.backend_at.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Adds transparent gzip, the total exchange timeout and request metrics to
+ * upstream calls made through {@link UpstreamHttpRequestFactory}.
+ * <p>
+ * When the total timeout expires, the response body is closed from the
+ * deadline thread, which cancels the exchange and makes a read still blocked
+ * on a slow upstream fail with an {@link HttpTimeoutException}. The reading
+ * thread is never interrupted, so its own interrupt status is left alone.
+ */
+public class UpstreamHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("upstream-deadline").factory());
+
+    private final UpstreamHttpRequestFactory requestFactory;
+
+    public UpstreamHttpInterceptor(UpstreamHttpRequestFactory requestFactory) {
+        this.requestFactory = requestFactory;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        UpstreamHttpRequestFactory.Route route = requestFactory.route(request.getURI());
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        long start = System.nanoTime();
+        route.started();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            route.finished(start, true, e instanceof HttpTimeoutException);
+            throw e;
+        }
+        return new TrackedResponse(response, route, start);
+    }
+
+    private static final class TrackedResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final UpstreamHttpRequestFactory.Route route;
+        private final long start;
+        private final ScheduledFuture<?> deadline;
+        private final HttpHeaders headers;
+        private final boolean gzip;
+        private volatile boolean expired;
+        private volatile boolean finished;
+        private InputStream body;
+
+        TrackedResponse(ClientHttpResponse delegate, UpstreamHttpRequestFactory.Route route, long start) {
+            this.delegate = delegate;
+            this.route = route;
+            this.start = start;
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(route.totalTimeoutMs) - (System.nanoTime() - start);
+            this.deadline = DEADLINES.schedule(this::expire, Math.max(remainingNanos, 0), TimeUnit.NANOSECONDS);
+
+            HttpHeaders original = delegate.getHeaders();
+            this.gzip = "gzip".equalsIgnoreCase(original.getFirst(HttpHeaders.CONTENT_ENCODING));
+            if (gzip) {
+                HttpHeaders decoded = new HttpHeaders();
+                decoded.putAll(original);
+                decoded.remove(HttpHeaders.CONTENT_ENCODING);
+                decoded.remove(HttpHeaders.CONTENT_LENGTH);
+                this.headers = HttpHeaders.readOnlyHttpHeaders(decoded);
+            } else {
+                this.headers = original;
+            }
+        }
+
+        /**
+         * Runs on the deadline thread without taking the monitor: the reading
+         * thread may hold it while blocked on the network.
+         */
+        private void expire() {
+            if (!finished) {
+                expired = true;
+                try {
+                    delegate.getBody().close();
+                } catch (IOException ignored) {
+                    // The exchange is being torn down either way
+                }
+            }
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            synchronized (this) {
+                if (body != null) {
+                    return body;
+                }
+            }
+            // Reading the gzip header may block on the upstream, so it runs unlocked
+            InputStream raw = delegate.getBody();
+            if (gzip) {
+                try {
+                    raw = new GZIPInputStream(raw, 8192);
+                } catch (IOException e) {
+                    throw expired ? timeout() : e;
+                }
+            }
+            InputStream guarded = new FilterInputStream(raw) {
+                @Override
+                public int read() throws IOException {
+                    try {
+                        return super.read();
+                    } catch (IOException e) {
+                        throw expired ? timeout() : e;
+                    }
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    try {
+                        return super.read(b, off, len);
+                    } catch (IOException e) {
+                        throw expired ? timeout() : e;
+                    }
+                }
+            };
+            synchronized (this) {
+                if (body == null) {
+                    body = guarded;
+                }
+                return body;
+            }
+        }
+
+        private HttpTimeoutException timeout() {
+            return new HttpTimeoutException("Upstream exchange exceeded " + route.totalTimeoutMs + " ms");
+        }
+
+        @Override
+        public synchronized void close() {
+            deadline.cancel(false);
+            if (!finished) {
+                finished = true;
+                boolean failed;
+                try {
+                    failed = expired || delegate.getStatusCode().isError();
+                } catch (IOException e) {
+                    failed = true;
+                }
+                route.finished(start, failed, expired);
+            }
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.galvinusanalytics.backend_at.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request factory for the module service calls. Each upstream, identified by
+ * {@code host:port}, gets its own JDK {@link HttpClient}, i.e. its own pool of
+ * keep-alive connections (multiplexed when HTTP/2 is negotiated), and its own
+ * timeouts:
+ * <ul>
+ *   <li>{@code connect-timeout-ms}: TCP connect</li>
+ *   <li>{@code read-timeout-ms}: request sent until response headers</li>
+ *   <li>{@code total-timeout-ms}: whole exchange including the body, enforced
+ *       by {@link UpstreamHttpInterceptor}</li>
+ * </ul>
+ * Values are read from {@code upstream.http.<host>-<port>.<name>}, falling back
+ * to {@code upstream.http.<name>}.
+ */
+@Slf4j
+public class UpstreamHttpRequestFactory implements ClientHttpRequestFactory, DisposableBean {
+
+    /** Request counters of one upstream. */
+    public record Stats(long requests, int inFlight, int maxInFlight, long failures, long timeouts,
+                        long avgLatencyMs, String httpVersion) {
+    }
+
+    final class Route {
+        final String name;
+        final HttpClient client;
+        final JdkClientHttpRequestFactory factory;
+        final long totalTimeoutMs;
+        final LongAdder requests = new LongAdder();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final LongAdder failures = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder latencyNanos = new LongAdder();
+
+        Route(String name) {
+            this.name = name;
+            Duration connectTimeout = Duration.ofMillis(setting(name, "connect-timeout-ms", 2000));
+            this.client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.valueOf(environment.getProperty("upstream.http.version", "HTTP_2")))
+                    .connectTimeout(connectTimeout)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+            this.factory = new JdkClientHttpRequestFactory(client);
+            this.factory.setReadTimeout(Duration.ofMillis(setting(name, "read-timeout-ms", 15000)));
+            this.totalTimeoutMs = setting(name, "total-timeout-ms", 60000);
+            log.info("Upstream {}: {} client, connect timeout {}", name, client.version(), connectTimeout);
+        }
+
+        void started() {
+            requests.increment();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        }
+
+        void finished(long startNanos, boolean failed, boolean timedOut) {
+            inFlight.decrementAndGet();
+            latencyNanos.add(System.nanoTime() - startNanos);
+            if (failed) {
+                failures.increment();
+            }
+            if (timedOut) {
+                timeouts.increment();
+            }
+        }
+
+        Stats stats() {
+            long count = requests.sum();
+            long avgMs = count == 0 ? 0 : latencyNanos.sum() / count / 1_000_000;
+            return new Stats(count, inFlight.get(), maxInFlight.get(), failures.sum(), timeouts.sum(),
+                    avgMs, client.version().name());
+        }
+    }
+
+    private final Environment environment;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    public UpstreamHttpRequestFactory(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return route(uri).factory.createRequest(uri, httpMethod);
+    }
+
+    Route route(URI uri) {
+        String name = uri.getHost() + "-" + (uri.getPort() != -1 ? uri.getPort() : defaultPort(uri));
+        return routes.computeIfAbsent(name, Route::new);
+    }
+
+    public Map<String, Stats> stats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        routes.forEach((name, route) -> stats.put(name, route.stats()));
+        return stats;
+    }
+
+    private long setting(String route, String name, long defaultValue) {
+        Long specific = environment.getProperty("upstream.http." + route + "." + name, Long.class);
+        return specific != null ? specific : environment.getProperty("upstream.http." + name, Long.class, defaultValue);
+    }
+
+    private static int defaultPort(URI uri) {
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    @Override
+    public void destroy() {
+        routes.values().forEach(route -> route.client.close());
+    }
+}
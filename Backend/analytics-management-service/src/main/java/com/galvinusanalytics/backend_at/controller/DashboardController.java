@@ -1,7 +1,9 @@
 package com.galvinusanalytics.backend_at.controller;
 
 import com.galvinusanalytics.backend_at.dto.DashboardDTO;
+import com.galvinusanalytics.backend_at.dto.DashboardRenderDTO;
 import com.galvinusanalytics.backend_at.dto.APIResponse;
+import com.galvinusanalytics.backend_at.exception.ValidationException;
 import com.galvinusanalytics.backend_at.service.DashboardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -138,6 +140,31 @@ public class DashboardController {
         }
     }
 
+    /**
+     * Render all tiles of a dashboard as chart series
+     */
+    @GetMapping("/{dashboardId}/render")
+    public ResponseEntity<?> renderDashboard(
+            @PathVariable Long dashboardId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        try {
+            userId = getUserId(userId);
+            DashboardRenderDTO rendered = dashboardService.renderDashboard(dashboardId, userId);
+            return ResponseEntity.ok(
+                    new APIResponse<>(true, "Dashboard rendered successfully", rendered));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(
+                    new APIResponse<>(false, e.getMessage(), e.getErrors()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            log.error("Error rendering dashboard", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new APIResponse<>(false, "Error rendering dashboard: " + e.getMessage(), null));
+        }
+    }
+
     /**
      * Update dashboard
      */
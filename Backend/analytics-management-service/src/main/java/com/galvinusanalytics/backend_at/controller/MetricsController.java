@@ -0,0 +1,41 @@
+package com.galvinusanalytics.backend_at.controller;
+
+import com.galvinusanalytics.backend_at.client.UpstreamCoalescer;
+import com.galvinusanalytics.backend_at.client.UpstreamGuard;
+import com.galvinusanalytics.backend_at.config.UpstreamHttpRequestFactory;
+import com.galvinusanalytics.backend_at.dto.APIResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/anm/api/metrics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    private final UpstreamCoalescer upstreamCoalescer;
+    private final UpstreamHttpRequestFactory upstreamHttpRequestFactory;
+    private final UpstreamGuard upstreamGuard;
+
+    /**
+     * Get upstream fetch metrics
+     */
+    @GetMapping("/upstream")
+    public ResponseEntity<?> getUpstreamMetrics() {
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("coalescing", upstreamCoalescer.stats());
+            metrics.put("http", upstreamHttpRequestFactory.stats());
+            metrics.put("circuits", upstreamGuard.stats());
+            return ResponseEntity.ok(
+                    new APIResponse<>(true, "Upstream metrics retrieved successfully", metrics));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new APIResponse<>(false, "Error retrieving upstream metrics: " + e.getMessage(), null));
+        }
+    }
+}
@@ -2,15 +2,24 @@ package com.galvinusanalytics.backend_at.controller;
 
 import com.galvinusanalytics.backend_at.dto.ReportDTO;
 import com.galvinusanalytics.backend_at.dto.ReportExecutionDTO;
+import com.galvinusanalytics.backend_at.dto.ReportJobDTO;
 import com.galvinusanalytics.backend_at.dto.ReportResultDTO;
 import com.galvinusanalytics.backend_at.dto.APIResponse;
+import com.galvinusanalytics.backend_at.exception.UpstreamUnavailableException;
 import com.galvinusanalytics.backend_at.service.ReportExecutionService;
+import com.galvinusanalytics.backend_at.service.ReportJobService;
 import com.galvinusanalytics.backend_at.service.ReportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -22,6 +31,7 @@ public class ReportController {
 
     private final ReportService reportService;
     private final ReportExecutionService reportExecutionService;
+    private final ReportJobService reportJobService;
 
     private String getUserId(String userId) {
         return (userId == null || userId.trim().isEmpty()) ? "default-user" : userId;
@@ -148,18 +158,52 @@ public class ReportController {
     @PostMapping("/{reportId}/run")
     public ResponseEntity<?> runReport(
             @PathVariable Long reportId,
+            @RequestParam(defaultValue = "full") String mode,
             @RequestHeader(value = "X-User-Id", required = false) String userId) {
         try {
             userId = getUserId(userId);
-            ReportDTO report = reportService.runReport(reportId, userId);
+            if (!"full".equalsIgnoreCase(mode) && !"delta".equalsIgnoreCase(mode)) {
+                return ResponseEntity.badRequest().body(
+                        new APIResponse<>(false, "Invalid mode: " + mode + " (expected full or delta)", null));
+            }
+            ReportDTO report = reportService.runReport(reportId, userId, "delta".equalsIgnoreCase(mode));
             return ResponseEntity.ok(
                     new APIResponse<>(true, "Report executed successfully", report));
+        } catch (UpstreamUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                    new APIResponse<>(false, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
                     new APIResponse<>(false, "Error running report: " + e.getMessage(), null));
         }
     }
 
+    @GetMapping("/{reportId}/export")
+    public ResponseEntity<?> exportReport(
+            @PathVariable Long reportId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        try {
+            userId = getUserId(userId);
+            ReportService.Export export = reportService.exportReport(reportId, userId, format);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(export.format().getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(export.fileName(), StandardCharsets.UTF_8).build().toString())
+                    .body(export.body());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (UpstreamUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            log.error("Error exporting report", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new APIResponse<>(false, "Error exporting report: " + e.getMessage(), null));
+        }
+    }
+
     @PutMapping("/{reportId}/toggle-favorite")
     public ResponseEntity<?> toggleFavourite(
             @PathVariable Long reportId,
@@ -214,10 +258,118 @@ public class ReportController {
             ReportResultDTO result = reportExecutionService.executeReport(executionDTO, userId);
             return ResponseEntity.ok(
                     new APIResponse<>(true, "Report executed successfully", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (UpstreamUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                    new APIResponse<>(false, e.getMessage(), null));
         } catch (Exception e) {
             log.error("Error executing report", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
                     new APIResponse<>(false, "Error executing report: " + e.getMessage(), null));
         }
     }
+
+    @PostMapping("/execute/stream")
+    public ResponseEntity<?> streamReport(
+            @RequestBody ReportExecutionDTO executionDTO,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        try {
+            userId = getUserId(userId);
+            StreamingResponseBody body = reportExecutionService.streamReport(executionDTO, userId);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (UpstreamUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            log.error("Error streaming report", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new APIResponse<>(false, "Error streaming report: " + e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/{reportId}/jobs")
+    public ResponseEntity<?> submitReportJob(
+            @PathVariable Long reportId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        try {
+            userId = getUserId(userId);
+            ReportJobDTO job = reportJobService.submit(reportId, userId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                    new APIResponse<>(true, "Report job submitted successfully", job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            log.error("Error submitting report job", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new APIResponse<>(false, "Error submitting report job: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getReportJob(
+            @PathVariable String jobId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        try {
+            userId = getUserId(userId);
+            ReportJobDTO job = reportJobService.getJob(jobId, userId);
+            return ResponseEntity.ok(
+                    new APIResponse<>(true, "Report job retrieved successfully", job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new APIResponse<>(false, "Error retrieving report job: " + e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<?> cancelReportJob(
+            @PathVariable String jobId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        try {
+            userId = getUserId(userId);
+            ReportJobDTO job = reportJobService.cancel(jobId, userId);
+            return ResponseEntity.ok(
+                    new APIResponse<>(true, "Report job cancellation requested", job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new APIResponse<>(false, "Error cancelling report job: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<?> getReportJobResult(
+            @PathVariable String jobId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        try {
+            userId = getUserId(userId);
+            ReportResultDTO result = reportJobService.getResult(jobId, userId);
+            return ResponseEntity.ok(
+                    new APIResponse<>(true, "Report job result retrieved successfully", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    new APIResponse<>(false, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new APIResponse<>(false, "Error retrieving report job result: " + e.getMessage(), null));
+        }
+    }
 }
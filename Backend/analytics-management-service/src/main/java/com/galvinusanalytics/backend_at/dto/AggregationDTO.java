@@ -0,0 +1,13 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregationDTO {
+    private String field;                       // Column name, e.g. "Amount"; optional for COUNT
+    private String function;                    // COUNT, SUM, AVG, MIN, MAX; approximate: APPROX_DISTINCT, MEDIAN, P90, P95, P99
+}
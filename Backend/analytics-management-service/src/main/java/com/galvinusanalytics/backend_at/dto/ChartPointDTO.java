@@ -0,0 +1,13 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChartPointDTO {
+    private String name;                        // X-axis label or bucket range
+    private Double value;                       // Count or sum of the Y-axis field
+}
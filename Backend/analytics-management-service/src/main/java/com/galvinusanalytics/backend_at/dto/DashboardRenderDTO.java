@@ -0,0 +1,17 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardRenderDTO {
+    private Long dashboardId;
+    private String name;
+    private List<TileRenderDTO> tiles;
+    private Boolean partial;                    // True when any tile is not OK
+    private String renderedAt;
+}
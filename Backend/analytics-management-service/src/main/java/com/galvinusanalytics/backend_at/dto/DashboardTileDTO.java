@@ -18,6 +18,7 @@ public class DashboardTileDTO {
     private String chartType;
     private String yAxis;
     private String xAxis;
+    private String aggregation;
     private String xRangeMode;
     private String xMin;
     private String xMax;
@@ -0,0 +1,18 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupResultDTO {
+    private String field;                       // Group field, e.g. "Lead Source"
+    private Object value;                       // Group value (null for missing)
+    private Long count;                         // Records in this group
+    private Map<String, Object> aggregates;     // Subtotals keyed like "SUM(Amount)"
+    private List<GroupResultDTO> subgroups;     // Next grouping level, empty at the leaf
+}
@@ -0,0 +1,17 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JoinDTO {
+    private String module;                      // Joined module, e.g. "Account"
+    private String leftField;                   // Key in the report module, e.g. "Account Id"
+    private String rightField;                  // Key in the joined module, e.g. "Account ID"
+    private String type;                        // LEFT (default) or INNER
+    private Map<String, Object> filters;        // Filters on the joined module, same keys as report filters
+}
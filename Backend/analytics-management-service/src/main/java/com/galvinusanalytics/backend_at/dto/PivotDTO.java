@@ -0,0 +1,16 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PivotDTO {
+    private List<String> rows;                  // Row dimensions, outermost first, e.g. ["Stage", "Opportunities Owner"]
+    private List<String> columns;               // Column dimensions, e.g. ["Created At"]
+    private AggregationDTO measure;             // Cell value, COUNT when null
+    private String timeBucket;                  // Bucket for date dimensions: DAY, WEEK, MONTH (default), QUARTER, YEAR
+}
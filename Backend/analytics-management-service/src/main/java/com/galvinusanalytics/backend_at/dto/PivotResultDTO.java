@@ -0,0 +1,22 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PivotResultDTO {
+    private List<String> rowDimensions;         // Row dimension names
+    private List<String> columnDimensions;      // Column dimension names
+    private String measure;                     // Measure label, e.g. "SUM(Amount)"
+    private List<List<Object>> rowHeaders;      // One tuple of dimension values per matrix row
+    private List<List<Object>> columnHeaders;   // One tuple of dimension values per matrix column
+    private String layout;                      // DENSE or SPARSE
+    private List<List<Object>> cells;           // DENSE: [row][column] values, null where empty; SPARSE: [row, column, value] triples
+    private List<Object> rowTotals;             // Measure over each matrix row
+    private List<Object> columnTotals;          // Measure over each matrix column
+    private Object grandTotal;                  // Measure over all records
+}
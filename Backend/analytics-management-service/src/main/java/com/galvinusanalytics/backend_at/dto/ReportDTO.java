@@ -26,4 +26,6 @@ public class ReportDTO {
     private LocalDateTime updatedAt;
     private LocalDateTime lastRunAt;
     private String createdBy;
+    private ReportResultDTO result; // populated by ReportService.runReport
+    private ReportDeltaDTO delta; // populated by ReportService.runReport in delta mode
 }
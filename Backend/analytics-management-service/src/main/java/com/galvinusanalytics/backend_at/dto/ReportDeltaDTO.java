@@ -0,0 +1,24 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportDeltaDTO {
+    private String since;                       // Previous run's watermark, changes after it are included; null on the first run
+    private Boolean baseline;                   // True when there was no previous result, so everything is "changed"
+    private List<String> columns;
+    private List<Map<String, Object>> changedRows; // Matching records modified or newly matching since the previous run
+    private List<String> removedIds;            // Ids of records that matched before but were deleted or filtered out; null when not tracked (joins, snapshots disabled)
+    private Integer totalRecords;               // Matching records now
+    private List<GroupResultDTO> groups;        // Changed groups only; count 0 means the group is gone
+    private Map<String, Object> totals;         // Current grand totals
+    private String executedAt;
+    private Boolean stale;
+    private String dataAsOf;
+}
@@ -10,8 +10,19 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ReportExecutionDTO {
+    private Long reportId;                      // Saved report this request was built from, if any
     private String module;                      // "Lead", "Account", etc.
-    private List<String> columns;               // Selected columns to display
+    private List<String> columns;               // Selected columns to display; "Account.Industry" for joined fields
     private List<String> groups;                // Grouping fields
     private Map<String, Object> filters;        // Applied filters
+    private List<AggregationDTO> aggregations;  // Per-group aggregates, COUNT when empty
+    private Boolean includeRows;                // Detail rows alongside groups (default true)
+    private Boolean compact;                    // Rows as positional arrays in rowValues (default false)
+    private List<SortDTO> sort;                 // Row order, applied before paging
+    private Integer pageSize;                   // Rows per page, all rows when null
+    private String cursor;                      // nextCursor of the previous page
+    private JoinDTO join;                       // Second module joined on a key field, optional
+    private String timeBucket;                  // DAY, WEEK, MONTH, QUARTER or YEAR for a single date group
+    private String timeZone;                    // Zone the buckets follow, e.g. "Asia/Kolkata" (default: storage zone)
+    private PivotDTO pivot;                     // Cross-tab of the records instead of detail rows, optional
 }
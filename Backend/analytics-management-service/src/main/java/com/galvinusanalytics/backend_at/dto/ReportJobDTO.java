@@ -0,0 +1,22 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+    private String jobId;
+    private Long reportId;
+    private String status;                      // QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    private Long rowsFetched;                   // Module records loaded
+    private Long rowsFiltered;                  // Records left after filters
+    private Long rowsProjected;                 // Result rows built so far
+    private String error;                       // Failure message, FAILED only
+    private String submittedAt;
+    private String startedAt;
+    private String finishedAt;
+    private String expiresAt;                   // When a finished job and its result are dropped
+}
@@ -1,5 +1,6 @@
 package com.galvinusanalytics.backend_at.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,6 +13,16 @@ import java.util.Map;
 public class ReportResultDTO {
     private List<String> columns;              // Column headers
     private List<Map<String, Object>> rows;    // Data rows
+    private List<Object[]> rowValues;          // Compact data rows, values in column order
     private Integer totalRecords;              // Total number of records
+    private String nextCursor;                 // Cursor for the next page, null on the last one
     private String executedAt;                 // Timestamp of execution
+    private Boolean stale;                     // Served from older data because an upstream is unavailable
+    private String dataAsOf;                   // When the data was last fetched, set when stale
+    private List<GroupResultDTO> groups;       // Grouped subtotals, null when ungrouped
+    private Map<String, Object> totals;        // Grand totals for the grouped aggregates
+    private PivotResultDTO pivot;              // Pivot matrix, set in pivot mode
+    private String watermark;                  // Newest record modification time in the data, upstream clock and zone
+    @JsonIgnore
+    private String[] rowKeys;                  // Sorted ids of the matching records, for delta runs; null after a join or without snapshots
 }
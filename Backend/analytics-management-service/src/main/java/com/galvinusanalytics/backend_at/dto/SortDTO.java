@@ -0,0 +1,13 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SortDTO {
+    private String field;                       // Column name, e.g. "Created Date"
+    private String direction;                   // ASC (default) or DESC
+}
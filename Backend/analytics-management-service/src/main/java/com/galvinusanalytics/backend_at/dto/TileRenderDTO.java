@@ -0,0 +1,24 @@
+package com.galvinusanalytics.backend_at.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TileRenderDTO {
+    private Long tileId;
+    private Long reportId;
+    private String reportName;
+    private Integer tileOrder;
+    private String chartType;
+    private String xAxis;
+    private String yAxis;
+    private List<ChartPointDTO> series;         // Ready-to-plot points
+    private Integer totalRecords;               // Records behind the series
+    private String status;                      // OK, ERROR or TIMEOUT
+    private String error;                       // Set when the tile could not be rendered
+    private Long durationMs;                    // Time spent on the tile's report
+}
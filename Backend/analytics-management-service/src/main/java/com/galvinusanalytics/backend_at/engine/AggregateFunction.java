@@ -0,0 +1,43 @@
+package com.galvinusanalytics.backend_at.engine;
+
+public enum AggregateFunction {
+    COUNT, SUM, AVG, MIN, MAX,
+    // Sketch-based, approximate and not additive across groups
+    APPROX_DISTINCT, MEDIAN, P90, P95, P99;
+
+    public static AggregateFunction fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return COUNT;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported aggregate function: " + name);
+        }
+    }
+
+    public boolean requiresNumeric() {
+        return this != COUNT && this != APPROX_DISTINCT;
+    }
+
+    /** Computed from a {@link HyperLogLog} or {@link TDigest} rather than running totals. */
+    public boolean isSketch() {
+        return this == APPROX_DISTINCT || quantile() >= 0;
+    }
+
+    /** Whether values of sibling groups can be summed into their parent's. */
+    public boolean isAdditive() {
+        return this == COUNT || this == SUM;
+    }
+
+    /** Quantile a percentile function estimates, -1 for other functions. */
+    public double quantile() {
+        return switch (this) {
+            case MEDIAN -> 0.5;
+            case P90 -> 0.9;
+            case P95 -> 0.95;
+            case P99 -> 0.99;
+            default -> -1;
+        };
+    }
+}
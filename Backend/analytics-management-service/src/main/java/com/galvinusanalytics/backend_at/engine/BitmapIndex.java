@@ -0,0 +1,156 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Row positions of a {@link ColumnarTable} per distinct value of one field,
+ * as {@link RowBitmap}s. Looking up a value costs the size of its bitmap, not
+ * the table, and bitmaps of several indexes combine with AND/OR.
+ * <p>
+ * Bitmaps are keyed by value rather than dictionary code because codes are
+ * reassigned whenever a snapshot version is rebuilt. Null values are not
+ * indexed.
+ */
+public final class BitmapIndex {
+
+    private final String field;
+    private final Map<String, RowBitmap> rowsByValue;
+
+    private BitmapIndex(String field, Map<String, RowBitmap> rowsByValue) {
+        this.field = field;
+        this.rowsByValue = Collections.unmodifiableMap(rowsByValue);
+    }
+
+    public static BitmapIndex build(ColumnarTable table, String field) {
+        Column column = table.require(field);
+        Map<String, Rows> pending = new HashMap<>();
+        if (column instanceof DictionaryColumn dictionary) {
+            Rows[] byCode = new Rows[dictionary.cardinality()];
+            int[] codes = dictionary.codes();
+            for (int row = 0; row < codes.length; row++) {
+                int code = codes[row];
+                if (code != DictionaryColumn.NULL_CODE) {
+                    Rows rows = byCode[code];
+                    if (rows == null) {
+                        rows = byCode[code] = pending.computeIfAbsent(dictionary.valueOf(code), v -> new Rows());
+                    }
+                    rows.add(row);
+                }
+            }
+        } else {
+            for (int row = 0; row < column.size(); row++) {
+                Object value = column.get(row);
+                if (value != null) {
+                    pending.computeIfAbsent(value.toString(), v -> new Rows()).add(row);
+                }
+            }
+        }
+        Map<String, RowBitmap> rowsByValue = new HashMap<>(Math.max(16, pending.size() * 4 / 3 + 1));
+        pending.forEach((value, rows) -> rowsByValue.put(value, rows.toBitmap()));
+        return new BitmapIndex(field, rowsByValue);
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /** Rows whose value equals {@code value} exactly; empty if none. */
+    public RowBitmap get(String value) {
+        RowBitmap rows = value != null ? rowsByValue.get(value) : null;
+        return rows != null ? rows : RowBitmap.EMPTY;
+    }
+
+    /**
+     * Rows whose value equals {@code value} ignoring case: the union of the
+     * bitmaps of every spelling present.
+     */
+    public RowBitmap getIgnoreCase(String value) {
+        RowBitmap rows = RowBitmap.EMPTY;
+        for (Map.Entry<String, RowBitmap> entry : rowsByValue.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(value)) {
+                rows = rows.or(entry.getValue());
+            }
+        }
+        return rows;
+    }
+
+    public int distinctValues() {
+        return rowsByValue.size();
+    }
+
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Map.Entry<String, RowBitmap> entry : rowsByValue.entrySet()) {
+            bytes += 48L + entry.getKey().length() * 2L + entry.getValue().estimatedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Index for {@code after}, a version of {@code before} in which the rows
+     * {@code replaced[0..replacedCount)} were rewritten in place and rows from
+     * {@code before.rowCount()} on were appended. Only the values those rows
+     * moved between are touched.
+     */
+    public BitmapIndex update(ColumnarTable before, ColumnarTable after, int[] replaced, int replacedCount) {
+        Column oldColumn = before.require(field);
+        Column newColumn = after.require(field);
+        Map<String, Rows> removed = new HashMap<>();
+        Map<String, Rows> added = new HashMap<>();
+        for (int i = 0; i < replacedCount; i++) {
+            int row = replaced[i];
+            Object oldValue = oldColumn.get(row);
+            Object newValue = newColumn.get(row);
+            if (!Objects.equals(oldValue, newValue)) {
+                if (oldValue != null) {
+                    removed.computeIfAbsent(oldValue.toString(), v -> new Rows()).add(row);
+                }
+                if (newValue != null) {
+                    added.computeIfAbsent(newValue.toString(), v -> new Rows()).add(row);
+                }
+            }
+        }
+        for (int row = before.rowCount(); row < after.rowCount(); row++) {
+            Object value = newColumn.get(row);
+            if (value != null) {
+                added.computeIfAbsent(value.toString(), v -> new Rows()).add(row);
+            }
+        }
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+
+        Map<String, RowBitmap> rowsByValue = new HashMap<>(this.rowsByValue);
+        removed.forEach((value, rows) -> {
+            RowBitmap remaining = get(value).andNot(rows.toBitmap());
+            if (remaining.isEmpty()) {
+                rowsByValue.remove(value);
+            } else {
+                rowsByValue.put(value, remaining);
+            }
+        });
+        added.forEach((value, rows) -> rowsByValue.merge(value, rows.toBitmap(), RowBitmap::or));
+        return new BitmapIndex(field, rowsByValue);
+    }
+
+    /** Growable ascending row list. */
+    private static final class Rows {
+        private int[] rows = new int[4];
+        private int count;
+
+        void add(int row) {
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, count * 2);
+            }
+            rows[count++] = row;
+        }
+
+        RowBitmap toBitmap() {
+            return RowBitmap.of(rows, count);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.ChartPointDTO;
+import com.galvinusanalytics.backend_at.dto.GroupResultDTO;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduces single-level grouped results into the {name, value} points a tile
+ * chart plots. Applies the tile's custom x-range and keeps the number of
+ * points bounded: numeric axes fall into equal-width bins, date axes roll up
+ * by day and then month, and long category tails collapse into "Other".
+ * Only additive measures (COUNT, SUM) are merged that way; for distinct
+ * counts and percentiles, which can't be summed, excess points are dropped
+ * instead, keeping the latest dates, the lowest numbers and the largest
+ * categories.
+ */
+@Component
+public class ChartSeriesBuilder {
+
+    public static final String UNKNOWN = "Unknown";
+    public static final String OTHER = "Other";
+
+    public record Range(String mode, String min, String max) {
+        boolean isCustom() {
+            return "custom".equalsIgnoreCase(mode);
+        }
+    }
+
+    public List<ChartPointDTO> build(List<GroupResultDTO> groups, String measure, FieldType xType,
+                                     Range range, int maxPoints, boolean additive) {
+        List<Point> points = new ArrayList<>();
+        if (groups != null) {
+            for (GroupResultDTO group : groups) {
+                Object raw = group.getAggregates() != null ? group.getAggregates().get(measure) : null;
+                double value = raw instanceof Number number ? number.doubleValue() : 0;
+                points.add(new Point(blankToNull(group.getValue()), value));
+            }
+        }
+
+        List<ChartPointDTO> series = switch (xType) {
+            case NUMBER -> numeric(points, range, maxPoints, additive);
+            case DATE_TIME -> dates(points, range, maxPoints, additive);
+            default -> categories(points, maxPoints, additive);
+        };
+        series.forEach(point -> point.setValue(Math.round(point.getValue() * 100.0) / 100.0));
+        return series;
+    }
+
+    private List<ChartPointDTO> numeric(List<Point> points, Range range, int maxPoints, boolean additive) {
+        Double from = range != null && range.isCustom() ? parseDouble(range.min()) : null;
+        Double to = range != null && range.isCustom() ? parseDouble(range.max()) : null;
+
+        double unknown = 0;
+        boolean hasUnknown = false;
+        List<Point> inRange = new ArrayList<>();
+        for (Point point : points) {
+            if (!(point.key() instanceof Number number)) {
+                unknown += point.value();
+                hasUnknown = true;
+                continue;
+            }
+            double x = number.doubleValue();
+            if ((from != null && x < from) || (to != null && x > to)) {
+                continue;
+            }
+            inRange.add(point);
+        }
+
+        List<ChartPointDTO> series = new ArrayList<>();
+        if (!additive && inRange.size() > maxPoints) {
+            inRange.sort(Comparator.comparingDouble(point -> ((Number) point.key()).doubleValue()));
+            inRange = new ArrayList<>(inRange.subList(0, maxPoints));
+        }
+        if (inRange.size() <= maxPoints) {
+            inRange.forEach(point -> series.add(new ChartPointDTO(formatNumber(((Number) point.key()).doubleValue()), point.value())));
+        } else {
+            double lo = from != null ? from : inRange.stream().mapToDouble(p -> ((Number) p.key()).doubleValue()).min().orElse(0);
+            double hi = to != null ? to : inRange.stream().mapToDouble(p -> ((Number) p.key()).doubleValue()).max().orElse(0);
+            double width = (hi - lo) / maxPoints;
+            double[] bins = new double[maxPoints];
+            for (Point point : inRange) {
+                int bin = width <= 0 ? 0 : (int) ((((Number) point.key()).doubleValue() - lo) / width);
+                bins[Math.min(Math.max(bin, 0), maxPoints - 1)] += point.value();
+            }
+            for (int i = 0; i < maxPoints; i++) {
+                double start = lo + i * width;
+                series.add(new ChartPointDTO(formatNumber(start) + " - " + formatNumber(start + width), bins[i]));
+            }
+        }
+        if (hasUnknown) {
+            series.add(new ChartPointDTO(UNKNOWN, unknown));
+        }
+        return series;
+    }
+
+    private List<ChartPointDTO> dates(List<Point> points, Range range, int maxPoints, boolean additive) {
+        LocalDate from = range != null && range.isCustom() ? parseDate(range.min()) : null;
+        LocalDate to = range != null && range.isCustom() ? parseDate(range.max()) : null;
+
+        Map<String, Double> byDay = new LinkedHashMap<>();
+        double unknown = 0;
+        boolean hasUnknown = false;
+        for (Point point : points) {
+            LocalDate day = point.key() != null ? parseDate(point.key().toString()) : null;
+            if (day == null) {
+                unknown += point.value();
+                hasUnknown = true;
+                continue;
+            }
+            if ((from != null && day.isBefore(from)) || (to != null && day.isAfter(to))) {
+                continue;
+            }
+            byDay.merge(day.toString(), point.value(), Double::sum);
+        }
+
+        Map<String, Double> buckets = byDay;
+        if (byDay.size() > maxPoints && !additive) {
+            buckets = new LinkedHashMap<>();
+            List<String> latest = byDay.keySet().stream().sorted(Comparator.reverseOrder()).limit(maxPoints).toList();
+            for (String day : latest) {
+                buckets.put(day, byDay.get(day));
+            }
+        } else if (byDay.size() > maxPoints) {
+            buckets = new LinkedHashMap<>();
+            for (Map.Entry<String, Double> entry : byDay.entrySet()) {
+                buckets.merge(entry.getKey().substring(0, 7), entry.getValue(), Double::sum);
+            }
+        }
+
+        List<ChartPointDTO> series = new ArrayList<>();
+        buckets.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> series.add(new ChartPointDTO(entry.getKey(), entry.getValue())));
+        if (hasUnknown) {
+            series.add(new ChartPointDTO(UNKNOWN, unknown));
+        }
+        return series;
+    }
+
+    private List<ChartPointDTO> categories(List<Point> points, int maxPoints, boolean additive) {
+        Map<String, Double> merged = new LinkedHashMap<>();
+        for (Point point : points) {
+            String name = point.key() != null ? point.key().toString() : UNKNOWN;
+            merged.merge(name, point.value(), Double::sum);
+        }
+
+        List<ChartPointDTO> series = new ArrayList<>();
+        if (merged.size() <= maxPoints) {
+            merged.forEach((name, value) -> series.add(new ChartPointDTO(name, value)));
+            return series;
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(merged.entrySet());
+        ranked.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()));
+        double other = 0;
+        for (int i = 0; i < ranked.size(); i++) {
+            if (i < maxPoints - (additive ? 1 : 0)) {
+                series.add(new ChartPointDTO(ranked.get(i).getKey(), ranked.get(i).getValue()));
+            } else {
+                other += ranked.get(i).getValue();
+            }
+        }
+        if (additive) {
+            series.add(new ChartPointDTO(OTHER, other));
+        }
+        return series;
+    }
+
+    private static Object blankToNull(Object value) {
+        return value instanceof String s && s.isBlank() ? null : value;
+    }
+
+    private static Double parseDouble(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.length() < 10) return null;
+        try {
+            return LocalDate.parse(value.substring(0, 10));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String formatNumber(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+    }
+
+    private record Point(Object key, double value) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.galvinusanalytics.backend_at.engine;
+
+/**
+ * One field of a {@link ColumnarTable}, stored as a primitive or encoded array.
+ */
+public interface Column {
+
+    FieldType type();
+
+    int size();
+
+    boolean isNull(int row);
+
+    /**
+     * Boxed value as a report row shows it ({@code String}, {@code Integer} /
+     * {@code Double}, {@code LocalDateTime}).
+     */
+    Object get(int row);
+
+    /** Approximate heap held by the column, for sizing logs. */
+    long estimatedBytes();
+}
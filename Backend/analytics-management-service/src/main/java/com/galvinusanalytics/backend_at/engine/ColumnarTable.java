@@ -0,0 +1,369 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of one module's records. Numbers are held in
+ * {@code double[]}, timestamps as epoch day plus millisecond of day, and
+ * strings are dictionary-encoded unless they turn out to have more than
+ * {@link #DICTIONARY_LIMIT} distinct values. Tables are immutable once built.
+ */
+public final class ColumnarTable {
+
+    public static final int DICTIONARY_LIMIT = 1024;
+
+    private final ReportModule module;
+    private final int rowCount;
+    private final Map<String, Column> columns;
+    private final List<Column> distinctColumns;
+
+    private ColumnarTable(ReportModule module, int rowCount, Map<String, Column> columns, List<Column> distinctColumns) {
+        this.module = module;
+        this.rowCount = rowCount;
+        this.columns = columns;
+        this.distinctColumns = distinctColumns;
+    }
+
+    public static <T> ColumnarTable of(ModuleFields<T> fields, List<T> records) {
+        Builder<T> builder = builder(fields, records.size());
+        for (T record : records) {
+            builder.add(record);
+        }
+        return builder.build();
+    }
+
+    public static <T> Builder<T> builder(ModuleFields<T> fields, int expectedRows) {
+        return new Builder<>(fields, expectedRows);
+    }
+
+    public ReportModule getModule() {
+        return module;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the column for a field or alias name, or {@code null} if the module has no such field
+     */
+    public Column column(String name) {
+        return columns.get(name);
+    }
+
+    public Column require(String name) {
+        Column column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown field '" + name + "' for module " + module.getLabel());
+        }
+        return column;
+    }
+
+    public Map<String, Column> columns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Column column : distinctColumns) {
+            bytes += column.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Table whose row {@code i} is row {@code leftRows[i]} of {@code left}
+     * next to row {@code rightRows[i]} of {@code right} ({@code -1} for no
+     * match, all nulls). Right-hand fields are named {@code prefix + name}.
+     */
+    static ColumnarTable combine(ColumnarTable left, int[] leftRows, ColumnarTable right, int[] rightRows,
+                                 String prefix) {
+        Map<Column, Column> gathered = new IdentityHashMap<>();
+        Map<String, Column> columns = new LinkedHashMap<>();
+        left.columns.forEach((name, column) ->
+                columns.put(name, gathered.computeIfAbsent(column, c -> gather(c, leftRows))));
+        right.columns.forEach((name, column) ->
+                columns.put(prefix + name, gathered.computeIfAbsent(column, c -> gather(c, rightRows))));
+        return new ColumnarTable(left.module, leftRows.length, columns, new ArrayList<>(gathered.values()));
+    }
+
+    private static Column gather(Column column, int[] rows) {
+        if (column instanceof DictionaryColumn dictionary) {
+            // Keep the dictionary, only the codes move
+            int[] codes = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                codes[i] = rows[i] < 0 ? DictionaryColumn.NULL_CODE : dictionary.code(rows[i]);
+            }
+            String[] values = new String[dictionary.cardinality()];
+            for (int code = 0; code < values.length; code++) {
+                values[code] = dictionary.valueOf(code);
+            }
+            return new DictionaryColumn(codes, values);
+        }
+        int capacity = Math.max(rows.length, 16);
+        ColumnBuilder builder = switch (column.type()) {
+            case NUMBER -> new NumberColumnBuilder(capacity);
+            case DATE_TIME -> new DateTimeColumnBuilder(capacity);
+            default -> new StringColumnBuilder(capacity);
+        };
+        for (int row : rows) {
+            if (row < 0) {
+                builder.append(null);
+            } else {
+                builder.appendFrom(column, row);
+            }
+        }
+        return builder.build(rows.length);
+    }
+
+    /**
+     * Appends records (or rows of an existing table) column by column.
+     */
+    public static final class Builder<T> {
+
+        private final ModuleFields<T> fields;
+        private final List<FieldAccessor<T>> accessors;
+        private final ColumnBuilder[] builders;
+        private int rows;
+
+        private Builder(ModuleFields<T> fields, int expectedRows) {
+            this.fields = fields;
+            this.accessors = fields.columns();
+            this.builders = new ColumnBuilder[accessors.size()];
+            int capacity = Math.max(expectedRows, 16);
+            for (int i = 0; i < builders.length; i++) {
+                builders[i] = switch (accessors.get(i).type()) {
+                    case NUMBER -> new NumberColumnBuilder(capacity);
+                    case DATE_TIME -> new DateTimeColumnBuilder(capacity);
+                    default -> new StringColumnBuilder(capacity);
+                };
+            }
+        }
+
+        public Builder<T> add(T record) {
+            for (int i = 0; i < builders.length; i++) {
+                builders[i].append(accessors.get(i).get(record));
+            }
+            rows++;
+            return this;
+        }
+
+        /**
+         * Copy one row of a table built for the same module.
+         */
+        public Builder<T> copyRow(ColumnarTable source, int row) {
+            for (int i = 0; i < builders.length; i++) {
+                builders[i].appendFrom(source.require(accessors.get(i).name()), row);
+            }
+            rows++;
+            return this;
+        }
+
+        public int size() {
+            return rows;
+        }
+
+        public ColumnarTable build() {
+            Map<FieldAccessor<T>, Column> byAccessor = new IdentityHashMap<>();
+            List<Column> distinct = new ArrayList<>(builders.length);
+            for (int i = 0; i < builders.length; i++) {
+                Column column = builders[i].build(rows);
+                byAccessor.put(accessors.get(i), column);
+                distinct.add(column);
+            }
+            Map<String, Column> columns = new LinkedHashMap<>();
+            fields.all().forEach((name, accessor) -> columns.put(name, byAccessor.get(accessor)));
+            return new ColumnarTable(fields.getModule(), rows, columns, distinct);
+        }
+    }
+
+    private interface ColumnBuilder {
+        void append(Object value);
+
+        void appendFrom(Column column, int row);
+
+        Column build(int rows);
+    }
+
+    private static final class StringColumnBuilder implements ColumnBuilder {
+        private final Map<String, Integer> codesByValue = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int[] codes;
+        private String[] plain;
+        private int size;
+
+        StringColumnBuilder(int capacity) {
+            codes = new int[capacity];
+        }
+
+        @Override
+        public void append(Object value) {
+            String text = value == null ? null : value.toString();
+            if (plain != null) {
+                if (size == plain.length) {
+                    plain = Arrays.copyOf(plain, size * 2);
+                }
+                plain[size++] = text;
+                return;
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            if (text == null) {
+                codes[size++] = DictionaryColumn.NULL_CODE;
+                return;
+            }
+            Integer code = codesByValue.get(text);
+            if (code == null) {
+                if (dictionary.size() == DICTIONARY_LIMIT) {
+                    switchToPlain();
+                    append(text);
+                    return;
+                }
+                code = dictionary.size();
+                dictionary.add(text);
+                codesByValue.put(text, code);
+            }
+            codes[size++] = code;
+        }
+
+        @Override
+        public void appendFrom(Column column, int row) {
+            append(column.get(row));
+        }
+
+        private void switchToPlain() {
+            plain = new String[Math.max(codes.length, 16)];
+            for (int i = 0; i < size; i++) {
+                plain[i] = codes[i] == DictionaryColumn.NULL_CODE ? null : dictionary.get(codes[i]);
+            }
+            codes = null;
+            codesByValue.clear();
+            dictionary.clear();
+        }
+
+        @Override
+        public Column build(int rows) {
+            if (plain != null) {
+                return new StringColumn(Arrays.copyOf(plain, rows));
+            }
+            return new DictionaryColumn(Arrays.copyOf(codes, rows), dictionary.toArray(new String[0]));
+        }
+    }
+
+    private static final class NumberColumnBuilder implements ColumnBuilder {
+        private double[] values;
+        private final BitSet nulls = new BitSet();
+        private boolean integral = true;
+        private boolean wide;
+        private int size;
+
+        NumberColumnBuilder(int capacity) {
+            values = new double[capacity];
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+        }
+
+        @Override
+        public void append(Object value) {
+            ensureCapacity();
+            if (value instanceof Number number) {
+                values[size] = number.doubleValue();
+                if (number instanceof Long) {
+                    wide = true;
+                } else if (!(number instanceof Integer || number instanceof Short)) {
+                    integral = false;
+                }
+            } else {
+                nulls.set(size);
+            }
+            size++;
+        }
+
+        @Override
+        public void appendFrom(Column column, int row) {
+            if (column instanceof NumberColumn numbers) {
+                ensureCapacity();
+                if (numbers.isNull(row)) {
+                    nulls.set(size);
+                } else {
+                    values[size] = numbers.getDouble(row);
+                    if (!numbers.isIntegral()) {
+                        integral = false;
+                    }
+                    if (numbers.isWide()) {
+                        wide = true;
+                    }
+                }
+                size++;
+            } else {
+                append(column.get(row));
+            }
+        }
+
+        @Override
+        public Column build(int rows) {
+            return new NumberColumn(Arrays.copyOf(values, rows), (BitSet) nulls.clone(), integral, wide);
+        }
+    }
+
+    private static final class DateTimeColumnBuilder implements ColumnBuilder {
+        private int[] epochDays;
+        private int[] millisOfDay;
+        private int size;
+
+        DateTimeColumnBuilder(int capacity) {
+            epochDays = new int[capacity];
+            millisOfDay = new int[capacity];
+        }
+
+        private void ensureCapacity() {
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                millisOfDay = Arrays.copyOf(millisOfDay, size * 2);
+            }
+        }
+
+        @Override
+        public void append(Object value) {
+            ensureCapacity();
+            if (value instanceof LocalDateTime dateTime) {
+                epochDays[size] = (int) dateTime.toLocalDate().toEpochDay();
+                millisOfDay[size] = (int) (dateTime.toLocalTime().toNanoOfDay() / 1_000_000L);
+            } else {
+                epochDays[size] = DateTimeColumn.NULL_DAY;
+            }
+            size++;
+        }
+
+        @Override
+        public void appendFrom(Column column, int row) {
+            if (column instanceof DateTimeColumn dates) {
+                ensureCapacity();
+                epochDays[size] = dates.epochDay(row);
+                millisOfDay[size] = dates.millisOfDay(row);
+                size++;
+            } else {
+                append(column.get(row));
+            }
+        }
+
+        @Override
+        public Column build(int rows) {
+            return new DateTimeColumn(Arrays.copyOf(epochDays, rows), Arrays.copyOf(millisOfDay, rows));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV: comma separated, CRLF line ends, fields quoted when they
+ * contain a separator, quote or line break. Starts with a UTF-8 byte order
+ * mark so spreadsheet applications pick the right encoding.
+ */
+final class CsvExportWriter implements ExportWriter {
+
+    private final Writer writer;
+    private boolean firstInRow;
+
+    CsvExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF');
+    }
+
+    @Override
+    public void header(List<String> names) throws IOException {
+        startRow();
+        for (String name : names) {
+            value(name);
+        }
+        endRow();
+    }
+
+    @Override
+    public void startRow() {
+        firstInRow = true;
+    }
+
+    @Override
+    public void value(Object value) throws IOException {
+        if (!firstInRow) {
+            writer.write(',');
+        }
+        firstInRow = false;
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Double d) {
+            writer.write(d.isNaN() || d.isInfinite() ? d.toString() : BigDecimal.valueOf(d).stripTrailingZeros().toPlainString());
+        } else if (value instanceof Number) {
+            writer.write(value.toString());
+        } else {
+            text(value.toString());
+        }
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void text(String text) throws IOException {
+        // A leading =, +, - or @ would be evaluated as a formula when the
+        // file is opened in a spreadsheet; a quote prefix keeps it text.
+        boolean formula = !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0;
+        boolean quote = formula;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
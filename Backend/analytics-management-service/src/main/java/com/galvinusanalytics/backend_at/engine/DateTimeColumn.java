@@ -0,0 +1,65 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Timestamp column split into epoch day and millisecond of day. Date-range
+ * filters and daily rollups only need to touch {@link #epochDays()}.
+ */
+public final class DateTimeColumn implements Column {
+
+    public static final int NULL_DAY = Integer.MIN_VALUE;
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final int[] epochDays;
+    private final int[] millisOfDay;
+
+    DateTimeColumn(int[] epochDays, int[] millisOfDay) {
+        this.epochDays = epochDays;
+        this.millisOfDay = millisOfDay;
+    }
+
+    @Override
+    public FieldType type() {
+        return FieldType.DATE_TIME;
+    }
+
+    @Override
+    public int size() {
+        return epochDays.length;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return epochDays[row] == NULL_DAY;
+    }
+
+    @Override
+    public LocalDateTime get(int row) {
+        int day = epochDays[row];
+        if (day == NULL_DAY) {
+            return null;
+        }
+        return LocalDateTime.of(LocalDate.ofEpochDay(day), LocalTime.ofNanoOfDay(millisOfDay[row] * NANOS_PER_MILLI));
+    }
+
+    public int epochDay(int row) {
+        return epochDays[row];
+    }
+
+    public int[] epochDays() {
+        return epochDays;
+    }
+
+    public int millisOfDay(int row) {
+        return millisOfDay[row];
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return 32L + 8L * epochDays.length;
+    }
+}
@@ -0,0 +1,222 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-day pre-aggregates of a module over one timestamp field: the record
+ * count and, for every numeric field, the sum and non-null count of each
+ * calendar day (in the zone the timestamps are stored in). Records without
+ * a timestamp are kept in a separate cell.
+ * <p>
+ * Only subtractable measures are kept, so {@link ModuleSnapshot} can update a
+ * rollup for the records an incremental sync changed instead of rebuilding
+ * it. COUNT, SUM and AVG per day, week, month, quarter or year then come from
+ * at most a few thousand cells rather than a scan of every record.
+ * Rollups are immutable; {@link #toUpdater()} starts a modified copy.
+ */
+public final class DayRollup {
+
+    /** Rollups spanning more days than this (bogus dates) are not kept. */
+    public static final int MAX_SPAN_DAYS = 366 * 60;
+
+    private static final int NULL_SLOT = 0;
+
+    private final String dateField;
+    private final String[] numericFields;
+    private final int firstDay;                 // Epoch day of slot 1
+    private final long[] counts;                // Slot 0 holds records without a timestamp
+    private final double[][] sums;              // [numeric field][slot]
+    private final long[][] nonNull;             // [numeric field][slot]
+
+    private DayRollup(String dateField, String[] numericFields, int firstDay, long[] counts,
+                      double[][] sums, long[][] nonNull) {
+        this.dateField = dateField;
+        this.numericFields = numericFields;
+        this.firstDay = firstDay;
+        this.counts = counts;
+        this.sums = sums;
+        this.nonNull = nonNull;
+    }
+
+    /**
+     * Roll up every row of {@code table}.
+     *
+     * @return the rollup, or {@code null} when the dates span more than {@link #MAX_SPAN_DAYS}
+     */
+    public static DayRollup build(ColumnarTable table, String dateField, List<String> numericFields) {
+        Updater updater = new Updater(dateField, numericFields.toArray(new String[0]));
+        for (int row = 0; row < table.rowCount(); row++) {
+            updater.add(table, row, 1);
+        }
+        return updater.build();
+    }
+
+    public String dateField() {
+        return dateField;
+    }
+
+    /** Index of a numeric field in the rollup, -1 if it is not rolled up. */
+    public int numericIndex(String field) {
+        for (int i = 0; i < numericFields.length; i++) {
+            if (numericFields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Number of day cells, excluding the cell of records without a timestamp. */
+    public int days() {
+        return counts.length - 1;
+    }
+
+    /** Epoch day of cell {@code index} (0-based). */
+    public int day(int index) {
+        return firstDay + index;
+    }
+
+    /** Records on day cell {@code index}, or without a timestamp for -1. */
+    public long count(int index) {
+        return counts[index + 1];
+    }
+
+    public double sum(int field, int index) {
+        return sums[field][index + 1];
+    }
+
+    public long nonNull(int field, int index) {
+        return nonNull[field][index + 1];
+    }
+
+    public Updater toUpdater() {
+        return new Updater(this);
+    }
+
+    /**
+     * Mutable copy of a rollup; rows are added with weight 1 and removed with -1.
+     */
+    public static final class Updater {
+        private final String dateField;
+        private final String[] numericFields;
+        private int firstDay;
+        private long[] counts;
+        private double[][] sums;
+        private long[][] nonNull;
+        private boolean overflow;
+        private ColumnarTable source;
+        private DateTimeColumn dates;
+        private NumberColumn[] numbers;
+
+        private Updater(String dateField, String[] numericFields) {
+            this.dateField = dateField;
+            this.numericFields = numericFields;
+            this.counts = new long[1];
+            this.sums = new double[numericFields.length][1];
+            this.nonNull = new long[numericFields.length][1];
+        }
+
+        private Updater(DayRollup rollup) {
+            this.dateField = rollup.dateField;
+            this.numericFields = rollup.numericFields;
+            this.firstDay = rollup.firstDay;
+            this.counts = rollup.counts.clone();
+            this.sums = new double[numericFields.length][];
+            this.nonNull = new long[numericFields.length][];
+            for (int i = 0; i < numericFields.length; i++) {
+                sums[i] = rollup.sums[i].clone();
+                nonNull[i] = rollup.nonNull[i].clone();
+            }
+        }
+
+        public void add(ColumnarTable table, int row, int weight) {
+            if (overflow) {
+                return;
+            }
+            if (table != source) {
+                bind(table);
+            }
+            int slot = slot(dates.epochDay(row));
+            if (slot < 0) {
+                overflow = true;
+                return;
+            }
+            counts[slot] += weight;
+            for (int i = 0; i < numericFields.length; i++) {
+                NumberColumn values = numbers[i];
+                if (!values.isNull(row)) {
+                    sums[i][slot] += weight * values.getDouble(row);
+                    nonNull[i][slot] += weight;
+                }
+            }
+        }
+
+        private void bind(ColumnarTable table) {
+            source = table;
+            dates = (DateTimeColumn) table.require(dateField);
+            numbers = new NumberColumn[numericFields.length];
+            for (int i = 0; i < numericFields.length; i++) {
+                numbers[i] = (NumberColumn) table.require(numericFields[i]);
+            }
+        }
+
+        /**
+         * @return the rollup, or {@code null} if the dates spanned too many days
+         */
+        public DayRollup build() {
+            return overflow ? null : new DayRollup(dateField, numericFields, firstDay, counts, sums, nonNull);
+        }
+
+        private int slot(int day) {
+            if (day == DateTimeColumn.NULL_DAY) {
+                return NULL_SLOT;
+            }
+            int days = counts.length - 1;
+            if (days == 0) {
+                firstDay = day;
+                resize(0, 1);
+            } else if (day < firstDay) {
+                if ((long) firstDay - day + days > MAX_SPAN_DAYS) {
+                    return -1;
+                }
+                int shift = firstDay - day;
+                resize(shift, days + shift);
+                firstDay = day;
+            } else if (day - firstDay >= days) {
+                if ((long) day - firstDay + 1 > MAX_SPAN_DAYS) {
+                    return -1;
+                }
+                resize(0, Math.min(Math.max(day - firstDay + 1, days * 3 / 2), MAX_SPAN_DAYS));
+            }
+            return day - firstDay + 1;
+        }
+
+        /** Grow to {@code days} day cells, moving existing cells {@code shift} to the right. */
+        private void resize(int shift, int days) {
+            counts = move(counts, shift, days);
+            for (int i = 0; i < numericFields.length; i++) {
+                sums[i] = move(sums[i], shift, days);
+                nonNull[i] = move(nonNull[i], shift, days);
+            }
+        }
+
+        private static long[] move(long[] cells, int shift, int days) {
+            long[] result = new long[days + 1];
+            result[NULL_SLOT] = cells[NULL_SLOT];
+            System.arraycopy(cells, 1, result, 1 + shift, Math.min(cells.length - 1, days - shift));
+            return result;
+        }
+
+        private static double[] move(double[] cells, int shift, int days) {
+            double[] result = new double[days + 1];
+            result[NULL_SLOT] = cells[NULL_SLOT];
+            System.arraycopy(cells, 1, result, 1 + shift, Math.min(cells.length - 1, days - shift));
+            return result;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DayRollup[" + dateField + ", " + days() + " days, fields " + Arrays.toString(numericFields) + "]";
+    }
+}
@@ -0,0 +1,226 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-day distinct-count and quantile sketches of a module over one
+ * timestamp field, the non-additive companion of {@link DayRollup}: a
+ * {@link HyperLogLog} per configured distinct field and a {@link TDigest} per
+ * numeric field for every calendar day. Sketches of the days in a bucket
+ * merge into the bucket's estimate without touching the records.
+ * <p>
+ * Sketches cannot forget a value, so when a sync rewrites records the days
+ * those records used to fall on are rebuilt from the new table; appended
+ * records and new values are simply added. Instances are immutable once
+ * built and every stored digest is compressed, so readers never write.
+ */
+public final class DaySketches {
+
+    private final String dateField;
+    private final String[] distinctFields;
+    private final String[] quantileFields;
+    private final Map<Integer, Day> days;       // Epoch day, NULL_DAY for records without a timestamp
+
+    /** Sketches of one day; entries stay null until a value arrives. */
+    private record Day(HyperLogLog[] distinct, TDigest[] quantiles) {
+        Day(int distinctCount, int quantileCount) {
+            this(new HyperLogLog[distinctCount], new TDigest[quantileCount]);
+        }
+
+        Day copy() {
+            Day copy = new Day(distinct.length, quantiles.length);
+            for (int i = 0; i < distinct.length; i++) {
+                copy.distinct[i] = distinct[i] != null ? distinct[i].copy() : null;
+            }
+            for (int i = 0; i < quantiles.length; i++) {
+                copy.quantiles[i] = quantiles[i] != null ? quantiles[i].copy() : null;
+            }
+            return copy;
+        }
+
+        void compress() {
+            for (TDigest digest : quantiles) {
+                if (digest != null) {
+                    digest.compress();
+                }
+            }
+        }
+    }
+
+    private DaySketches(String dateField, String[] distinctFields, String[] quantileFields, Map<Integer, Day> days) {
+        this.dateField = dateField;
+        this.distinctFields = distinctFields;
+        this.quantileFields = quantileFields;
+        this.days = days;
+    }
+
+    public static DaySketches build(ColumnarTable table, String dateField, List<String> distinctFields,
+                                    List<String> quantileFields) {
+        DaySketches sketches = new DaySketches(dateField, distinctFields.toArray(new String[0]),
+                quantileFields.toArray(new String[0]), new HashMap<>());
+        Writer writer = sketches.new Writer(table);
+        for (int row = 0; row < table.rowCount(); row++) {
+            writer.add(row);
+        }
+        sketches.days.values().forEach(Day::compress);
+        return sketches;
+    }
+
+    public String dateField() {
+        return dateField;
+    }
+
+    public int distinctIndex(String field) {
+        return indexOf(distinctFields, field);
+    }
+
+    public int quantileIndex(String field) {
+        return indexOf(quantileFields, field);
+    }
+
+    /** Distinct sketch of a field on an epoch day (NULL_DAY: no timestamp); null if no values. Do not modify. */
+    public HyperLogLog distinct(int field, int day) {
+        Day cell = days.get(day);
+        return cell != null ? cell.distinct()[field] : null;
+    }
+
+    /** Quantile sketch of a field on an epoch day (NULL_DAY: no timestamp); null if no values. Do not modify. */
+    public TDigest quantiles(int field, int day) {
+        Day cell = days.get(day);
+        return cell != null ? cell.quantiles()[field] : null;
+    }
+
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Day day : days.values()) {
+            bytes += 64;
+            for (HyperLogLog sketch : day.distinct()) {
+                bytes += sketch != null ? sketch.estimatedBytes() : 0;
+            }
+            for (TDigest digest : day.quantiles()) {
+                bytes += digest != null ? digest.estimatedBytes() : 0;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Sketches for {@code after}, a version of {@code before} in which the
+     * rows {@code replaced[0..replacedCount)} were rewritten in place and
+     * rows from {@code before.rowCount()} on were appended.
+     */
+    public DaySketches update(ColumnarTable before, ColumnarTable after, int[] replaced, int replacedCount) {
+        DateTimeColumn oldDates = (DateTimeColumn) before.require(dateField);
+        Set<Integer> rebuilt = new HashSet<>();
+        for (int i = 0; i < replacedCount; i++) {
+            rebuilt.add(oldDates.epochDay(replaced[i]));
+        }
+
+        DaySketches updated = new DaySketches(dateField, distinctFields, quantileFields, new HashMap<>(days));
+        rebuilt.forEach(updated.days::remove);
+        Set<Integer> copied = new HashSet<>(rebuilt);
+        Writer writer = updated.new Writer(after);
+        DateTimeColumn dates = (DateTimeColumn) after.require(dateField);
+        if (!rebuilt.isEmpty()) {
+            for (int row = 0; row < after.rowCount(); row++) {
+                if (rebuilt.contains(dates.epochDay(row))) {
+                    writer.add(row);
+                }
+            }
+        }
+        // Replaced rows that moved to a day not being rebuilt, and appended rows
+        for (int i = 0; i < replacedCount; i++) {
+            int day = dates.epochDay(replaced[i]);
+            if (!rebuilt.contains(day)) {
+                updated.copyOnWrite(day, copied);
+                writer.add(replaced[i]);
+            }
+        }
+        for (int row = before.rowCount(); row < after.rowCount(); row++) {
+            int day = dates.epochDay(row);
+            if (!rebuilt.contains(day)) {
+                updated.copyOnWrite(day, copied);
+                writer.add(row);
+            }
+        }
+        for (Integer day : copied) {
+            Day cell = updated.days.get(day);
+            if (cell != null) {
+                cell.compress();
+            }
+        }
+        return updated;
+    }
+
+    /** Replace a day shared with the previous version by a private copy, once. */
+    private void copyOnWrite(int day, Set<Integer> copied) {
+        if (copied.add(day)) {
+            Day cell = days.get(day);
+            if (cell != null) {
+                days.put(day, cell.copy());
+            }
+        }
+    }
+
+    private static int indexOf(String[] fields, String field) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Adds rows of one table to the (privately owned) day cells. */
+    private final class Writer {
+        private final DateTimeColumn dates;
+        private final Column[] distinctColumns;
+        private final long[][] codeHashes;
+        private final NumberColumn[] quantileColumns;
+
+        Writer(ColumnarTable table) {
+            dates = (DateTimeColumn) table.require(dateField);
+            distinctColumns = new Column[distinctFields.length];
+            codeHashes = new long[distinctFields.length][];
+            for (int i = 0; i < distinctFields.length; i++) {
+                distinctColumns[i] = table.require(distinctFields[i]);
+                codeHashes[i] = SketchAccumulator.codeHashes(distinctColumns[i]);
+            }
+            quantileColumns = new NumberColumn[quantileFields.length];
+            for (int i = 0; i < quantileFields.length; i++) {
+                quantileColumns[i] = (NumberColumn) table.require(quantileFields[i]);
+            }
+        }
+
+        void add(int row) {
+            Day cell = days.computeIfAbsent(dates.epochDay(row),
+                    day -> new Day(distinctFields.length, quantileFields.length));
+            for (int i = 0; i < distinctColumns.length; i++) {
+                Column column = distinctColumns[i];
+                if (column.isNull(row)) {
+                    continue;
+                }
+                if (cell.distinct()[i] == null) {
+                    cell.distinct()[i] = new HyperLogLog();
+                }
+                cell.distinct()[i].add(codeHashes[i] != null
+                        ? codeHashes[i][((DictionaryColumn) column).code(row)]
+                        : HyperLogLog.hash(column.get(row)));
+            }
+            for (int i = 0; i < quantileColumns.length; i++) {
+                NumberColumn column = quantileColumns[i];
+                if (column.isNull(row)) {
+                    continue;
+                }
+                if (cell.quantiles()[i] == null) {
+                    cell.quantiles()[i] = new TDigest();
+                }
+                cell.quantiles()[i].add(column.getDouble(row));
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.galvinusanalytics.backend_at.engine;
+
+/**
+ * Low-cardinality string column: each row holds an int code into a shared
+ * dictionary, {@link #NULL_CODE} for missing values.
+ */
+public final class DictionaryColumn implements Column {
+
+    public static final int NULL_CODE = -1;
+
+    private final int[] codes;
+    private final String[] dictionary;
+
+    DictionaryColumn(int[] codes, String[] dictionary) {
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public FieldType type() {
+        return FieldType.STRING;
+    }
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return codes[row] == NULL_CODE;
+    }
+
+    @Override
+    public String get(int row) {
+        int code = codes[row];
+        return code == NULL_CODE ? null : dictionary[code];
+    }
+
+    public int code(int row) {
+        return codes[row];
+    }
+
+    public int[] codes() {
+        return codes;
+    }
+
+    public int cardinality() {
+        return dictionary.length;
+    }
+
+    public String valueOf(int code) {
+        return dictionary[code];
+    }
+
+    /**
+     * @return the code of {@code value}, or {@link #NULL_CODE} when absent
+     */
+    public int codeOf(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        for (int i = 0; i < dictionary.length; i++) {
+            if (dictionary[i].equals(value)) {
+                return i;
+            }
+        }
+        return NULL_CODE;
+    }
+
+    /**
+     * Per-code match table for a case-insensitive comparison, so a scan only
+     * does an array lookup per row.
+     */
+    public boolean[] matchesIgnoreCase(String value) {
+        boolean[] matches = new boolean[dictionary.length];
+        for (int i = 0; i < dictionary.length; i++) {
+            matches[i] = dictionary[i].equalsIgnoreCase(value);
+        }
+        return matches;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        long bytes = 16L + 4L * codes.length + 16L + 8L * dictionary.length;
+        for (String value : dictionary) {
+            bytes += 40L + value.length();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,90 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.AggregationDTO;
+import com.galvinusanalytics.backend_at.dto.PivotDTO;
+import com.galvinusanalytics.backend_at.dto.ReportExecutionDTO;
+import com.galvinusanalytics.backend_at.dto.SortDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Canonical identity of a report execution. Two requests that can only
+ * produce the same result get the same fingerprint: filters come from the
+ * compiled {@link FilterPlan} (so map order, unknown keys and value case do
+ * not matter, and the user only counts for {@code show=MY}), function and
+ * direction names are normalized, and defaults are spelled out. A join
+ * contributes its compiled form, including its own filters.
+ */
+public final class ExecutionFingerprint {
+
+    private ExecutionFingerprint() {
+    }
+
+    /**
+     * @param join compiled join of the request, {@code null} when it has none
+     */
+    public static String canonical(ReportExecutionDTO dto, FilterPlan plan, HashJoin join) {
+        StringBuilder text = new StringBuilder(plan.fingerprint());
+        text.append("|join=").append(join == null ? "" : join.fingerprint());
+        text.append("|columns=").append(join(dto.getColumns()));
+        text.append("|groups=").append(join(dto.getGroups()));
+        text.append("|bucket=").append(dto.getTimeBucket() == null ? "" : TimeBucket.fromName(dto.getTimeBucket()))
+                .append(" ").append(dto.getTimeZone() == null ? "" : dto.getTimeZone().trim());
+        text.append("|aggregations=").append(dto.getAggregations() == null || dto.getAggregations().isEmpty()
+                ? AggregateFunction.COUNT.name()
+                : dto.getAggregations().stream()
+                        .filter(Objects::nonNull)
+                        .map(ExecutionFingerprint::aggregation)
+                        .collect(Collectors.joining(",")));
+        text.append("|pivot=").append(dto.getPivot() == null ? "" : pivot(dto.getPivot()));
+        text.append("|rows=").append(!Boolean.FALSE.equals(dto.getIncludeRows()));
+        text.append("|compact=").append(Boolean.TRUE.equals(dto.getCompact()));
+        text.append("|sort=").append(dto.getSort() == null ? "" : dto.getSort().stream()
+                .filter(Objects::nonNull)
+                .map(ExecutionFingerprint::sort)
+                .collect(Collectors.joining(",")));
+        text.append("|pageSize=").append(dto.getPageSize() == null ? "" : dto.getPageSize());
+        text.append("|cursor=").append(dto.getCursor() == null ? "" : dto.getCursor());
+        return text.toString();
+    }
+
+    /**
+     * SHA-256 of {@link #canonical}, hex encoded.
+     */
+    public static String of(ReportExecutionDTO dto, FilterPlan plan, HashJoin join) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical(dto, plan, join).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String join(List<String> names) {
+        return names == null ? "" : names.stream()
+                .map(name -> name == null ? "" : name.replace(",", "\\,"))
+                .collect(Collectors.joining(","));
+    }
+
+    private static String aggregation(AggregationDTO aggregation) {
+        String field = aggregation.getField() != null && !aggregation.getField().isBlank()
+                ? aggregation.getField() : null;
+        return GroupAggregator.label(AggregateFunction.fromName(aggregation.getFunction()), field);
+    }
+
+    private static String pivot(PivotDTO pivot) {
+        return join(pivot.getRows()) + " x " + join(pivot.getColumns())
+                + " " + (pivot.getMeasure() == null ? AggregateFunction.COUNT.name() : aggregation(pivot.getMeasure()))
+                + " " + (pivot.getTimeBucket() == null ? "" : TimeBucket.fromName(pivot.getTimeBucket()));
+    }
+
+    private static String sort(SortDTO sort) {
+        return sort.getField() + " " + SortDirection.fromName(sort.getDirection());
+    }
+}
@@ -0,0 +1,27 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a table to an output stream one cell at a time, holding no more
+ * than a fixed-size buffer, so exports of any length run in constant memory.
+ * Cell values are those of {@link Column#get}.
+ * <p>
+ * {@link #close()} completes the document but leaves the underlying stream
+ * open.
+ */
+public interface ExportWriter extends Closeable {
+
+    void header(List<String> names) throws IOException;
+
+    void startRow() throws IOException;
+
+    void value(Object value) throws IOException;
+
+    void endRow() throws IOException;
+
+    /** Push buffered output to the client. */
+    void flush() throws IOException;
+}
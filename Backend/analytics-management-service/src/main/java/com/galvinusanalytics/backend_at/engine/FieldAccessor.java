@@ -0,0 +1,17 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.function.Function;
+
+/**
+ * Named, typed getter for one report field of a module DTO.
+ */
+public record FieldAccessor<T>(String name, FieldType type, Function<T, Object> getter) {
+
+    public Object get(T record) {
+        return getter.apply(record);
+    }
+
+    public boolean isNumeric() {
+        return type == FieldType.NUMBER;
+    }
+}
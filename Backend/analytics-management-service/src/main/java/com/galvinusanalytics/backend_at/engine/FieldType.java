@@ -0,0 +1,10 @@
+package com.galvinusanalytics.backend_at.engine;
+
+/**
+ * Value type of a report field, used to decide which operations apply to it.
+ */
+public enum FieldType {
+    STRING,
+    NUMBER,
+    DATE_TIME
+}
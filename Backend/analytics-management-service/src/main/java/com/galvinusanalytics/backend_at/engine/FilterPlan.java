@@ -0,0 +1,343 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, typed form of {@code ReportExecutionDTO.filters} for one module.
+ * <p>
+ * The raw filter map is parsed once per execution: date bounds become epoch
+ * days, comparison strings are case-folded and {@code show=MY} is resolved
+ * against the module's owner field. The same plan is evaluated over a
+ * {@link ColumnarTable}, translated into upstream query parameters and
+ * rendered as a canonical fingerprint for cache keys.
+ */
+public final class FilterPlan {
+
+    public static final String SHOW = "show";
+    public static final String CREATED_FROM = "createdDateFrom";
+    public static final String CREATED_TO = "createdDateTo";
+
+    /** Above this fraction of the table, scanning beats gathering from a bitmap. */
+    private static final double MAX_INDEX_SELECTIVITY = 0.5;
+    /** A bitmap this many times the candidate count costs more to AND than to re-check. */
+    private static final int MAX_AND_RATIO = 8;
+
+    /**
+     * One compiled predicate. {@link #apply} keeps the rows of
+     * {@code rows[0..count)} that match, compacting them in place, and
+     * returns the new count.
+     */
+    public sealed interface Predicate permits OwnerEquals, DayRange, EqualsIgnoreCase {
+        /** Filter map keys this predicate was compiled from. */
+        Set<String> filterKeys();
+
+        String field();
+
+        int apply(ColumnarTable table, int[] rows, int count);
+
+        /**
+         * Matching rows read from one of {@code indexes}, or null if none of
+         * them covers this predicate.
+         */
+        default RowBitmap lookup(Map<String, BitmapIndex> indexes) {
+            return null;
+        }
+
+        String describe();
+    }
+
+    /** {@code show=MY}: the owner field equals the current user. */
+    public record OwnerEquals(String field, String userId) implements Predicate {
+        @Override
+        public Set<String> filterKeys() {
+            return Set.of(SHOW);
+        }
+
+        @Override
+        public int apply(ColumnarTable table, int[] rows, int count) {
+            Column column = table.require(field);
+            int kept = 0;
+            if (column instanceof DictionaryColumn dictionary) {
+                int code = dictionary.codeOf(userId);
+                if (code == DictionaryColumn.NULL_CODE) {
+                    return 0;
+                }
+                int[] codes = dictionary.codes();
+                for (int i = 0; i < count; i++) {
+                    int row = rows[i];
+                    if (codes[row] == code) {
+                        rows[kept++] = row;
+                    }
+                }
+                return kept;
+            }
+            for (int i = 0; i < count; i++) {
+                int row = rows[i];
+                if (userId.equals(column.get(row))) {
+                    rows[kept++] = row;
+                }
+            }
+            return kept;
+        }
+
+        @Override
+        public RowBitmap lookup(Map<String, BitmapIndex> indexes) {
+            BitmapIndex index = indexes.get(field);
+            return index != null ? index.get(userId) : null;
+        }
+
+        @Override
+        public String describe() {
+            return field + "=" + userId;
+        }
+    }
+
+    /**
+     * Inclusive epoch-day range on a timestamp field. Rows without a value
+     * pass, as they always have for the created-date filters.
+     */
+    public record DayRange(String field, LocalDate from, LocalDate to) implements Predicate {
+        @Override
+        public Set<String> filterKeys() {
+            return Set.of(CREATED_FROM, CREATED_TO);
+        }
+
+        @Override
+        public int apply(ColumnarTable table, int[] rows, int count) {
+            int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+            int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+            int[] days = ((DateTimeColumn) table.require(field)).epochDays();
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int row = rows[i];
+                int day = days[row];
+                if (day == DateTimeColumn.NULL_DAY || (day >= fromDay && day <= toDay)) {
+                    rows[kept++] = row;
+                }
+            }
+            return kept;
+        }
+
+        @Override
+        public String describe() {
+            return field + " in [" + (from != null ? from : "") + "," + (to != null ? to : "") + "]";
+        }
+    }
+
+    /** Case-insensitive equality; {@code value} is stored upper-cased. */
+    public record EqualsIgnoreCase(String filterKey, String field, String value) implements Predicate {
+        @Override
+        public Set<String> filterKeys() {
+            return Set.of(filterKey);
+        }
+
+        @Override
+        public int apply(ColumnarTable table, int[] rows, int count) {
+            Column column = table.require(field);
+            int kept = 0;
+            if (column instanceof DictionaryColumn dictionary) {
+                boolean[] matches = dictionary.matchesIgnoreCase(value);
+                int[] codes = dictionary.codes();
+                for (int i = 0; i < count; i++) {
+                    int row = rows[i];
+                    int code = codes[row];
+                    if (code != DictionaryColumn.NULL_CODE && matches[code]) {
+                        rows[kept++] = row;
+                    }
+                }
+                return kept;
+            }
+            for (int i = 0; i < count; i++) {
+                int row = rows[i];
+                Object current = column.get(row);
+                if (current instanceof String text && text.equalsIgnoreCase(value)) {
+                    rows[kept++] = row;
+                }
+            }
+            return kept;
+        }
+
+        @Override
+        public RowBitmap lookup(Map<String, BitmapIndex> indexes) {
+            BitmapIndex index = indexes.get(field);
+            return index != null ? index.getIgnoreCase(value) : null;
+        }
+
+        @Override
+        public String describe() {
+            return field + "~" + value;
+        }
+    }
+
+    private final ReportModule module;
+    private final List<Predicate> predicates;
+
+    private FilterPlan(ReportModule module, List<Predicate> predicates) {
+        this.module = module;
+        this.predicates = Collections.unmodifiableList(predicates);
+    }
+
+    /**
+     * Compile the raw filter map for a module. Unknown keys and unparseable
+     * values are ignored, matching how the filters have always behaved.
+     */
+    public static FilterPlan compile(ModuleFields<?> fields, Map<String, Object> filters, String userId) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filters != null && !filters.isEmpty()) {
+            if (fields.getOwnerField() != null && userId != null && filters.containsKey(SHOW)
+                    && String.valueOf(filters.get(SHOW)).toUpperCase(Locale.ROOT).contains("MY")) {
+                predicates.add(new OwnerEquals(fields.getOwnerField(), userId));
+            }
+
+            LocalDate from = parseLocalDate(filters.get(CREATED_FROM));
+            LocalDate to = parseLocalDate(filters.get(CREATED_TO));
+            if (fields.getCreatedField() != null && (from != null || to != null)) {
+                predicates.add(new DayRange(fields.getCreatedField(), from, to));
+            }
+
+            for (Map.Entry<String, String> filter : fields.getEqualityFilters().entrySet()) {
+                if (filters.get(filter.getKey()) instanceof String value && !value.isEmpty()) {
+                    predicates.add(new EqualsIgnoreCase(filter.getKey(), filter.getValue(),
+                            value.toUpperCase(Locale.ROOT)));
+                }
+            }
+        }
+        return new FilterPlan(fields.getModule(), predicates);
+    }
+
+    public ReportModule getModule() {
+        return module;
+    }
+
+    public List<Predicate> predicates() {
+        return predicates;
+    }
+
+    public boolean isEmpty() {
+        return predicates.isEmpty();
+    }
+
+    /**
+     * Plan without the predicates compiled from any of {@code filterKeys},
+     * e.g. the ones an upstream has already applied.
+     */
+    public FilterPlan without(Set<String> filterKeys) {
+        if (filterKeys.isEmpty()) {
+            return this;
+        }
+        List<Predicate> remaining = predicates.stream()
+                .filter(predicate -> Collections.disjoint(predicate.filterKeys(), filterKeys))
+                .collect(Collectors.toList());
+        return remaining.size() == predicates.size() ? this : new FilterPlan(module, remaining);
+    }
+
+    /**
+     * @return ascending indexes of the rows of {@code table} that pass every predicate
+     */
+    public int[] select(ColumnarTable table) {
+        int[] rows = new int[table.rowCount()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        int count = rows.length;
+        for (Predicate predicate : predicates) {
+            if (count == 0) {
+                break;
+            }
+            count = predicate.apply(table, rows, count);
+        }
+        return count == rows.length ? rows : Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Same rows as {@link #select(ColumnarTable)}, choosing per predicate
+     * between its bitmap in {@code indexes} and a scan.
+     * <p>
+     * Indexed predicates are taken most selective first. If even that one
+     * matches more than {@value #MAX_INDEX_SELECTIVITY} of the table, a
+     * sequential scan is cheaper than gathering its rows and the whole plan
+     * is scanned. Otherwise further bitmaps are intersected while they are
+     * at most {@value #MAX_AND_RATIO} times the candidate count; larger ones,
+     * and unindexed predicates, are checked against the candidate rows only.
+     */
+    public int[] select(ColumnarTable table, Map<String, BitmapIndex> indexes) {
+        if (indexes == null || indexes.isEmpty()) {
+            return select(table);
+        }
+        List<Predicate> remaining = new ArrayList<>(predicates.size());
+        List<Indexed> indexed = new ArrayList<>(predicates.size());
+        for (Predicate predicate : predicates) {
+            RowBitmap matches = predicate.lookup(indexes);
+            if (matches == null) {
+                remaining.add(predicate);
+            } else {
+                indexed.add(new Indexed(predicate, matches));
+            }
+        }
+        if (indexed.isEmpty()) {
+            return select(table);
+        }
+        indexed.sort(Comparator.comparingInt(entry -> entry.rows().cardinality()));
+        RowBitmap candidates = indexed.get(0).rows();
+        if (candidates.cardinality() > table.rowCount() * MAX_INDEX_SELECTIVITY) {
+            return select(table);
+        }
+        for (Indexed entry : indexed.subList(1, indexed.size())) {
+            if (candidates.isEmpty()) {
+                break;
+            }
+            if (entry.rows().cardinality() <= (long) candidates.cardinality() * MAX_AND_RATIO) {
+                candidates = candidates.and(entry.rows());
+            } else {
+                remaining.add(entry.predicate());
+            }
+        }
+
+        int[] rows = candidates.toArray();
+        int count = rows.length;
+        for (Predicate predicate : remaining) {
+            if (count == 0) {
+                break;
+            }
+            count = predicate.apply(table, rows, count);
+        }
+        return count == rows.length ? rows : Arrays.copyOf(rows, count);
+    }
+
+    private record Indexed(Predicate predicate, RowBitmap rows) {
+    }
+
+    /**
+     * Canonical text of the plan: equal filters give equal fingerprints
+     * regardless of map order, spelling of {@code show} or value case.
+     */
+    public String fingerprint() {
+        return module.name() + predicates.stream()
+                .map(Predicate::describe)
+                .sorted()
+                .collect(Collectors.joining("&", "?", ""));
+    }
+
+    @Override
+    public String toString() {
+        return fingerprint();
+    }
+
+    private static LocalDate parseLocalDate(Object dateObj) {
+        if (dateObj == null) return null;
+        try {
+            return LocalDate.parse(dateObj.toString());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
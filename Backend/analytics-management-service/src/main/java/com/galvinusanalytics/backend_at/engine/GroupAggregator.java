@@ -0,0 +1,233 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.AggregationDTO;
+import com.galvinusanalytics.backend_at.dto.GroupResultDTO;
+import org.springframework.stereotype.Component;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash-based group-by over the selected rows of a {@link ColumnarTable}.
+ * Every row is visited once and folded into the accumulators of each
+ * grouping level on its path, so the subtotals of every level and the grand
+ * totals come out of a single pass. Dictionary-encoded group columns index
+ * their children by code instead of hashing. Distinct counts and
+ * percentiles are estimated with per-group sketches.
+ */
+@Component
+public class GroupAggregator {
+
+    public record Result(List<GroupResultDTO> groups, Map<String, Object> totals) {
+    }
+
+    /**
+     * Group {@code rows} of {@code table} by {@code groupFields} (outermost
+     * first) and compute {@code aggregations} per group. Without aggregations
+     * only COUNT is returned.
+     */
+    public Result aggregate(ColumnarTable table, int[] rows,
+                            List<String> groupFields, List<AggregationDTO> aggregations) {
+        List<String> groupNames = groupFields != null ? groupFields : List.of();
+        Column[] groupBy = new Column[groupNames.size()];
+        for (int i = 0; i < groupBy.length; i++) {
+            groupBy[i] = table.require(groupNames.get(i));
+        }
+        List<Measure> measures = compileMeasures(table, aggregations);
+
+        Node root = new Node(null, measures.size());
+        for (int row : rows) {
+            Node node = root;
+            node.add(row, measures);
+            for (Column column : groupBy) {
+                node = node.child(column, row, measures.size());
+                node.add(row, measures);
+            }
+        }
+
+        return new Result(toGroups(root, groupNames, 0, measures), root.aggregates(measures));
+    }
+
+    /**
+     * Key under which an aggregate appears in {@link GroupResultDTO#getAggregates()}.
+     */
+    public static String label(AggregateFunction function, String field) {
+        return field == null ? function.name() : function.name() + "(" + field + ")";
+    }
+
+    private List<Measure> compileMeasures(ColumnarTable table, List<AggregationDTO> aggregations) {
+        List<Measure> measures = new ArrayList<>();
+        if (aggregations == null || aggregations.isEmpty()) {
+            measures.add(new Measure("COUNT", AggregateFunction.COUNT, null, null));
+            return measures;
+        }
+        for (AggregationDTO aggregation : aggregations) {
+            AggregateFunction function = AggregateFunction.fromName(aggregation.getFunction());
+            String field = aggregation.getField() != null && !aggregation.getField().isBlank()
+                    ? aggregation.getField() : null;
+            Column column = field != null ? table.require(field) : null;
+            if (function.requiresNumeric() && (column == null || column.type() != FieldType.NUMBER)) {
+                throw new IllegalArgumentException(function + " requires a numeric field, got: " + aggregation.getField());
+            }
+            if (function == AggregateFunction.APPROX_DISTINCT && column == null) {
+                throw new IllegalArgumentException(function + " requires a field");
+            }
+            measures.add(new Measure(label(function, field), function, column,
+                    function == AggregateFunction.APPROX_DISTINCT ? SketchAccumulator.codeHashes(column) : null));
+        }
+        return measures;
+    }
+
+    private List<GroupResultDTO> toGroups(Node node, List<String> groupNames, int level, List<Measure> measures) {
+        if (level >= groupNames.size()) {
+            return new ArrayList<>();
+        }
+        String field = groupNames.get(level);
+        List<Node> children = node.children();
+        children.sort(Comparator.comparing(child -> child.key, KEY_ORDER));
+        List<GroupResultDTO> groups = new ArrayList<>(children.size());
+        for (Node child : children) {
+            groups.add(new GroupResultDTO(field, child.key, child.count,
+                    child.aggregates(measures), toGroups(child, groupNames, level + 1, measures)));
+        }
+        return groups;
+    }
+
+    /** Dates group by their ISO form so they serialize the same way as report rows. */
+    private static Object groupKey(Object value) {
+        return value instanceof TemporalAccessor ? value.toString() : value;
+    }
+
+    static final Comparator<Object> KEY_ORDER = Comparator.nullsLast((a, b) -> {
+        if (a instanceof Number x && b instanceof Number y) {
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        return String.valueOf(a).compareToIgnoreCase(String.valueOf(b));
+    });
+
+    /**
+     * @param codeHashes value hashes by dictionary code for APPROX_DISTINCT, else null
+     */
+    private record Measure(String label, AggregateFunction function, Column column, long[] codeHashes) {
+    }
+
+    private static final class Node {
+        private final Object key;
+        private final long[] nonNull;
+        private final double[] sum;
+        private final double[] min;
+        private final double[] max;
+        private long count;
+        private SketchAccumulator[] sketches;
+        private Map<Object, Node> children;
+        private Node[] childrenByCode;
+
+        Node(Object key, int measureCount) {
+            this.key = key;
+            nonNull = new long[measureCount];
+            sum = new double[measureCount];
+            min = new double[measureCount];
+            max = new double[measureCount];
+        }
+
+        Node child(Column column, int row, int measureCount) {
+            if (column instanceof DictionaryColumn dictionary) {
+                if (childrenByCode == null) {
+                    childrenByCode = new Node[dictionary.cardinality() + 1];
+                }
+                int code = dictionary.code(row);
+                int slot = code + 1;
+                Node child = childrenByCode[slot];
+                if (child == null) {
+                    child = new Node(code == DictionaryColumn.NULL_CODE ? null : dictionary.valueOf(code), measureCount);
+                    childrenByCode[slot] = child;
+                }
+                return child;
+            }
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            Object key = groupKey(column.get(row));
+            return children.computeIfAbsent(key, k -> new Node(k, measureCount));
+        }
+
+        List<Node> children() {
+            List<Node> result = new ArrayList<>();
+            if (childrenByCode != null) {
+                for (Node child : childrenByCode) {
+                    if (child != null) {
+                        result.add(child);
+                    }
+                }
+            }
+            if (children != null) {
+                result.addAll(children.values());
+            }
+            return result;
+        }
+
+        void add(int row, List<Measure> measures) {
+            count++;
+            for (int i = 0; i < measures.size(); i++) {
+                Column column = measures.get(i).column();
+                if (column == null || column.isNull(row)) {
+                    continue;
+                }
+                Measure measure = measures.get(i);
+                if (measure.function().isSketch()) {
+                    sketch(i, measures).add(column, row, measure.codeHashes());
+                } else if (column instanceof NumberColumn numbers) {
+                    double d = numbers.getDouble(row);
+                    if (nonNull[i] == 0) {
+                        min[i] = d;
+                        max[i] = d;
+                    } else {
+                        min[i] = Math.min(min[i], d);
+                        max[i] = Math.max(max[i], d);
+                    }
+                    sum[i] += d;
+                }
+                nonNull[i]++;
+            }
+        }
+
+        private SketchAccumulator sketch(int i, List<Measure> measures) {
+            if (sketches == null) {
+                sketches = new SketchAccumulator[measures.size()];
+            }
+            if (sketches[i] == null) {
+                sketches[i] = new SketchAccumulator(measures.get(i).function());
+            }
+            return sketches[i];
+        }
+
+        Map<String, Object> aggregates(List<Measure> measures) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (int i = 0; i < measures.size(); i++) {
+                Measure measure = measures.get(i);
+                boolean empty = nonNull[i] == 0;
+                Object value = switch (measure.function()) {
+                    case COUNT -> measure.column() == null ? count : nonNull[i];
+                    case SUM -> round(sum[i]);
+                    case AVG -> empty ? null : round(sum[i] / nonNull[i]);
+                    case MIN -> empty ? null : min[i];
+                    case MAX -> empty ? null : max[i];
+                    case APPROX_DISTINCT, MEDIAN, P90, P95, P99 -> sketches != null && sketches[i] != null
+                            ? sketches[i].value()
+                            : new SketchAccumulator(measure.function()).value();
+                };
+                result.put(measure.label(), value);
+            }
+            return result;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+}
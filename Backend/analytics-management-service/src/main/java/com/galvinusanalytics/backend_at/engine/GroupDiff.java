@@ -0,0 +1,52 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.GroupResultDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Difference between two group trees produced by {@link GroupAggregator} for
+ * the same report. The patch lists only groups whose count or aggregates
+ * changed, or that contain such a group; unchanged siblings are left out.
+ * A group that disappeared is listed with a count of 0 and no aggregates.
+ * Applying the patch means replacing groups by value, level by level.
+ */
+public final class GroupDiff {
+
+    private GroupDiff() {
+    }
+
+    public static List<GroupResultDTO> diff(List<GroupResultDTO> previous, List<GroupResultDTO> current) {
+        Map<Object, GroupResultDTO> before = new HashMap<>();
+        if (previous != null) {
+            for (GroupResultDTO group : previous) {
+                before.put(group.getValue(), group);
+            }
+        }
+
+        List<GroupResultDTO> patch = new ArrayList<>();
+        if (current != null) {
+            for (GroupResultDTO group : current) {
+                GroupResultDTO old = before.remove(group.getValue());
+                if (old == null) {
+                    patch.add(group);
+                    continue;
+                }
+                List<GroupResultDTO> subgroups = diff(old.getSubgroups(), group.getSubgroups());
+                if (!subgroups.isEmpty() || !Objects.equals(old.getCount(), group.getCount())
+                        || !Objects.equals(old.getAggregates(), group.getAggregates())) {
+                    patch.add(new GroupResultDTO(group.getField(), group.getValue(), group.getCount(),
+                            group.getAggregates(), subgroups));
+                }
+            }
+        }
+        for (GroupResultDTO removed : before.values()) {
+            patch.add(new GroupResultDTO(removed.getField(), removed.getValue(), 0L, null, new ArrayList<>()));
+        }
+        return patch;
+    }
+}
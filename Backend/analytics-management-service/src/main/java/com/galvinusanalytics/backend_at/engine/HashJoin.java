@@ -0,0 +1,191 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.JoinDTO;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Equi-join of the report module with a second module on one key field.
+ * <p>
+ * The hash table is built over the smaller of the two filtered sides and the
+ * other side is probed row by row. The output is a {@link ColumnarTable}
+ * in report-module row order where the joined module's fields are named
+ * {@code "<Module>.<Field>"} (e.g. {@code "Account.Industry"}), so filters,
+ * sorting, grouping and projection run on it unchanged. Keys are compared as
+ * strings, numbers in plain decimal form without trailing zeros so a numeric
+ * {@code 123.0} matches the text {@code "123"}, and null keys never match.
+ */
+public final class HashJoin {
+
+    /** Guard against many-to-many keys multiplying rows without bound. */
+    public static final int MAX_ROWS = 2_000_000;
+
+    private final JoinType type;
+    private final String leftField;
+    private final String rightField;
+    private final FilterPlan filter;
+
+    private HashJoin(JoinType type, String leftField, String rightField, FilterPlan filter) {
+        this.type = type;
+        this.leftField = leftField;
+        this.rightField = rightField;
+        this.filter = filter;
+    }
+
+    /**
+     * @param left fields of the report module
+     * @return the compiled join, or {@code null} when the request has none
+     */
+    public static HashJoin compile(ModuleFields<?> left, JoinDTO join, String userId) {
+        if (join == null) {
+            return null;
+        }
+        ModuleFields<?> right = ModuleFieldRegistry.forModule(ReportModule.fromName(join.getModule()));
+        if (join.getLeftField() == null || join.getRightField() == null) {
+            throw new IllegalArgumentException("Join requires leftField and rightField");
+        }
+        return new HashJoin(JoinType.fromName(join.getType()),
+                left.require(join.getLeftField()).name(),
+                right.require(join.getRightField()).name(),
+                FilterPlan.compile(right, join.getFilters(), userId));
+    }
+
+    public ReportModule getModule() {
+        return filter.getModule();
+    }
+
+    /** Filters on the joined module, applied before the join. */
+    public FilterPlan getFilter() {
+        return filter;
+    }
+
+    /** Prefix of the joined module's field names in the output table. */
+    public String prefix() {
+        return filter.getModule().getLabel() + ".";
+    }
+
+    /**
+     * Canonical text of the join for {@link ExecutionFingerprint}.
+     */
+    public String fingerprint() {
+        return type + " " + filter.getModule() + " ON " + leftField + "=" + rightField + " WHERE " + filter.fingerprint();
+    }
+
+    /**
+     * Join the selected rows of both tables.
+     */
+    public ColumnarTable join(ColumnarTable left, int[] leftRows, ColumnarTable right, int[] rightRows) {
+        Column leftKey = left.require(leftField);
+        Column rightKey = right.require(rightField);
+        Pairs pairs = new Pairs(Math.max(leftRows.length, 16));
+
+        if (rightRows.length <= leftRows.length) {
+            KeyIndex index = new KeyIndex(rightKey, rightRows);
+            for (int row : leftRows) {
+                int match = index.first(key(leftKey, row));
+                if (match < 0 && type == JoinType.LEFT) {
+                    pairs.add(row, -1);
+                }
+                for (; match >= 0; match = index.next(match)) {
+                    pairs.add(row, rightRows[match]);
+                }
+            }
+        } else {
+            // Build on the report side, then restore its row order
+            KeyIndex index = new KeyIndex(leftKey, leftRows);
+            boolean[] matched = new boolean[leftRows.length];
+            Pairs byPosition = new Pairs(Math.max(rightRows.length, 16));
+            for (int row : rightRows) {
+                for (int match = index.first(key(rightKey, row)); match >= 0; match = index.next(match)) {
+                    byPosition.add(match, row);
+                    matched[match] = true;
+                }
+            }
+            if (type == JoinType.LEFT) {
+                for (int i = 0; i < matched.length; i++) {
+                    if (!matched[i]) {
+                        byPosition.add(i, -1);
+                    }
+                }
+            }
+            long[] order = new long[byPosition.size];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = ((long) byPosition.left[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            for (long entry : order) {
+                int i = (int) entry;
+                pairs.add(leftRows[byPosition.left[i]], byPosition.right[i]);
+            }
+        }
+
+        return ColumnarTable.combine(left, Arrays.copyOf(pairs.left, pairs.size),
+                right, Arrays.copyOf(pairs.right, pairs.size), prefix());
+    }
+
+    private static String key(Column column, int row) {
+        Object value = column.get(row);
+        if (value instanceof Double number && Double.isFinite(number)) {
+            return BigDecimal.valueOf(number).stripTrailingZeros().toPlainString();
+        }
+        return value == null ? null : value.toString();
+    }
+
+    /** Rows of the build side chained by key; positions index the build row array. */
+    private static final class KeyIndex {
+        private final Map<String, Integer> heads = new HashMap<>();
+        private final int[] next;
+
+        KeyIndex(Column column, int[] rows) {
+            next = new int[rows.length];
+            for (int i = rows.length - 1; i >= 0; i--) {
+                String key = key(column, rows[i]);
+                if (key == null) {
+                    next[i] = -1;
+                    continue;
+                }
+                Integer head = heads.put(key, i);
+                next[i] = head != null ? head : -1;
+            }
+        }
+
+        int first(String key) {
+            if (key == null) {
+                return -1;
+            }
+            Integer head = heads.get(key);
+            return head != null ? head : -1;
+        }
+
+        int next(int position) {
+            return next[position];
+        }
+    }
+
+    private static final class Pairs {
+        private int[] left;
+        private int[] right;
+        private int size;
+
+        Pairs(int capacity) {
+            left = new int[capacity];
+            right = new int[capacity];
+        }
+
+        void add(int leftRow, int rightRow) {
+            if (size == MAX_ROWS) {
+                throw new IllegalArgumentException("Join produces more than " + MAX_ROWS + " rows");
+            }
+            if (size == left.length) {
+                left = Arrays.copyOf(left, size * 2);
+                right = Arrays.copyOf(right, size * 2);
+            }
+            left[size] = leftRow;
+            right[size] = rightRow;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable distinct-count sketch (HyperLogLog, 2^12 registers, about 1.6%
+ * standard error). Small sketches keep only their non-zero registers in a
+ * sorted sparse list and switch to the dense byte-per-register form once
+ * that would be larger, so per-day sketches of quiet days stay small.
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISION = 12;
+
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final int SPARSE_MAX = REGISTERS / 4;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private byte[] registers;                   // Dense form, null while sparse
+    private char[] sparseIndexes = new char[4]; // Sorted register indexes while sparse
+    private byte[] sparseValues = new byte[4];
+    private int sparseCount;
+
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog();
+        if (registers != null) {
+            copy.registers = registers.clone();
+        } else {
+            copy.sparseIndexes = Arrays.copyOf(sparseIndexes, Math.max(sparseCount, 4));
+            copy.sparseValues = Arrays.copyOf(sparseValues, Math.max(sparseCount, 4));
+            copy.sparseCount = sparseCount;
+        }
+        return copy;
+    }
+
+    /** Add a value by its {@link #hash}. */
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        int rank = Long.numberOfLeadingZeros(hash << PRECISION | (1L << (PRECISION - 1))) + 1;
+        set(index, (byte) rank);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.registers != null) {
+            for (int i = 0; i < REGISTERS; i++) {
+                if (other.registers[i] != 0) {
+                    set(i, other.registers[i]);
+                }
+            }
+        } else {
+            for (int i = 0; i < other.sparseCount; i++) {
+                set(other.sparseIndexes[i], other.sparseValues[i]);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return registers == null && sparseCount == 0;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        if (registers != null) {
+            for (byte register : registers) {
+                sum += Math.scalb(1.0, -register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        } else {
+            zeros = REGISTERS - sparseCount;
+            sum = zeros;
+            for (int i = 0; i < sparseCount; i++) {
+                sum += Math.scalb(1.0, -sparseValues[i]);
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /** Approximate heap footprint. */
+    public long estimatedBytes() {
+        return registers != null ? 32L + REGISTERS : 48L + sparseIndexes.length * 3L;
+    }
+
+    /** 64-bit hash of a value's text form, well mixed in every bit. */
+    public static long hash(Object value) {
+        String text = value.toString();
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private void set(int index, byte rank) {
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = rank;
+            }
+            return;
+        }
+        int position = Arrays.binarySearch(sparseIndexes, 0, sparseCount, (char) index);
+        if (position >= 0) {
+            if (rank > sparseValues[position]) {
+                sparseValues[position] = rank;
+            }
+            return;
+        }
+        if (sparseCount == SPARSE_MAX) {
+            densify();
+            set(index, rank);
+            return;
+        }
+        position = -position - 1;
+        if (sparseCount == sparseIndexes.length) {
+            sparseIndexes = Arrays.copyOf(sparseIndexes, sparseCount * 2);
+            sparseValues = Arrays.copyOf(sparseValues, sparseCount * 2);
+        }
+        System.arraycopy(sparseIndexes, position, sparseIndexes, position + 1, sparseCount - position);
+        System.arraycopy(sparseValues, position, sparseValues, position + 1, sparseCount - position);
+        sparseIndexes[position] = (char) index;
+        sparseValues[position] = rank;
+        sparseCount++;
+    }
+
+    private void densify() {
+        registers = new byte[REGISTERS];
+        for (int i = 0; i < sparseCount; i++) {
+            registers[sparseIndexes[i]] = sparseValues[i];
+        }
+        sparseIndexes = null;
+        sparseValues = null;
+        sparseCount = 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.galvinusanalytics.backend_at.engine;
+
+public enum JoinType {
+    INNER, LEFT;
+
+    public static JoinType fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return LEFT;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported join type: " + name);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.module.AccountDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.ContactDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.LeadDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.OpportunityDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.SalesOrderDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.SalesQuoteDataDTO;
+
+/**
+ * Field accessors for every module, covering both the selectable report
+ * columns and the group-by fields offered by the report builder.
+ */
+public final class ModuleFieldRegistry {
+
+    private ModuleFieldRegistry() {
+    }
+
+    public static final ModuleFields<LeadDataDTO> LEAD = new ModuleFields<LeadDataDTO>(ReportModule.LEAD)
+            .string("Lead ID", LeadDataDTO::getLeadId)
+            .string("First Name", LeadDataDTO::getFirstName)
+            .string("Last Name", LeadDataDTO::getLastName)
+            .string("Lead Name", lead -> ((lead.getFirstName() != null ? lead.getFirstName() : "") + " " +
+                    (lead.getLastName() != null ? lead.getLastName() : "")).trim())
+            .string("Email", LeadDataDTO::getEmail)
+            .string("Phone", LeadDataDTO::getPhoneNumber)
+            .string("Title", LeadDataDTO::getTitle)
+            .string("Company/Account", LeadDataDTO::getCompany)
+            .string("Lead Source", LeadDataDTO::getLeadSource)
+            .string("Lead Status", LeadDataDTO::getLeadStatus)
+            .alias("Status", "Lead Status")
+            .string("Interest Level", LeadDataDTO::getInterestLevel)
+            .alias("Stage", "Interest Level")
+            .number("Budget", LeadDataDTO::getBudget)
+            .number("Potential Revenue", LeadDataDTO::getPotentialRevenue)
+            .string("City", LeadDataDTO::getCity)
+            .string("State", LeadDataDTO::getState)
+            .string("Country", LeadDataDTO::getCountry)
+            .string("Lead Owner", LeadDataDTO::getLeadOwner)
+            .string("Created By", LeadDataDTO::getCreatedBy)
+            .dateTime("Created Date", LeadDataDTO::getCreatedDate)
+            .dateTime("Last Interaction", LeadDataDTO::getLastInteractionDate)
+            .dateTime("Last Modified Date", LeadDataDTO::getModifiedDate)
+            .ownedBy("Lead Owner")
+            .createdAt("Created Date")
+            .updatedAt("Last Modified Date")
+            .equalityFilter("leadStatus", "Lead Status")
+            .equalityFilter("leadSource", "Lead Source")
+            .equalityFilter("stage", "Stage")
+            .distinctSketch("Company/Account")
+            .distinctSketch("Lead Owner");
+
+    public static final ModuleFields<AccountDataDTO> ACCOUNT = new ModuleFields<AccountDataDTO>(ReportModule.ACCOUNT)
+            .string("Account ID", AccountDataDTO::getAccountId)
+            .string("Account Name", AccountDataDTO::getName)
+            .string("Account Owner", AccountDataDTO::getOwnerId)
+            .string("Account Type", AccountDataDTO::getType)
+            .string("Industry", AccountDataDTO::getIndustry)
+            .string("Website", AccountDataDTO::getWebsite)
+            .string("Note", AccountDataDTO::getNote)
+            .string("Parent Account", AccountDataDTO::getParentAccountId)
+            .string("Billing Country", AccountDataDTO::getBillingCountry)
+            .string("Billing State", AccountDataDTO::getBillingState)
+            .string("Billing City", AccountDataDTO::getBillingCity)
+            .string("Billing ZIP Code", AccountDataDTO::getBillingZipCode)
+            .string("Billing Address Line 1", AccountDataDTO::getBillingAddressLine1)
+            .string("Billing Address Line 2", AccountDataDTO::getBillingAddressLine2)
+            .string("Shipping Country", AccountDataDTO::getShippingCountry)
+            .string("Shipping State", AccountDataDTO::getShippingState)
+            .string("Shipping City", AccountDataDTO::getShippingCity)
+            .string("Shipping ZIP Code", AccountDataDTO::getShippingZipCode)
+            .string("Shipping Address Line 1", AccountDataDTO::getShippingAddressLine1)
+            .string("Shipping Address Line 2", AccountDataDTO::getShippingAddressLine2)
+            .dateTime("Created Date", AccountDataDTO::getCreatedAt)
+            .dateTime("Last Modified Date", AccountDataDTO::getUpdatedAt)
+            .ownedBy("Account Owner")
+            .createdAt("Created Date")
+            .updatedAt("Last Modified Date")
+            .equalityFilter("type", "Account Type")
+            .equalityFilter("industry", "Industry")
+            .distinctSketch("Account Owner");
+
+    public static final ModuleFields<ContactDataDTO> CONTACT = new ModuleFields<ContactDataDTO>(ReportModule.CONTACT)
+            .string("Contact Name", contact -> ((contact.getFirstName() != null ? contact.getFirstName() : "") + " " +
+                    (contact.getLastName() != null ? contact.getLastName() : "")).trim())
+            .string("Contact ID", ContactDataDTO::getContactId)
+            .string("First Name", ContactDataDTO::getFirstName)
+            .string("Last Name", ContactDataDTO::getLastName)
+            .string("Email", ContactDataDTO::getEmail)
+            .string("Phone", ContactDataDTO::getPhone)
+            .string("Account Name", contact -> contact.getAccount() != null ? contact.getAccount().getName() : null)
+            .string("Account Type", contact -> contact.getAccount() != null ? contact.getAccount().getType() : null)
+            .string("Department", ContactDataDTO::getDepartment)
+            .string("Role", ContactDataDTO::getRole)
+            .string("Website", contact -> contact.getAccount() != null ? contact.getAccount().getWebsite() : null)
+            .string("Address Line 1", ContactDataDTO::getBillingAddressLine1)
+            .string("Country", ContactDataDTO::getBillingCountry)
+            .dateTime("Created At", ContactDataDTO::getCreatedAt)
+            .dateTime("Last Modified Date", ContactDataDTO::getUpdatedAt)
+            // Contacts have no owner, so show=MY does not narrow them
+            .createdAt("Created At")
+            .updatedAt("Last Modified Date")
+            .distinctSketch("Account Name");
+
+    public static final ModuleFields<OpportunityDataDTO> OPPORTUNITY = new ModuleFields<OpportunityDataDTO>(ReportModule.OPPORTUNITY)
+            .string("Account Id", OpportunityDataDTO::getAccountId)
+            .string("Opportunities Name", OpportunityDataDTO::getName)
+            .string("Opportunities Owner", OpportunityDataDTO::getOwnerId)
+            .string("Type", OpportunityDataDTO::getType)
+            .alias("Account Type", "Type")
+            .string("Status", OpportunityDataDTO::getStatus)
+            .number("Probability", OpportunityDataDTO::getProbability)
+            .string("Stage", OpportunityDataDTO::getStage)
+            .number("Amount", OpportunityDataDTO::getAmount)
+            .string("Lead Sources", OpportunityDataDTO::getLeadSource)
+            .dateTime("Created At", OpportunityDataDTO::getCreatedAt)
+            .dateTime("Last Modified Date", OpportunityDataDTO::getUpdatedAt)
+            .ownedBy("Opportunities Owner")
+            .createdAt("Created At")
+            .updatedAt("Last Modified Date")
+            .equalityFilter("stage", "Stage")
+            .equalityFilter("status", "Status")
+            .equalityFilter("type", "Type")
+            .distinctSketch("Account Id")
+            .distinctSketch("Opportunities Owner");
+
+    public static final ModuleFields<SalesQuoteDataDTO> SALES_QUOTES = new ModuleFields<SalesQuoteDataDTO>(ReportModule.SALES_QUOTES)
+            .string("Sales Quotes Name", SalesQuoteDataDTO::getSubject)
+            .string("Sales Quotes ID", SalesQuoteDataDTO::getQuoteId)
+            .string("Sales Quotes Owner", SalesQuoteDataDTO::getQuoteOwnerId)
+            .string("Opportunities Name", quote -> quote.getOpportunity() != null ? quote.getOpportunity().getName() : null)
+            .dateTime("Created At", SalesQuoteDataDTO::getCreatedAt)
+            .string("Status", SalesQuoteDataDTO::getStatus)
+            .number("Amount", SalesQuoteDataDTO::getAmount)
+            .number("Success Rate", SalesQuoteDataDTO::getSuccessRate)
+            .dateTime("Due Date", SalesQuoteDataDTO::getDueDate)
+            .dateTime("Last Modified Date", SalesQuoteDataDTO::getUpdatedAt)
+            .ownedBy("Sales Quotes Owner")
+            .createdAt("Created At")
+            .updatedAt("Last Modified Date")
+            .equalityFilter("status", "Status")
+            .distinctSketch("Opportunities Name")
+            .distinctSketch("Sales Quotes Owner");
+
+    public static final ModuleFields<SalesOrderDataDTO> SALES_ORDER = new ModuleFields<SalesOrderDataDTO>(ReportModule.SALES_ORDER)
+            .string("Sales Order Name", SalesOrderDataDTO::getSubject)
+            .string("Sales Order ID", SalesOrderDataDTO::getOrderId)
+            .string("Sales Order Owner", SalesOrderDataDTO::getOwnerId)
+            .string("Opportunities Name", order -> order.getOpportunity() != null ? order.getOpportunity().getName() : null)
+            .dateTime("Created At", SalesOrderDataDTO::getCreatedAt)
+            .string("Status", SalesOrderDataDTO::getStatus)
+            .number("Amount", SalesOrderDataDTO::getAmount)
+            .string("Purchase Order", SalesOrderDataDTO::getPurchaseOrder)
+            .dateTime("Due Date", SalesOrderDataDTO::getDueDate)
+            .number("Commission", SalesOrderDataDTO::getCommission)
+            .number("Budget", SalesOrderDataDTO::getBudget)
+            .dateTime("Last Modified Date", SalesOrderDataDTO::getUpdatedAt)
+            .ownedBy("Sales Order Owner")
+            .createdAt("Created At")
+            .updatedAt("Last Modified Date")
+            .equalityFilter("status", "Status")
+            .distinctSketch("Opportunities Name")
+            .distinctSketch("Sales Order Owner");
+
+    public static ModuleFields<?> forModule(ReportModule module) {
+        return switch (module) {
+            case LEAD -> LEAD;
+            case ACCOUNT -> ACCOUNT;
+            case CONTACT -> CONTACT;
+            case OPPORTUNITY -> OPPORTUNITY;
+            case SALES_QUOTES -> SALES_QUOTES;
+            case SALES_ORDER -> SALES_ORDER;
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Ordered set of field accessors for one module DTO, keyed by the column or
+ * group name the frontend uses ("Lead Source", "Amount", ...). Also records
+ * which fields the standard report filters apply to.
+ */
+public class ModuleFields<T> {
+
+    private final ReportModule module;
+    private final Map<String, FieldAccessor<T>> fields = new LinkedHashMap<>();
+    private final List<FieldAccessor<T>> distinct = new ArrayList<>();
+    private final Map<String, String> equalityFilters = new LinkedHashMap<>();
+    private final List<String> distinctSketchFields = new ArrayList<>();
+    private String ownerField;
+    private String createdField;
+    private String updatedField;
+
+    public ModuleFields(ReportModule module) {
+        this.module = module;
+    }
+
+    public ModuleFields<T> string(String name, Function<T, Object> getter) {
+        return add(name, FieldType.STRING, getter);
+    }
+
+    public ModuleFields<T> number(String name, Function<T, Object> getter) {
+        return add(name, FieldType.NUMBER, getter);
+    }
+
+    public ModuleFields<T> dateTime(String name, Function<T, Object> getter) {
+        return add(name, FieldType.DATE_TIME, getter);
+    }
+
+    /**
+     * Expose an existing field under a second name (e.g. "Status" and
+     * "Lead Status"); both names share one accessor and one column.
+     */
+    public ModuleFields<T> alias(String alias, String name) {
+        fields.put(alias, require(name));
+        return this;
+    }
+
+    /** Field compared against the current user for {@code show=MY}. */
+    public ModuleFields<T> ownedBy(String name) {
+        this.ownerField = require(name).name();
+        return this;
+    }
+
+    /** Field the {@code createdDateFrom}/{@code createdDateTo} filters apply to. */
+    public ModuleFields<T> createdAt(String name) {
+        this.createdField = require(name).name();
+        return this;
+    }
+
+    /** Field holding the record's last modification time, used by delta runs. */
+    public ModuleFields<T> updatedAt(String name) {
+        this.updatedField = require(name).name();
+        return this;
+    }
+
+    /** Filter key matched case-insensitively against a string field. */
+    public ModuleFields<T> equalityFilter(String filterKey, String name) {
+        equalityFilters.put(filterKey, require(name).name());
+        return this;
+    }
+
+    /**
+     * Field whose distinct values are sketched per day of the created field,
+     * so APPROX_DISTINCT over date buckets needs no scan.
+     */
+    public ModuleFields<T> distinctSketch(String name) {
+        distinctSketchFields.add(require(name).name());
+        return this;
+    }
+
+    private ModuleFields<T> add(String name, FieldType type, Function<T, Object> getter) {
+        FieldAccessor<T> accessor = new FieldAccessor<>(name, type, getter);
+        fields.put(name, accessor);
+        distinct.add(accessor);
+        return this;
+    }
+
+    public ReportModule getModule() {
+        return module;
+    }
+
+    /**
+     * @return the accessor, or {@code null} when the module has no such field
+     */
+    public FieldAccessor<T> get(String name) {
+        return fields.get(name);
+    }
+
+    public FieldAccessor<T> require(String name) {
+        FieldAccessor<T> accessor = fields.get(name);
+        if (accessor == null) {
+            throw new IllegalArgumentException("Unknown field '" + name + "' for module " + module.getLabel());
+        }
+        return accessor;
+    }
+
+    public Map<String, FieldAccessor<T>> all() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    /** Accessors without aliases, one per stored column. */
+    public List<FieldAccessor<T>> columns() {
+        return Collections.unmodifiableList(distinct);
+    }
+
+    /** @return the owner field, or {@code null} when records have no owner */
+    public String getOwnerField() {
+        return ownerField;
+    }
+
+    public String getCreatedField() {
+        return createdField;
+    }
+
+    public String getUpdatedField() {
+        return updatedField;
+    }
+
+    public Map<String, String> getEqualityFilters() {
+        return Collections.unmodifiableMap(equalityFilters);
+    }
+
+    public List<String> getDistinctSketchFields() {
+        return Collections.unmodifiableList(distinctSketchFields);
+    }
+
+    /**
+     * Fields the snapshots keep bitmap indexes on: the owner and every
+     * equality-filter field, all low-cardinality.
+     */
+    public List<String> getIndexedFields() {
+        Set<String> indexed = new LinkedHashSet<>();
+        if (ownerField != null) {
+            indexed.add(ownerField);
+        }
+        indexed.addAll(equalityFilters.values());
+        return List.copyOf(indexed);
+    }
+}
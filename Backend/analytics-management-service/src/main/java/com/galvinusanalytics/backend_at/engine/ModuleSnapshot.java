@@ -0,0 +1,260 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Local copy of one module's records, held as a {@link ColumnarTable} with
+ * the record ids alongside so incremental syncs can upsert.
+ * <p>
+ * Readers always see an immutable table; syncs build a new version and swap
+ * it in, so report executions never block on a refresh. The watermark is the
+ * newest {@code updatedAt} seen and is what the next incremental sync asks
+ * the upstream for.
+ * <p>
+ * Each version also carries a {@link DayRollup} per timestamp field,
+ * {@link DaySketches} over the created field and a {@link BitmapIndex} per
+ * indexed field (owner and equality filters). Syncs update them for the
+ * records they changed rather than rebuilding them.
+ */
+public class ModuleSnapshot<T> {
+
+    private record Version(ColumnarTable table, String[] ids, LocalDateTime watermark,
+                           Instant syncedAt, Instant fullSyncedAt, Map<String, DayRollup> rollups,
+                           DaySketches sketches, Map<String, BitmapIndex> indexes) {
+    }
+
+    private final ModuleFields<T> fields;
+    private final Function<T, String> idOf;
+    private final Function<T, LocalDateTime> updatedAtOf;
+    private final ColumnarTable empty;
+    private final List<String> dateFields = new ArrayList<>();
+    private final List<String> numericFields = new ArrayList<>();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final AtomicLong anonymousIds = new AtomicLong();
+    private volatile Version version;
+
+    public ModuleSnapshot(ModuleFields<T> fields, Function<T, String> idOf, Function<T, LocalDateTime> updatedAtOf) {
+        this.fields = fields;
+        this.idOf = idOf;
+        this.updatedAtOf = updatedAtOf;
+        this.empty = ColumnarTable.of(fields, List.of());
+        for (FieldAccessor<T> field : fields.columns()) {
+            if (field.type() == FieldType.DATE_TIME) {
+                dateFields.add(field.name());
+            } else if (field.type() == FieldType.NUMBER) {
+                numericFields.add(field.name());
+            }
+        }
+    }
+
+    public ReportModule getModule() {
+        return fields.getModule();
+    }
+
+    public boolean isLoaded() {
+        return version != null;
+    }
+
+    public ColumnarTable table() {
+        Version current = version;
+        return current != null ? current.table() : empty;
+    }
+
+    public int size() {
+        return table().rowCount();
+    }
+
+    public LocalDateTime watermark() {
+        Version current = version;
+        return current != null ? current.watermark() : null;
+    }
+
+    public Instant syncedAt() {
+        Version current = version;
+        return current != null ? current.syncedAt() : null;
+    }
+
+    public Instant fullSyncedAt() {
+        Version current = version;
+        return current != null ? current.fullSyncedAt() : null;
+    }
+
+    /**
+     * Per-day rollup of {@code dateField} matching {@code table}, or
+     * {@code null} if {@code table} is not the current version (a sync swapped
+     * it meanwhile) or the field has no rollup.
+     */
+    public DayRollup rollup(ColumnarTable table, String dateField) {
+        Version current = version;
+        return current != null && current.table() == table ? current.rollups().get(dateField) : null;
+    }
+
+    /**
+     * Per-day sketches of {@code dateField} matching {@code table}, or
+     * {@code null} if {@code table} is not the current version or the field
+     * is not the created field.
+     */
+    public DaySketches sketches(ColumnarTable table, String dateField) {
+        Version current = version;
+        return current != null && current.table() == table && current.sketches() != null
+                && current.sketches().dateField().equals(dateField) ? current.sketches() : null;
+    }
+
+    /**
+     * Bitmap indexes by field name matching {@code table}; empty if
+     * {@code table} is not the current version.
+     */
+    public Map<String, BitmapIndex> indexes(ColumnarTable table) {
+        Version current = version;
+        return current != null && current.table() == table ? current.indexes() : Map.of();
+    }
+
+    /**
+     * Record id of every row of {@code table}, or {@code null} if
+     * {@code table} is not the current version. Must not be modified.
+     */
+    public String[] ids(ColumnarTable table) {
+        Version current = version;
+        return current != null && current.table() == table ? current.ids() : null;
+    }
+
+    /**
+     * Held by whoever is syncing so concurrent readers don't start a second sync.
+     */
+    public ReentrantLock syncLock() {
+        return syncLock;
+    }
+
+    /**
+     * Replace the whole snapshot, dropping records deleted upstream.
+     */
+    public void replaceAll(List<T> all) {
+        Map<String, T> byId = new LinkedHashMap<>(Math.max(16, all.size() * 4 / 3 + 1));
+        for (T record : all) {
+            byId.put(keyOf(record), record);
+        }
+        ColumnarTable.Builder<T> builder = ColumnarTable.builder(fields, byId.size());
+        byId.values().forEach(builder::add);
+        ColumnarTable table = builder.build();
+        Map<String, DayRollup> rollups = new HashMap<>();
+        for (String dateField : dateFields) {
+            DayRollup rollup = DayRollup.build(table, dateField, numericFields);
+            if (rollup != null) {
+                rollups.put(dateField, rollup);
+            }
+        }
+        Map<String, BitmapIndex> indexes = new HashMap<>();
+        for (String field : fields.getIndexedFields()) {
+            indexes.put(field, BitmapIndex.build(table, field));
+        }
+        DaySketches sketches = fields.getCreatedField() != null
+                ? DaySketches.build(table, fields.getCreatedField(), fields.getDistinctSketchFields(), numericFields)
+                : null;
+        Instant now = Instant.now();
+        version = new Version(table, byId.keySet().toArray(new String[0]),
+                maxUpdatedAt(byId.values(), null), now, now, rollups, sketches, indexes);
+    }
+
+    /**
+     * Upsert records changed since the watermark. Updated records keep their
+     * position; new ones are appended.
+     *
+     * @return number of records that were new to the snapshot
+     */
+    public int merge(List<T> changed) {
+        Version current = version;
+        if (current == null) {
+            replaceAll(changed);
+            return changed.size();
+        }
+        Instant now = Instant.now();
+        if (changed.isEmpty()) {
+            version = new Version(current.table(), current.ids(), current.watermark(), now, current.fullSyncedAt(),
+                    current.rollups(), current.sketches(), current.indexes());
+            return 0;
+        }
+
+        Map<String, T> pending = new LinkedHashMap<>();
+        for (T record : changed) {
+            pending.put(keyOf(record), record);
+        }
+
+        ColumnarTable table = current.table();
+        String[] ids = Arrays.copyOf(current.ids(), current.ids().length + pending.size());
+        ColumnarTable.Builder<T> builder = ColumnarTable.builder(fields, ids.length);
+        int[] replaced = new int[pending.size()];
+        int replacedCount = 0;
+        for (int row = 0; row < table.rowCount(); row++) {
+            T replacement = pending.remove(ids[row]);
+            if (replacement != null) {
+                builder.add(replacement);
+                replaced[replacedCount++] = row;
+            } else {
+                builder.copyRow(table, row);
+            }
+        }
+        int added = pending.size();
+        int next = table.rowCount();
+        for (Map.Entry<String, T> entry : pending.entrySet()) {
+            builder.add(entry.getValue());
+            ids[next++] = entry.getKey();
+        }
+        ColumnarTable merged = builder.build();
+
+        // Updated records keep their row, so old and new values line up by index
+        Map<String, DayRollup> rollups = new HashMap<>();
+        for (Map.Entry<String, DayRollup> entry : current.rollups().entrySet()) {
+            DayRollup.Updater updater = entry.getValue().toUpdater();
+            for (int i = 0; i < replacedCount; i++) {
+                updater.add(table, replaced[i], -1);
+                updater.add(merged, replaced[i], 1);
+            }
+            for (int row = table.rowCount(); row < next; row++) {
+                updater.add(merged, row, 1);
+            }
+            DayRollup updated = updater.build();
+            if (updated != null) {
+                rollups.put(entry.getKey(), updated);
+            }
+        }
+
+        Map<String, BitmapIndex> indexes = new HashMap<>();
+        for (Map.Entry<String, BitmapIndex> entry : current.indexes().entrySet()) {
+            indexes.put(entry.getKey(), entry.getValue().update(table, merged, replaced, replacedCount));
+        }
+
+        DaySketches sketches = current.sketches() != null
+                ? current.sketches().update(table, merged, replaced, replacedCount)
+                : null;
+
+        version = new Version(merged, Arrays.copyOf(ids, next),
+                maxUpdatedAt(changed, current.watermark()), now, current.fullSyncedAt(), rollups, sketches, indexes);
+        return added;
+    }
+
+    private String keyOf(T record) {
+        String id = idOf.apply(record);
+        return id != null ? id : "anonymous-" + anonymousIds.incrementAndGet();
+    }
+
+    private LocalDateTime maxUpdatedAt(Iterable<T> records, LocalDateTime start) {
+        LocalDateTime max = start;
+        for (T record : records) {
+            LocalDateTime updatedAt = updatedAtOf.apply(record);
+            if (updatedAt != null && (max == null || updatedAt.isAfter(max))) {
+                max = updatedAt;
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,76 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.BitSet;
+
+/**
+ * Numeric column backed by a {@code double[]} with a null bitmap. Columns
+ * filled only from integer values hand back {@code Integer}s, or
+ * {@code Long}s once any value was a {@code Long}, so rows look the same as
+ * before the data was columnar.
+ */
+public final class NumberColumn implements Column {
+
+    private final double[] values;
+    private final BitSet nulls;
+    private final boolean integral;
+    private final boolean wide;
+
+    NumberColumn(double[] values, BitSet nulls, boolean integral, boolean wide) {
+        this.values = values;
+        this.nulls = nulls;
+        this.integral = integral;
+        this.wide = wide;
+    }
+
+    @Override
+    public FieldType type() {
+        return FieldType.NUMBER;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    @Override
+    public Object get(int row) {
+        if (nulls.get(row)) {
+            return null;
+        }
+        if (!integral) {
+            return values[row];
+        }
+        return wide ? (Object) (long) values[row] : (Object) (int) values[row];
+    }
+
+    public double getDouble(int row) {
+        return values[row];
+    }
+
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    /** Whether integral values are handed back as {@code Long}. */
+    public boolean isWide() {
+        return wide;
+    }
+
+    public double[] values() {
+        return values;
+    }
+
+    public BitSet nulls() {
+        return nulls;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return 16L + 8L * values.length + 16L + nulls.size() / 8;
+    }
+}
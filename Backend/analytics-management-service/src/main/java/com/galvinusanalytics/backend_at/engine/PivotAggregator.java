@@ -0,0 +1,480 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.AggregationDTO;
+import com.galvinusanalytics.backend_at.dto.PivotDTO;
+import com.galvinusanalytics.backend_at.dto.PivotResultDTO;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cross-tabulates the selected rows of a {@link ColumnarTable}: row
+ * dimensions against column dimensions with one measure per cell, plus the
+ * measure over every matrix row, every matrix column and all records.
+ * <p>
+ * One pass over the rows folds each record into its cell and the three
+ * marginals, so totals of non-additive measures (AVG, percentiles, distinct
+ * counts) are exact rather than sums of cells. When every dimension is
+ * dictionary-encoded and the full code space is small, cells live in a dense
+ * array indexed by the codes; otherwise only the combinations that occur are
+ * allocated, through hash lookups. Date dimensions are bucketed by calendar
+ * period.
+ */
+@Component
+public class PivotAggregator {
+
+    /** Dimensions per axis; each takes {@value #SLOT_BITS} bits of a packed key. */
+    public static final int MAX_DIMENSIONS = 3;
+    /** Matrices up to this many cells with at least a quarter filled are returned dense. */
+    public static final int MAX_DENSE_OUTPUT = 250_000;
+
+    private static final int SLOT_BITS = 21;
+    private static final int MAX_SLOTS = 1 << SLOT_BITS;
+    private static final int DENSE_MAX_CELLS = 1 << 20;
+
+    public PivotResultDTO aggregate(ColumnarTable table, int[] rows, PivotDTO pivot) {
+        List<String> rowNames = pivot.getRows() != null ? pivot.getRows() : List.of();
+        List<String> columnNames = pivot.getColumns() != null ? pivot.getColumns() : List.of();
+        if (rowNames.isEmpty() && columnNames.isEmpty()) {
+            throw new IllegalArgumentException("Pivot needs at least one row or column dimension");
+        }
+        if (rowNames.size() > MAX_DIMENSIONS || columnNames.size() > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("Pivot supports at most " + MAX_DIMENSIONS + " dimensions per axis");
+        }
+        TimeBucket bucket = TimeBucket.fromName(pivot.getTimeBucket());
+        Dimension[] rowAxis = dimensions(table, rowNames, bucket != null ? bucket : TimeBucket.MONTH);
+        Dimension[] columnAxis = dimensions(table, columnNames, bucket != null ? bucket : TimeBucket.MONTH);
+        Measure measure = Measure.compile(table, pivot.getMeasure());
+
+        long rowSpace = denseSpace(rowAxis);
+        long columnSpace = denseSpace(columnAxis);
+        boolean dense = rowSpace > 0 && columnSpace > 0 && rowSpace * columnSpace <= DENSE_MAX_CELLS;
+
+        Cells cells = new Cells(measure, dense ? (int) (rowSpace * columnSpace) : 16);
+        Cells rowTotals = new Cells(measure, dense ? (int) rowSpace : 16);
+        Cells columnTotals = new Cells(measure, dense ? (int) columnSpace : 16);
+        Cells grandTotal = new Cells(measure, 1);
+        LongIntMap rowIndexes = dense ? null : new LongIntMap();
+        LongIntMap columnIndexes = dense ? null : new LongIntMap();
+        LongIntMap cellIndexes = dense ? null : new LongIntMap();
+
+        for (int row : rows) {
+            int rowIndex;
+            int columnIndex;
+            int cellIndex;
+            if (dense) {
+                rowIndex = (int) denseKey(rowAxis, row);
+                columnIndex = (int) denseKey(columnAxis, row);
+                cellIndex = rowIndex * (int) columnSpace + columnIndex;
+            } else {
+                rowIndex = rowIndexes.indexOf(packedKey(rowAxis, row));
+                columnIndex = columnIndexes.indexOf(packedKey(columnAxis, row));
+                cellIndex = cellIndexes.indexOf((long) rowIndex << 32 | columnIndex);
+            }
+            cells.add(cellIndex, row);
+            rowTotals.add(rowIndex, row);
+            columnTotals.add(columnIndex, row);
+            grandTotal.add(0, row);
+        }
+
+        // Matrix rows and columns that have records, in header order
+        List<Header> rowHeaders = headers(rowAxis, rowTotals, dense ? null : rowIndexes);
+        List<Header> columnHeaders = headers(columnAxis, columnTotals, dense ? null : columnIndexes);
+        int[] columnPosition = new int[columnTotals.size()];
+        for (int i = 0; i < columnHeaders.size(); i++) {
+            columnPosition[columnHeaders.get(i).index()] = i;
+        }
+
+        PivotResultDTO result = new PivotResultDTO();
+        result.setRowDimensions(rowNames);
+        result.setColumnDimensions(columnNames);
+        result.setMeasure(measure.label());
+        result.setRowHeaders(rowHeaders.stream().map(Header::values).toList());
+        result.setColumnHeaders(columnHeaders.stream().map(Header::values).toList());
+        result.setRowTotals(rowHeaders.stream().map(header -> rowTotals.value(header.index())).toList());
+        result.setColumnTotals(columnHeaders.stream().map(header -> columnTotals.value(header.index())).toList());
+        result.setGrandTotal(grandTotal.value(0));
+
+        long matrixCells = (long) rowHeaders.size() * columnHeaders.size();
+        int filled = dense ? cells.occupied() : cellIndexes.size();
+        List<List<Object>> values = new ArrayList<>();
+        if (matrixCells <= MAX_DENSE_OUTPUT && filled * 4L >= matrixCells) {
+            result.setLayout("DENSE");
+            for (Header rowHeader : rowHeaders) {
+                List<Object> line = new ArrayList<>(columnHeaders.size());
+                for (Header columnHeader : columnHeaders) {
+                    int cell = dense
+                            ? rowHeader.index() * (int) columnSpace + columnHeader.index()
+                            : cellIndexes.get((long) rowHeader.index() << 32 | columnHeader.index());
+                    line.add(cell >= 0 && cells.count(cell) > 0 ? cells.value(cell) : null);
+                }
+                values.add(line);
+            }
+        } else {
+            result.setLayout("SPARSE");
+            for (int i = 0; i < rowHeaders.size(); i++) {
+                Header rowHeader = rowHeaders.get(i);
+                for (Header columnHeader : columnHeaders) {
+                    int cell = dense
+                            ? rowHeader.index() * (int) columnSpace + columnHeader.index()
+                            : cellIndexes.get((long) rowHeader.index() << 32 | columnHeader.index());
+                    if (cell >= 0 && cells.count(cell) > 0) {
+                        values.add(Arrays.asList(i, columnPosition[columnHeader.index()], cells.value(cell)));
+                    }
+                }
+            }
+        }
+        result.setCells(values);
+        return result;
+    }
+
+    private static Dimension[] dimensions(ColumnarTable table, List<String> names, TimeBucket bucket) {
+        Dimension[] dimensions = new Dimension[names.size()];
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = new Dimension(table.require(names.get(i)), bucket);
+        }
+        return dimensions;
+    }
+
+    /** Size of an axis' code space when all its dimensions are dictionary-encoded, else -1. */
+    private static long denseSpace(Dimension[] axis) {
+        long space = 1;
+        for (Dimension dimension : axis) {
+            if (!(dimension.column instanceof DictionaryColumn dictionary)) {
+                return -1;
+            }
+            space *= dictionary.cardinality() + 1;
+            if (space > DENSE_MAX_CELLS) {
+                return -1;
+            }
+        }
+        return space;
+    }
+
+    private static long denseKey(Dimension[] axis, int row) {
+        long key = 0;
+        for (Dimension dimension : axis) {
+            DictionaryColumn dictionary = (DictionaryColumn) dimension.column;
+            key = key * (dictionary.cardinality() + 1) + dictionary.code(row) + 1;
+        }
+        return key;
+    }
+
+    private static long packedKey(Dimension[] axis, int row) {
+        long key = 0;
+        for (Dimension dimension : axis) {
+            key = key << SLOT_BITS | dimension.slot(row);
+        }
+        return key;
+    }
+
+    private record Header(int index, List<Object> values) {
+    }
+
+    private static final Comparator<List<Object>> HEADER_ORDER = (a, b) -> {
+        for (int i = 0; i < a.size(); i++) {
+            int order = GroupAggregator.KEY_ORDER.compare(a.get(i), b.get(i));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    };
+
+    /** Decode the non-empty axis entries into dimension values and sort them. */
+    private static List<Header> headers(Dimension[] axis, Cells totals, LongIntMap indexes) {
+        List<Header> headers = new ArrayList<>();
+        if (indexes == null) {
+            for (int index = 0; index < totals.size(); index++) {
+                if (totals.count(index) > 0) {
+                    headers.add(new Header(index, decodeDense(axis, index)));
+                }
+            }
+        } else {
+            indexes.forEach((key, index) -> headers.add(new Header(index, decodePacked(axis, key))));
+        }
+        headers.sort(Comparator.comparing(Header::values, HEADER_ORDER));
+        return headers;
+    }
+
+    private static List<Object> decodeDense(Dimension[] axis, long key) {
+        Object[] values = new Object[axis.length];
+        for (int i = axis.length - 1; i >= 0; i--) {
+            int radix = ((DictionaryColumn) axis[i].column).cardinality() + 1;
+            values[i] = axis[i].value((int) (key % radix));
+            key /= radix;
+        }
+        return Arrays.asList(values);
+    }
+
+    private static List<Object> decodePacked(Dimension[] axis, long key) {
+        Object[] values = new Object[axis.length];
+        for (int i = axis.length - 1; i >= 0; i--) {
+            values[i] = axis[i].value((int) (key & (MAX_SLOTS - 1)));
+            key >>>= SLOT_BITS;
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * One pivot dimension. Dictionary columns use code + 1 as slot (0 is
+     * null); other values get slots in order of appearance.
+     */
+    private static final class Dimension {
+        private final Column column;
+        private final TimeBucket bucket;
+        private final Map<Object, Integer> slots = new HashMap<>();
+        private final List<Object> values = new ArrayList<>();
+        private int lastDay = DateTimeColumn.NULL_DAY;
+        private int lastDaySlot = -1;
+
+        Dimension(Column column, TimeBucket bucket) {
+            this.column = column;
+            this.bucket = bucket;
+            if (column instanceof DictionaryColumn dictionary && dictionary.cardinality() + 1 >= MAX_SLOTS) {
+                throw new IllegalArgumentException("Too many distinct values to pivot on");
+            }
+        }
+
+        int slot(int row) {
+            if (column instanceof DictionaryColumn dictionary) {
+                return dictionary.code(row) + 1;
+            }
+            if (column instanceof DateTimeColumn dates) {
+                int day = dates.epochDay(row);
+                if (day != lastDay || lastDaySlot < 0) {
+                    lastDay = day;
+                    lastDaySlot = slotOf(day == DateTimeColumn.NULL_DAY
+                            ? null : bucket.floor(LocalDate.ofEpochDay(day)).toString());
+                }
+                return lastDaySlot;
+            }
+            return slotOf(column.get(row));
+        }
+
+        Object value(int slot) {
+            if (column instanceof DictionaryColumn dictionary) {
+                return slot == 0 ? null : dictionary.valueOf(slot - 1);
+            }
+            return values.get(slot);
+        }
+
+        private int slotOf(Object value) {
+            Integer slot = slots.get(value);
+            if (slot == null) {
+                if (values.size() == MAX_SLOTS) {
+                    throw new IllegalArgumentException("Too many distinct values to pivot on");
+                }
+                slot = values.size();
+                slots.put(value, slot);
+                values.add(value);
+            }
+            return slot;
+        }
+    }
+
+    private record Measure(String label, AggregateFunction function, Column column, long[] codeHashes) {
+
+        static Measure compile(ColumnarTable table, AggregationDTO aggregation) {
+            if (aggregation == null) {
+                return new Measure("COUNT", AggregateFunction.COUNT, null, null);
+            }
+            AggregateFunction function = AggregateFunction.fromName(aggregation.getFunction());
+            String field = aggregation.getField() != null && !aggregation.getField().isBlank()
+                    ? aggregation.getField() : null;
+            Column column = field != null ? table.require(field) : null;
+            if (function.requiresNumeric() && (column == null || column.type() != FieldType.NUMBER)) {
+                throw new IllegalArgumentException(function + " requires a numeric field, got: " + aggregation.getField());
+            }
+            if (function == AggregateFunction.APPROX_DISTINCT && column == null) {
+                throw new IllegalArgumentException(function + " requires a field");
+            }
+            return new Measure(GroupAggregator.label(function, field), function, column,
+                    function == AggregateFunction.APPROX_DISTINCT ? SketchAccumulator.codeHashes(column) : null);
+        }
+    }
+
+    /** Growable per-cell accumulators of the measure. */
+    private static final class Cells {
+        private final Measure measure;
+        private long[] count;
+        private long[] nonNull;
+        private double[] sum;
+        private double[] min;
+        private double[] max;
+        private SketchAccumulator[] sketches;
+        private int size;
+
+        Cells(Measure measure, int capacity) {
+            this.measure = measure;
+            count = new long[capacity];
+            nonNull = new long[capacity];
+            sum = new double[capacity];
+            min = new double[capacity];
+            max = new double[capacity];
+            sketches = measure.function().isSketch() ? new SketchAccumulator[capacity] : null;
+            size = capacity;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long count(int index) {
+            return count[index];
+        }
+
+        int occupied() {
+            int occupied = 0;
+            for (long c : count) {
+                if (c > 0) {
+                    occupied++;
+                }
+            }
+            return occupied;
+        }
+
+        void add(int index, int row) {
+            if (index >= count.length) {
+                grow(index + 1);
+            }
+            size = Math.max(size, index + 1);
+            count[index]++;
+            Column column = measure.column();
+            if (column == null || column.isNull(row)) {
+                return;
+            }
+            if (sketches != null) {
+                if (sketches[index] == null) {
+                    sketches[index] = new SketchAccumulator(measure.function());
+                }
+                sketches[index].add(column, row, measure.codeHashes());
+            } else if (column instanceof NumberColumn numbers) {
+                double d = numbers.getDouble(row);
+                min[index] = nonNull[index] == 0 ? d : Math.min(min[index], d);
+                max[index] = nonNull[index] == 0 ? d : Math.max(max[index], d);
+                sum[index] += d;
+            }
+            nonNull[index]++;
+        }
+
+        Object value(int index) {
+            boolean empty = nonNull[index] == 0;
+            return switch (measure.function()) {
+                case COUNT -> measure.column() == null ? count[index] : nonNull[index];
+                case SUM -> round(sum[index]);
+                case AVG -> empty ? null : round(sum[index] / nonNull[index]);
+                case MIN -> empty ? null : min[index];
+                case MAX -> empty ? null : max[index];
+                case APPROX_DISTINCT, MEDIAN, P90, P95, P99 -> (sketches[index] != null
+                        ? sketches[index] : new SketchAccumulator(measure.function())).value();
+            };
+        }
+
+        private void grow(int minimum) {
+            int capacity = Math.max(minimum, count.length * 2);
+            count = Arrays.copyOf(count, capacity);
+            nonNull = Arrays.copyOf(nonNull, capacity);
+            sum = Arrays.copyOf(sum, capacity);
+            min = Arrays.copyOf(min, capacity);
+            max = Arrays.copyOf(max, capacity);
+            if (sketches != null) {
+                sketches = Arrays.copyOf(sketches, capacity);
+            }
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+
+    /**
+     * Open-addressing map from non-negative long keys to dense indexes
+     * 0, 1, 2, ... in order of first appearance.
+     */
+    private static final class LongIntMap {
+        private static final long EMPTY = -1L;
+
+        private long[] keys = filled(64);
+        private int[] indexes = new int[64];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        /** Index of {@code key}, assigning the next one if it is new. */
+        int indexOf(long key) {
+            int slot = find(key);
+            if (keys[slot] == key) {
+                return indexes[slot];
+            }
+            keys[slot] = key;
+            indexes[slot] = size;
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+            return size - 1;
+        }
+
+        /** Index of {@code key}, -1 if absent. */
+        int get(long key) {
+            int slot = find(key);
+            return keys[slot] == key ? indexes[slot] : -1;
+        }
+
+        void forEach(KeyIndexConsumer consumer) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    consumer.accept(keys[slot], indexes[slot]);
+                }
+            }
+        }
+
+        interface KeyIndexConsumer {
+            void accept(long key, int index);
+        }
+
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) (mix(key) & mask);
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldIndexes = indexes;
+            keys = filled(oldKeys.length * 2);
+            indexes = new int[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    indexes[slot] = oldIndexes[i];
+                }
+            }
+        }
+
+        private static long[] filled(int length) {
+            long[] keys = new long[length];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static long mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return key;
+        }
+    }
+}
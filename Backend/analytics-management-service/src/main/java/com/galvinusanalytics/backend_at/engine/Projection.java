@@ -0,0 +1,61 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code ReportExecutionDTO.columns} resolved once against a
+ * {@link ColumnarTable}. Columns the module does not have project as
+ * {@code null}.
+ */
+public final class Projection {
+
+    private final String[] names;
+    private final Column[] columns;
+
+    private Projection(String[] names, Column[] columns) {
+        this.names = names;
+        this.columns = columns;
+    }
+
+    public static Projection compile(ColumnarTable table, List<String> columnNames) {
+        String[] names = columnNames != null ? columnNames.toArray(String[]::new) : new String[0];
+        Column[] columns = new Column[names.length];
+        for (int i = 0; i < names.length; i++) {
+            columns[i] = table.column(names[i]);
+        }
+        return new Projection(names, columns);
+    }
+
+    public int width() {
+        return names.length;
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public Object value(int index, int row) {
+        Column column = columns[index];
+        return column != null ? column.get(row) : null;
+    }
+
+    /** Positional values of {@code row}, in column order. */
+    public Object[] toArray(int row) {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = value(i, row);
+        }
+        return values;
+    }
+
+    /** Values of {@code row} keyed by column name, in column order. */
+    public Map<String, Object> toMap(int row) {
+        Map<String, Object> values = new LinkedHashMap<>(names.length * 4 / 3 + 1);
+        for (int i = 0; i < names.length; i++) {
+            values.put(names[i], value(i, row));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,49 @@
+package com.galvinusanalytics.backend_at.engine;
+
+/**
+ * CRM modules a report can target. {@link #getLabel()} is the value stored in
+ * {@code Report.module} and sent as {@code ReportExecutionDTO.module}.
+ */
+public enum ReportModule {
+    LEAD("Lead", "lead"),
+    ACCOUNT("Account", "account"),
+    CONTACT("Contact", "account"),
+    OPPORTUNITY("Opportunity", "sales"),
+    SALES_QUOTES("Sales Quotes", "sales"),
+    SALES_ORDER("Sales Order", "sales");
+
+    private final String label;
+    private final String upstream;
+
+    ReportModule(String label, String upstream) {
+        this.label = label;
+        this.upstream = upstream;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Upstream service the module's data comes from; modules sharing a
+     * service share its concurrency budget.
+     */
+    public String getUpstream() {
+        return upstream;
+    }
+
+    /**
+     * Resolve a module name case-insensitively ("Lead", "SALES QUOTES", ...).
+     */
+    public static ReportModule fromName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Module is required");
+        }
+        for (ReportModule module : values()) {
+            if (module.label.equalsIgnoreCase(name.trim())) {
+                return module;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported module: " + name);
+    }
+}
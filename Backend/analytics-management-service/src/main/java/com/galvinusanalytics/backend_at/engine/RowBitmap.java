@@ -0,0 +1,330 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed set of row positions. Rows are split into chunks of
+ * 65536 by their high 16 bits; a chunk holding at most {@value #ARRAY_MAX}
+ * rows stores their low bits as a sorted {@code char[]}, a denser chunk as
+ * a 65536-bit bitset. Intersections and unions work chunk by chunk, so their
+ * cost follows the size of the smaller operand rather than the table.
+ */
+public final class RowBitmap {
+
+    public static final RowBitmap EMPTY = new RowBitmap(new int[0], new Object[0]);
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private final int[] keys;                   // Sorted chunk numbers (row >>> 16)
+    private final Object[] chunks;              // char[] (sorted low bits) or long[WORDS]
+    private final int cardinality;
+
+    private RowBitmap(int[] keys, Object[] chunks) {
+        this.keys = keys;
+        this.chunks = chunks;
+        int total = 0;
+        for (Object chunk : chunks) {
+            total += cardinality(chunk);
+        }
+        this.cardinality = total;
+    }
+
+    /**
+     * @param rows ascending row positions without duplicates
+     */
+    public static RowBitmap of(int[] rows, int count) {
+        int[] keys = new int[8];
+        Object[] chunks = new Object[8];
+        int size = 0;
+        int start = 0;
+        while (start < count) {
+            int key = rows[start] >>> 16;
+            int end = start;
+            while (end < count && rows[end] >>> 16 == key) {
+                end++;
+            }
+            char[] low = new char[end - start];
+            for (int i = start; i < end; i++) {
+                low[i - start] = (char) rows[i];
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                chunks = Arrays.copyOf(chunks, size * 2);
+            }
+            keys[size] = key;
+            chunks[size] = normalize(low, low.length);
+            size++;
+            start = end;
+        }
+        return size == 0 ? EMPTY : new RowBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(chunks, size));
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean contains(int row) {
+        int index = Arrays.binarySearch(keys, row >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        Object chunk = chunks[index];
+        char low = (char) row;
+        return chunk instanceof char[] values
+                ? Arrays.binarySearch(values, low) >= 0
+                : (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+    }
+
+    /**
+     * @return the rows in ascending order
+     */
+    public int[] toArray() {
+        int[] rows = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int base = keys[i] << 16;
+            if (chunks[i] instanceof char[] values) {
+                for (char value : values) {
+                    rows[n++] = base | value;
+                }
+            } else {
+                long[] words = (long[]) chunks[i];
+                for (int w = 0; w < WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        rows[n++] = base | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    public RowBitmap and(RowBitmap other) {
+        Builder result = new Builder(Math.min(keys.length, other.keys.length));
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.add(keys[i], combine(chunks[i], other.chunks[j], Op.AND));
+                i++;
+                j++;
+            }
+        }
+        return result.build();
+    }
+
+    public RowBitmap or(RowBitmap other) {
+        Builder result = new Builder(keys.length + other.keys.length);
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                result.add(keys[i], chunks[i]);
+                i++;
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                result.add(other.keys[j], other.chunks[j]);
+                j++;
+            } else {
+                result.add(keys[i], combine(chunks[i], other.chunks[j], Op.OR));
+                i++;
+                j++;
+            }
+        }
+        return result.build();
+    }
+
+    /** Rows of this bitmap that are not in {@code other}. */
+    public RowBitmap andNot(RowBitmap other) {
+        Builder result = new Builder(keys.length);
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.keys.length && other.keys[j] == keys[i]) {
+                result.add(keys[i], combine(chunks[i], other.chunks[j], Op.AND_NOT));
+            } else {
+                result.add(keys[i], chunks[i]);
+            }
+        }
+        return result.build();
+    }
+
+    /** Approximate heap footprint, for index size reporting. */
+    public long estimatedBytes() {
+        long bytes = 16L + keys.length * 4L;
+        for (Object chunk : chunks) {
+            bytes += chunk instanceof char[] values ? 16L + values.length * 2L : 16L + WORDS * 8L;
+        }
+        return bytes;
+    }
+
+    private enum Op { AND, OR, AND_NOT }
+
+    private static Object combine(Object a, Object b, Op op) {
+        if (a instanceof char[] x && b instanceof char[] y) {
+            return merge(x, y, op);
+        }
+        if (op == Op.AND && a instanceof char[] x) {
+            return filter(x, (long[]) b, true);
+        }
+        if (op == Op.AND && b instanceof char[] y) {
+            return filter(y, (long[]) a, true);
+        }
+        if (op == Op.AND_NOT && a instanceof char[] x) {
+            return filter(x, (long[]) b, false);
+        }
+        long[] left = toWords(a);
+        long[] right = toWords(b);
+        long[] words = new long[WORDS];
+        int cardinality = 0;
+        for (int w = 0; w < WORDS; w++) {
+            words[w] = switch (op) {
+                case AND -> left[w] & right[w];
+                case OR -> left[w] | right[w];
+                case AND_NOT -> left[w] & ~right[w];
+            };
+            cardinality += Long.bitCount(words[w]);
+        }
+        return cardinality > ARRAY_MAX ? words : toValues(words, cardinality);
+    }
+
+    /** Sorted merge of two array chunks. */
+    private static Object merge(char[] x, char[] y, Op op) {
+        char[] out = new char[op == Op.OR ? x.length + y.length : x.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < x.length && j < y.length) {
+            if (x[i] < y[j]) {
+                if (op != Op.AND) {
+                    out[n++] = x[i];
+                }
+                i++;
+            } else if (x[i] > y[j]) {
+                if (op == Op.OR) {
+                    out[n++] = y[j];
+                }
+                j++;
+            } else {
+                if (op != Op.AND_NOT) {
+                    out[n++] = x[i];
+                }
+                i++;
+                j++;
+            }
+        }
+        if (op != Op.AND) {
+            while (i < x.length) {
+                out[n++] = x[i++];
+            }
+        }
+        if (op == Op.OR) {
+            while (j < y.length) {
+                out[n++] = y[j++];
+            }
+        }
+        return normalize(out, n);
+    }
+
+    /** Values of an array chunk that are (or are not) set in a bitset chunk. */
+    private static Object filter(char[] values, long[] words, boolean keep) {
+        char[] out = new char[values.length];
+        int n = 0;
+        for (char value : values) {
+            if (((words[value >>> 6] & (1L << value)) != 0) == keep) {
+                out[n++] = value;
+            }
+        }
+        return normalize(out, n);
+    }
+
+    /** Array chunk of the first {@code n} values, or a bitset when too dense; null when empty. */
+    private static Object normalize(char[] values, int n) {
+        if (n == 0) {
+            return null;
+        }
+        if (n <= ARRAY_MAX) {
+            return n == values.length ? values : Arrays.copyOf(values, n);
+        }
+        long[] words = new long[WORDS];
+        for (int i = 0; i < n; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return words;
+    }
+
+    private static long[] toWords(Object chunk) {
+        if (chunk instanceof long[] words) {
+            return words;
+        }
+        long[] words = new long[WORDS];
+        for (char value : (char[]) chunk) {
+            words[value >>> 6] |= 1L << value;
+        }
+        return words;
+    }
+
+    private static char[] toValues(long[] words, int cardinality) {
+        if (cardinality == 0) {
+            return null;
+        }
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+
+    private static int cardinality(Object chunk) {
+        if (chunk instanceof char[] values) {
+            return values.length;
+        }
+        int total = 0;
+        for (long word : (long[]) chunk) {
+            total += Long.bitCount(word);
+        }
+        return total;
+    }
+
+    /** Collects chunks in key order, dropping empty ones. */
+    private static final class Builder {
+        private int[] keys;
+        private Object[] chunks;
+        private int size;
+
+        Builder(int capacity) {
+            keys = new int[Math.max(capacity, 1)];
+            chunks = new Object[Math.max(capacity, 1)];
+        }
+
+        void add(int key, Object chunk) {
+            if (chunk == null) {
+                return;
+            }
+            keys[size] = key;
+            chunks[size] = chunk;
+            size++;
+        }
+
+        RowBitmap build() {
+            return size == 0 ? EMPTY : new RowBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(chunks, size));
+        }
+    }
+}
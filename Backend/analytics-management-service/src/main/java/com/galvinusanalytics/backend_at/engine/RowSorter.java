@@ -0,0 +1,486 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.SortDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Orders and pages a row selection of a {@link ColumnarTable}.
+ * <p>
+ * Sort keys compare nulls last in either direction, strings case-insensitively
+ * and ties by row index, so the order is total. A page is taken with a bounded
+ * heap of {@code pageSize} rows, so its cost grows with the page rather than
+ * the result. The continuation cursor carries the sort key of the last row
+ * returned; the next page keeps only rows after it and never sorts the
+ * earlier ones again. Row indexes are stable while a snapshot is merged
+ * incrementally; a full resync between pages may shift ties.
+ */
+public final class RowSorter {
+
+    private static final Comparator<String> STRING_ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    public record Page(int[] rows, String nextCursor) {
+    }
+
+    private final SortKey[] keys;
+    private final String spec;
+
+    private RowSorter(SortKey[] keys, String spec) {
+        this.keys = keys;
+        this.spec = spec;
+    }
+
+    public static RowSorter compile(ColumnarTable table, List<SortDTO> sort) {
+        List<SortKey> keys = new ArrayList<>();
+        if (sort != null) {
+            for (SortDTO entry : sort) {
+                if (entry == null || entry.getField() == null || entry.getField().isBlank()) {
+                    throw new IllegalArgumentException("Sort field is required");
+                }
+                Column column = table.require(entry.getField());
+                boolean descending = SortDirection.fromName(entry.getDirection()) == SortDirection.DESC;
+                keys.add(SortKey.of(column, descending));
+            }
+        }
+        String spec = sort == null ? "" : sort.stream()
+                .map(entry -> entry.getField() + " " + SortDirection.fromName(entry.getDirection()))
+                .collect(Collectors.joining(","));
+        return new RowSorter(keys.toArray(SortKey[]::new), spec);
+    }
+
+    public boolean isUnsorted() {
+        return keys.length == 0;
+    }
+
+    public int compare(int a, int b) {
+        for (SortKey key : keys) {
+            int result = key.compareRows(a, b);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(a, b);
+    }
+
+    /**
+     * Sort the whole selection.
+     */
+    public int[] sort(int[] rows) {
+        if (isUnsorted()) {
+            return rows;
+        }
+        return smallest(rows, rows.length, rows.length);
+    }
+
+    /**
+     * Next page of {@code rows} after {@code cursor} (first page when null).
+     * {@code pageSize == null} returns everything after the cursor, sorted.
+     */
+    public Page page(int[] rows, String cursor, Integer pageSize) {
+        if (pageSize != null && pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        int count = rows.length;
+        int[] candidates = rows;
+        if (cursor != null && !cursor.isBlank()) {
+            Position after = decode(cursor);
+            candidates = new int[rows.length];
+            count = 0;
+            for (int row : rows) {
+                if (compareToPosition(row, after) > 0) {
+                    candidates[count++] = row;
+                }
+            }
+        }
+
+        int limit = pageSize != null ? Math.min(pageSize, count) : count;
+        int[] page;
+        if (isUnsorted()) {
+            // Selections are already in row order, which is the unsorted order.
+            page = limit == candidates.length ? candidates : Arrays.copyOf(candidates, limit);
+        } else {
+            page = smallest(candidates, count, limit);
+        }
+
+        String nextCursor = limit < count && limit > 0 ? encode(page[limit - 1]) : null;
+        return new Page(page, nextCursor);
+    }
+
+    /* ===================== TOP-K ===================== */
+
+    /**
+     * The {@code k} smallest of {@code rows[0..count)} in ascending order,
+     * via a max-heap bounded at {@code k}.
+     */
+    private int[] smallest(int[] rows, int count, int k) {
+        if (k == 0) {
+            return new int[0];
+        }
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            if (size < k) {
+                heap[size] = row;
+                siftUp(heap, size++);
+            } else if (compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(heap, 0, size);
+            }
+        }
+        // Heap-sort in place: repeatedly move the largest to the end.
+        for (int end = size - 1; end > 0; end--) {
+            int top = heap[0];
+            heap[0] = heap[end];
+            heap[end] = top;
+            siftDown(heap, 0, end);
+        }
+        return heap;
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int row = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(row, heap[parent]) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = row;
+    }
+
+    private void siftDown(int[] heap, int index, int size) {
+        int row = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (compare(row, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+
+    /* ===================== CURSOR ===================== */
+
+    private record Position(Object[] values, int row) {
+    }
+
+    private int compareToPosition(int row, Position position) {
+        for (int i = 0; i < keys.length; i++) {
+            int result = keys[i].compareToValue(row, position.values()[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(row, position.row());
+    }
+
+    private String encode(int row) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeText(out, spec);
+            out.writeInt(row);
+            for (SortKey key : keys) {
+                Object value = key.valueOf(row);
+                if (value == null) {
+                    out.writeByte(0);
+                } else if (value instanceof String text) {
+                    out.writeByte(1);
+                    writeText(out, text);
+                } else if (value instanceof Double number) {
+                    out.writeByte(2);
+                    out.writeDouble(number);
+                } else {
+                    out.writeByte(3);
+                    out.writeLong((Long) value);
+                }
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode cursor", e);
+        }
+    }
+
+    private Position decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor();
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (!spec.equals(readText(in))) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            int row = in.readInt();
+            Object[] values = new Object[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                values[i] = switch (in.readByte()) {
+                    case 0 -> null;
+                    case 1 -> readText(in);
+                    case 2 -> in.readDouble();
+                    case 3 -> in.readLong();
+                    default -> throw invalidCursor();
+                };
+                if (values[i] != null && !keys[i].valueType().isInstance(values[i])) {
+                    throw invalidCursor();
+                }
+            }
+            return new Position(values, row);
+        } catch (IOException e) {
+            throw invalidCursor();
+        }
+    }
+
+    /**
+     * Length-prefixed UTF-8, as {@code writeUTF} caps strings at 65,535
+     * encoded bytes and long text sort keys would fail to encode.
+     */
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw invalidCursor();
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static IllegalArgumentException invalidCursor() {
+        return new IllegalArgumentException("Invalid cursor");
+    }
+
+    /* ===================== SORT KEYS ===================== */
+
+    /**
+     * One sort column. Values exchanged with the cursor are {@code String},
+     * {@code Double} or {@code Long} (epoch millis) depending on the column.
+     */
+    private abstract static class SortKey {
+        final boolean descending;
+
+        SortKey(boolean descending) {
+            this.descending = descending;
+        }
+
+        static SortKey of(Column column, boolean descending) {
+            if (column instanceof DictionaryColumn dictionary) {
+                return new DictionaryKey(dictionary, descending);
+            }
+            if (column instanceof NumberColumn number) {
+                return new NumberKey(number, descending);
+            }
+            if (column instanceof DateTimeColumn dateTime) {
+                return new DateTimeKey(dateTime, descending);
+            }
+            return new StringKey(column, descending);
+        }
+
+        abstract boolean isNull(int row);
+
+        abstract int compareNonNull(int a, int b);
+
+        abstract int compareNonNullToValue(int row, Object value);
+
+        abstract Object valueOf(int row);
+
+        abstract Class<?> valueType();
+
+        final int compareRows(int a, int b) {
+            boolean aNull = isNull(a);
+            boolean bNull = isNull(b);
+            if (aNull || bNull) {
+                return Boolean.compare(aNull, bNull);
+            }
+            int result = compareNonNull(a, b);
+            return descending ? -result : result;
+        }
+
+        final int compareToValue(int row, Object value) {
+            boolean rowNull = isNull(row);
+            if (rowNull || value == null) {
+                return Boolean.compare(rowNull, value == null);
+            }
+            int result = compareNonNullToValue(row, value);
+            return descending ? -result : result;
+        }
+    }
+
+    private static final class DictionaryKey extends SortKey {
+        private final DictionaryColumn column;
+        private final int[] ranks;
+
+        DictionaryKey(DictionaryColumn column, boolean descending) {
+            super(descending);
+            this.column = column;
+            Integer[] order = new Integer[column.cardinality()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> STRING_ORDER.compare(column.valueOf(a), column.valueOf(b)));
+            this.ranks = new int[order.length];
+            for (int rank = 0; rank < order.length; rank++) {
+                ranks[order[rank]] = rank;
+            }
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return column.isNull(row);
+        }
+
+        @Override
+        int compareNonNull(int a, int b) {
+            return Integer.compare(ranks[column.code(a)], ranks[column.code(b)]);
+        }
+
+        @Override
+        int compareNonNullToValue(int row, Object value) {
+            return STRING_ORDER.compare(column.get(row), (String) value);
+        }
+
+        @Override
+        Object valueOf(int row) {
+            return column.get(row);
+        }
+
+        @Override
+        Class<?> valueType() {
+            return String.class;
+        }
+    }
+
+    private static final class StringKey extends SortKey {
+        private final Column column;
+
+        StringKey(Column column, boolean descending) {
+            super(descending);
+            this.column = column;
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return column.isNull(row);
+        }
+
+        @Override
+        int compareNonNull(int a, int b) {
+            return STRING_ORDER.compare((String) column.get(a), (String) column.get(b));
+        }
+
+        @Override
+        int compareNonNullToValue(int row, Object value) {
+            return STRING_ORDER.compare((String) column.get(row), (String) value);
+        }
+
+        @Override
+        Object valueOf(int row) {
+            return column.get(row);
+        }
+
+        @Override
+        Class<?> valueType() {
+            return String.class;
+        }
+    }
+
+    private static final class NumberKey extends SortKey {
+        private final NumberColumn column;
+
+        NumberKey(NumberColumn column, boolean descending) {
+            super(descending);
+            this.column = column;
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return column.isNull(row);
+        }
+
+        @Override
+        int compareNonNull(int a, int b) {
+            return Double.compare(column.getDouble(a), column.getDouble(b));
+        }
+
+        @Override
+        int compareNonNullToValue(int row, Object value) {
+            return Double.compare(column.getDouble(row), (Double) value);
+        }
+
+        @Override
+        Object valueOf(int row) {
+            return column.isNull(row) ? null : column.getDouble(row);
+        }
+
+        @Override
+        Class<?> valueType() {
+            return Double.class;
+        }
+    }
+
+    private static final class DateTimeKey extends SortKey {
+        private final DateTimeColumn column;
+
+        DateTimeKey(DateTimeColumn column, boolean descending) {
+            super(descending);
+            this.column = column;
+        }
+
+        private long instant(int row) {
+            return column.epochDay(row) * 86_400_000L + column.millisOfDay(row);
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return column.isNull(row);
+        }
+
+        @Override
+        int compareNonNull(int a, int b) {
+            return Long.compare(instant(a), instant(b));
+        }
+
+        @Override
+        int compareNonNullToValue(int row, Object value) {
+            return Long.compare(instant(row), (Long) value);
+        }
+
+        @Override
+        Object valueOf(int row) {
+            return column.isNull(row) ? null : instant(row);
+        }
+
+        @Override
+        Class<?> valueType() {
+            return Long.class;
+        }
+    }
+}
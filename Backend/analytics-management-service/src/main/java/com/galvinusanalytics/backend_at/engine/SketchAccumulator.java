@@ -0,0 +1,88 @@
+package com.galvinusanalytics.backend_at.engine;
+
+/**
+ * Running state of one sketch-based measure ({@link AggregateFunction#isSketch()})
+ * within a group: a {@link HyperLogLog} for APPROX_DISTINCT or a
+ * {@link TDigest} for the percentiles. Shared by the group-by and the time
+ * bucket aggregators.
+ */
+final class SketchAccumulator {
+
+    private final AggregateFunction function;
+    private HyperLogLog distinct;
+    private TDigest digest;
+
+    SketchAccumulator(AggregateFunction function) {
+        this.function = function;
+    }
+
+    static SketchAccumulator of(AggregateFunction function, HyperLogLog distinct, TDigest digest) {
+        SketchAccumulator accumulator = new SketchAccumulator(function);
+        accumulator.distinct = distinct != null ? distinct.copy() : null;
+        accumulator.digest = digest != null ? digest.copy() : null;
+        return accumulator;
+    }
+
+    SketchAccumulator copy() {
+        return of(function, distinct, digest);
+    }
+
+    /**
+     * Hash of every dictionary code of {@code column} so distinct counts
+     * don't rehash the same strings per row; null for other columns.
+     */
+    static long[] codeHashes(Column column) {
+        if (!(column instanceof DictionaryColumn dictionary)) {
+            return null;
+        }
+        long[] hashes = new long[dictionary.cardinality()];
+        for (int code = 0; code < hashes.length; code++) {
+            hashes[code] = HyperLogLog.hash(dictionary.valueOf(code));
+        }
+        return hashes;
+    }
+
+    /** Add a non-null value of {@code column}. */
+    void add(Column column, int row, long[] codeHashes) {
+        if (function == AggregateFunction.APPROX_DISTINCT) {
+            if (distinct == null) {
+                distinct = new HyperLogLog();
+            }
+            distinct.add(codeHashes != null
+                    ? codeHashes[((DictionaryColumn) column).code(row)]
+                    : HyperLogLog.hash(column.get(row)));
+        } else {
+            if (digest == null) {
+                digest = new TDigest();
+            }
+            digest.add(((NumberColumn) column).getDouble(row));
+        }
+    }
+
+    void merge(SketchAccumulator other) {
+        if (other == null) {
+            return;
+        }
+        if (other.distinct != null) {
+            if (distinct == null) {
+                distinct = new HyperLogLog();
+            }
+            distinct.merge(other.distinct);
+        }
+        if (other.digest != null) {
+            if (digest == null) {
+                digest = new TDigest();
+            }
+            digest.merge(other.digest);
+        }
+    }
+
+    Object value() {
+        if (function == AggregateFunction.APPROX_DISTINCT) {
+            return distinct != null ? distinct.estimate() : 0L;
+        }
+        return digest != null && !digest.isEmpty()
+                ? Math.round(digest.quantile(function.quantile()) * 100.0) / 100.0
+                : null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.galvinusanalytics.backend_at.engine;
+
+public enum SortDirection {
+    ASC, DESC;
+
+    public static SortDirection fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return ASC;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort direction: " + name);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.galvinusanalytics.backend_at.engine;
+
+/**
+ * High-cardinality string column (names, emails, ids).
+ */
+public final class StringColumn implements Column {
+
+    private final String[] values;
+
+    StringColumn(String[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public FieldType type() {
+        return FieldType.STRING;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return values[row] == null;
+    }
+
+    @Override
+    public String get(int row) {
+        return values[row];
+    }
+
+    @Override
+    public long estimatedBytes() {
+        long bytes = 16L + 8L * values.length;
+        for (String value : values) {
+            if (value != null) {
+                bytes += 40L + value.length();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,186 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch (merging t-digest). Values are buffered and
+ * periodically folded into at most a few hundred weighted centroids; a
+ * centroid near quantile q may hold about {@code 4 n q (1 - q) / COMPRESSION}
+ * values, so the tails stay exact longer than the middle. Digests of up to
+ * {@code COMPRESSION} values are exact.
+ */
+public final class TDigest {
+
+    public static final double COMPRESSION = 100;
+
+    private static final int BUFFER_MAX = (int) (5 * COMPRESSION);
+
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private int centroids;
+    private double[] buffer = new double[4];
+    private int buffered;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest copy() {
+        TDigest copy = new TDigest();
+        copy.means = Arrays.copyOf(means, centroids);
+        copy.weights = Arrays.copyOf(weights, centroids);
+        copy.centroids = centroids;
+        copy.buffer = Arrays.copyOf(buffer, Math.max(buffered, 4));
+        copy.buffered = buffered;
+        copy.totalWeight = totalWeight;
+        copy.min = min;
+        copy.max = max;
+        return copy;
+    }
+
+    public void add(double value) {
+        if (buffered == buffer.length) {
+            if (buffered >= BUFFER_MAX) {
+                compress();
+            } else {
+                buffer = Arrays.copyOf(buffer, Math.min(buffered * 2, BUFFER_MAX));
+            }
+        }
+        buffer[buffered++] = value;
+        totalWeight++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** Fold {@code other} in; {@code other} is not modified. */
+    public void merge(TDigest other) {
+        if (other.totalWeight == 0) {
+            return;
+        }
+        TDigest source = other.buffered == 0 ? other : other.copy();
+        source.compress();
+        compress();
+        double[] mergedMeans = new double[centroids + source.centroids];
+        double[] mergedWeights = new double[mergedMeans.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < centroids || j < source.centroids) {
+            if (j == source.centroids || (i < centroids && means[i] <= source.means[j])) {
+                mergedMeans[n] = means[i];
+                mergedWeights[n++] = weights[i++];
+            } else {
+                mergedMeans[n] = source.means[j];
+                mergedWeights[n++] = source.weights[j++];
+            }
+        }
+        totalWeight += source.totalWeight;
+        min = Math.min(min, source.min);
+        max = Math.max(max, source.max);
+        shrink(mergedMeans, mergedWeights, n);
+    }
+
+    public boolean isEmpty() {
+        return totalWeight == 0;
+    }
+
+    public long count() {
+        return (long) totalWeight;
+    }
+
+    /**
+     * Estimated value at quantile {@code q} in [0, 1], interpolating between
+     * centroid centres; NaN when empty.
+     */
+    public double quantile(double q) {
+        if (totalWeight == 0) {
+            return Double.NaN;
+        }
+        TDigest digest = buffered == 0 ? this : copy();
+        digest.compress();
+        return digest.interpolate(q);
+    }
+
+    /**
+     * Fold the buffer into the centroids. Digests held by a shared snapshot
+     * are compressed once up front so concurrent readers never write.
+     */
+    public void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        double[] mergedMeans = new double[centroids + buffered];
+        double[] mergedWeights = new double[mergedMeans.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < centroids || j < buffered) {
+            if (j == buffered || (i < centroids && means[i] <= buffer[j])) {
+                mergedMeans[n] = means[i];
+                mergedWeights[n++] = weights[i++];
+            } else {
+                mergedMeans[n] = buffer[j++];
+                mergedWeights[n++] = 1;
+            }
+        }
+        buffered = 0;
+        buffer = new double[4];
+        shrink(mergedMeans, mergedWeights, n);
+    }
+
+    /** Approximate heap footprint. */
+    public long estimatedBytes() {
+        return 64L + means.length * 16L + buffer.length * 8L;
+    }
+
+    /** Greedily merge neighbouring centroids of a sorted list while they stay within the size bound. */
+    private void shrink(double[] sortedMeans, double[] sortedWeights, int n) {
+        double[] newMeans = new double[n];
+        double[] newWeights = new double[n];
+        int count = 0;
+        double before = 0;
+        double mean = sortedMeans[0];
+        double weight = sortedWeights[0];
+        for (int k = 1; k < n; k++) {
+            double combined = weight + sortedWeights[k];
+            double q = (before + combined / 2) / totalWeight;
+            double limit = 4 * totalWeight * q * (1 - q) / COMPRESSION;
+            if (combined <= Math.max(1, limit)) {
+                mean += (sortedMeans[k] - mean) * sortedWeights[k] / combined;
+                weight = combined;
+            } else {
+                newMeans[count] = mean;
+                newWeights[count++] = weight;
+                before += weight;
+                mean = sortedMeans[k];
+                weight = sortedWeights[k];
+            }
+        }
+        newMeans[count] = mean;
+        newWeights[count++] = weight;
+        means = Arrays.copyOf(newMeans, count);
+        weights = Arrays.copyOf(newWeights, count);
+        centroids = count;
+    }
+
+    private double interpolate(double q) {
+        if (centroids == 1) {
+            return q <= 0 ? min : q >= 1 ? max : means[0];
+        }
+        double index = Math.min(Math.max(q, 0), 1) * totalWeight;
+        double firstHalf = weights[0] / 2;
+        if (index < firstHalf) {
+            return min + (means[0] - min) * index / firstHalf;
+        }
+        double cumulative = firstHalf;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step > index) {
+                return means[i] + (means[i + 1] - means[i]) * (index - cumulative) / step;
+            }
+            cumulative += step;
+        }
+        double lastHalf = weights[centroids - 1] / 2;
+        return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1, (index - cumulative) / lastHalf);
+    }
+}
@@ -0,0 +1,308 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.AggregationDTO;
+import com.galvinusanalytics.backend_at.dto.GroupResultDTO;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Groups records by calendar bucket (day, week, month, quarter or year) of a
+ * timestamp field. Buckets follow the requested time zone and every bucket
+ * between the first and the last one with data is returned, empty ones with
+ * zero counts, so date axes have no holes. Records without a timestamp form
+ * a trailing group with a null value. When that span is longer than
+ * {@link #MAX_FILLED_BUCKETS} periods, usually because of a stray date such
+ * as 0001-01-01, only the buckets with data are returned.
+ * <p>
+ * Results come either from a scan of the selected rows or, for unfiltered
+ * requests in the storage zone, from a module's {@link DayRollup} (COUNT,
+ * SUM, AVG) and {@link DaySketches} (distinct counts and percentiles, whose
+ * per-day sketches merge into each bucket). Both produce the same shape as
+ * {@link GroupAggregator}.
+ */
+@Component
+public class TimeBucketAggregator {
+
+    /** Longest span, in buckets, whose empty periods are filled in. */
+    public static final int MAX_FILLED_BUCKETS = 10_000;
+
+    /**
+     * Whether {@code aggregations} can be answered from {@code rollup} and
+     * {@code sketches} (may be null): COUNT, SUM or AVG of rolled-up numeric
+     * fields, and APPROX_DISTINCT or percentiles of sketched fields.
+     */
+    public static boolean supports(DayRollup rollup, DaySketches sketches, List<AggregationDTO> aggregations) {
+        if (aggregations == null) {
+            return true;
+        }
+        for (AggregationDTO aggregation : aggregations) {
+            AggregateFunction function = AggregateFunction.fromName(aggregation.getFunction());
+            String field = fieldOf(aggregation);
+            boolean supported = switch (function) {
+                case COUNT -> field == null || rollup.numericIndex(field) >= 0;
+                case SUM, AVG -> field != null && rollup.numericIndex(field) >= 0;
+                case MIN, MAX -> false;
+                case APPROX_DISTINCT -> field != null && sketches != null && sketches.distinctIndex(field) >= 0;
+                case MEDIAN, P90, P95, P99 -> field != null && sketches != null && sketches.quantileIndex(field) >= 0;
+            };
+            if (!supported) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bucket the selected rows of {@code table} by {@code field}.
+     *
+     * @param storageZone zone the stored timestamps are expressed in
+     * @param zone        zone whose calendar the buckets follow
+     */
+    public GroupAggregator.Result aggregate(ColumnarTable table, int[] rows, String field, TimeBucket bucket,
+                                            ZoneId storageZone, ZoneId zone, List<AggregationDTO> aggregations) {
+        Column column = table.require(field);
+        if (!(column instanceof DateTimeColumn dates)) {
+            throw new IllegalArgumentException("Time buckets require a date field, got: " + field);
+        }
+        List<Measure> measures = compileMeasures(aggregations, table, null, null);
+        boolean shift = !storageZone.equals(zone);
+
+        Map<Integer, Cell> byDay = new HashMap<>();
+        Cell undated = new Cell(measures.size());
+        int lastDay = DateTimeColumn.NULL_DAY;
+        Cell last = null;
+        for (int row : rows) {
+            int day = dates.epochDay(row);
+            Cell cell;
+            if (day == DateTimeColumn.NULL_DAY) {
+                cell = undated;
+            } else {
+                if (shift) {
+                    day = (int) dates.get(row).atZone(storageZone).withZoneSameInstant(zone).toLocalDate().toEpochDay();
+                }
+                if (day != lastDay || last == null) {
+                    last = byDay.computeIfAbsent(day, d -> new Cell(measures.size()));
+                    lastDay = day;
+                }
+                cell = last;
+            }
+            cell.add(row, measures);
+        }
+        return fold(field, bucket, byDay, undated, measures);
+    }
+
+    /**
+     * Bucket a whole module from its per-day rollup and sketches; see
+     * {@link #supports}. Only days within {@code from}..{@code to} (either
+     * may be null) are read; records without a timestamp always are, as the
+     * created-date filters let them through.
+     */
+    public GroupAggregator.Result aggregate(DayRollup rollup, DaySketches sketches, TimeBucket bucket,
+                                            List<AggregationDTO> aggregations, LocalDate from, LocalDate to) {
+        List<Measure> measures = compileMeasures(aggregations, null, rollup, sketches);
+        long fromDay = from != null ? from.toEpochDay() : Long.MIN_VALUE;
+        long toDay = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+        Map<Integer, Cell> byDay = new HashMap<>();
+        for (int index = 0; index < rollup.days(); index++) {
+            int day = rollup.day(index);
+            if (rollup.count(index) != 0 && day >= fromDay && day <= toDay) {
+                byDay.put(rollup.day(index), Cell.of(rollup, sketches, index, measures));
+            }
+        }
+        return fold(rollup.dateField(), bucket, byDay, Cell.of(rollup, sketches, -1, measures), measures);
+    }
+
+    private GroupAggregator.Result fold(String field, TimeBucket bucket, Map<Integer, Cell> byDay, Cell undated,
+                                        List<Measure> measures) {
+        TreeMap<LocalDate, Cell> buckets = new TreeMap<>();
+        byDay.forEach((day, cell) -> buckets
+                .computeIfAbsent(bucket.floor(LocalDate.ofEpochDay(day)), start -> new Cell(measures.size()))
+                .merge(cell));
+        if (!buckets.isEmpty() && spans(bucket, buckets.firstKey(), buckets.lastKey()) <= MAX_FILLED_BUCKETS) {
+            LocalDate end = buckets.lastKey();
+            for (LocalDate start = buckets.firstKey(); start.isBefore(end); start = bucket.next(start)) {
+                buckets.putIfAbsent(start, new Cell(measures.size()));
+            }
+        }
+
+        Cell totals = new Cell(measures.size());
+        List<GroupResultDTO> groups = new ArrayList<>(buckets.size() + 1);
+        buckets.forEach((start, cell) -> {
+            groups.add(new GroupResultDTO(field, start.toString(), cell.count, cell.aggregates(measures), new ArrayList<>()));
+            totals.merge(cell);
+        });
+        if (undated.count > 0) {
+            groups.add(new GroupResultDTO(field, null, undated.count, undated.aggregates(measures), new ArrayList<>()));
+            totals.merge(undated);
+        }
+        return new GroupAggregator.Result(groups, totals.aggregates(measures));
+    }
+
+    /**
+     * Number of buckets from {@code first} to {@code last} inclusive, counted
+     * no further than one past {@link #MAX_FILLED_BUCKETS}.
+     */
+    private static int spans(TimeBucket bucket, LocalDate first, LocalDate last) {
+        int count = 1;
+        for (LocalDate start = first; start.isBefore(last) && count <= MAX_FILLED_BUCKETS; start = bucket.next(start)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String fieldOf(AggregationDTO aggregation) {
+        return aggregation.getField() != null && !aggregation.getField().isBlank() ? aggregation.getField() : null;
+    }
+
+    private static List<Measure> compileMeasures(List<AggregationDTO> aggregations, ColumnarTable table,
+                                                 DayRollup rollup, DaySketches sketches) {
+        List<Measure> measures = new ArrayList<>();
+        if (aggregations == null || aggregations.isEmpty()) {
+            measures.add(new Measure("COUNT", AggregateFunction.COUNT, null, -1, -1, null));
+            return measures;
+        }
+        for (AggregationDTO aggregation : aggregations) {
+            AggregateFunction function = AggregateFunction.fromName(aggregation.getFunction());
+            String field = fieldOf(aggregation);
+            Column column = table != null && field != null ? table.require(field) : null;
+            if (table != null && function.requiresNumeric() && (column == null || column.type() != FieldType.NUMBER)) {
+                throw new IllegalArgumentException(function + " requires a numeric field, got: " + aggregation.getField());
+            }
+            if (table != null && function == AggregateFunction.APPROX_DISTINCT && column == null) {
+                throw new IllegalArgumentException(function + " requires a field");
+            }
+            int rollupIndex = rollup != null && field != null ? rollup.numericIndex(field) : -1;
+            int sketchIndex = sketches == null || field == null ? -1
+                    : function == AggregateFunction.APPROX_DISTINCT ? sketches.distinctIndex(field)
+                    : sketches.quantileIndex(field);
+            long[] codeHashes = function == AggregateFunction.APPROX_DISTINCT && column != null
+                    ? SketchAccumulator.codeHashes(column) : null;
+            measures.add(new Measure(GroupAggregator.label(function, field), function, column, rollupIndex,
+                    sketchIndex, codeHashes));
+        }
+        return measures;
+    }
+
+    /**
+     * @param sketchIndex field index in the {@link DaySketches}, -1 when scanning
+     * @param codeHashes  value hashes by dictionary code for APPROX_DISTINCT scans, else null
+     */
+    private record Measure(String label, AggregateFunction function, Column column, int rollupIndex,
+                           int sketchIndex, long[] codeHashes) {
+
+        boolean counted() {
+            return column != null || rollupIndex >= 0;
+        }
+    }
+
+    private static final class Cell {
+        private long count;
+        private final long[] nonNull;
+        private final double[] sum;
+        private final double[] min;
+        private final double[] max;
+        private final SketchAccumulator[] sketches;
+
+        Cell(int measureCount) {
+            nonNull = new long[measureCount];
+            sum = new double[measureCount];
+            min = new double[measureCount];
+            max = new double[measureCount];
+            sketches = new SketchAccumulator[measureCount];
+        }
+
+        static Cell of(DayRollup rollup, DaySketches daySketches, int index, List<Measure> measures) {
+            Cell cell = new Cell(measures.size());
+            cell.count = rollup.count(index);
+            int day = index >= 0 ? rollup.day(index) : DateTimeColumn.NULL_DAY;
+            for (int i = 0; i < measures.size(); i++) {
+                Measure measure = measures.get(i);
+                int field = measure.rollupIndex();
+                if (measure.function().isSketch()) {
+                    boolean distinct = measure.function() == AggregateFunction.APPROX_DISTINCT;
+                    cell.sketches[i] = SketchAccumulator.of(measure.function(),
+                            distinct ? daySketches.distinct(measure.sketchIndex(), day) : null,
+                            distinct ? null : daySketches.quantiles(measure.sketchIndex(), day));
+                } else if (field >= 0) {
+                    cell.nonNull[i] = rollup.nonNull(field, index);
+                    cell.sum[i] = rollup.sum(field, index);
+                }
+            }
+            return cell;
+        }
+
+        void add(int row, List<Measure> measures) {
+            count++;
+            for (int i = 0; i < measures.size(); i++) {
+                Column column = measures.get(i).column();
+                if (column == null || column.isNull(row)) {
+                    continue;
+                }
+                Measure measure = measures.get(i);
+                if (measure.function().isSketch()) {
+                    if (sketches[i] == null) {
+                        sketches[i] = new SketchAccumulator(measure.function());
+                    }
+                    sketches[i].add(column, row, measure.codeHashes());
+                } else if (column instanceof NumberColumn numbers) {
+                    double d = numbers.getDouble(row);
+                    min[i] = nonNull[i] == 0 ? d : Math.min(min[i], d);
+                    max[i] = nonNull[i] == 0 ? d : Math.max(max[i], d);
+                    sum[i] += d;
+                }
+                nonNull[i]++;
+            }
+        }
+
+        void merge(Cell other) {
+            count += other.count;
+            for (int i = 0; i < nonNull.length; i++) {
+                if (other.sketches[i] != null) {
+                    if (sketches[i] == null) {
+                        sketches[i] = other.sketches[i].copy();
+                    } else {
+                        sketches[i].merge(other.sketches[i]);
+                    }
+                }
+                if (other.nonNull[i] == 0) {
+                    continue;
+                }
+                min[i] = nonNull[i] == 0 ? other.min[i] : Math.min(min[i], other.min[i]);
+                max[i] = nonNull[i] == 0 ? other.max[i] : Math.max(max[i], other.max[i]);
+                sum[i] += other.sum[i];
+                nonNull[i] += other.nonNull[i];
+            }
+        }
+
+        Map<String, Object> aggregates(List<Measure> measures) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (int i = 0; i < measures.size(); i++) {
+                Measure measure = measures.get(i);
+                boolean empty = nonNull[i] == 0;
+                Object value = switch (measure.function()) {
+                    case COUNT -> measure.counted() ? nonNull[i] : count;
+                    case SUM -> round(sum[i]);
+                    case AVG -> empty ? null : round(sum[i] / nonNull[i]);
+                    case MIN -> empty ? null : min[i];
+                    case MAX -> empty ? null : max[i];
+                    case APPROX_DISTINCT, MEDIAN, P90, P95, P99 -> (sketches[i] != null
+                            ? sketches[i] : new SketchAccumulator(measure.function())).value();
+                };
+                result.put(measure.label(), value);
+            }
+            return result;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+}
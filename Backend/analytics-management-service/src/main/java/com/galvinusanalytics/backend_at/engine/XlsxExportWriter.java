@@ -0,0 +1,180 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Single-sheet Office Open XML workbook written straight into a zip stream.
+ * <p>
+ * The fixed package parts go out first and the sheet XML is streamed as its
+ * last entry, so nothing but the deflater window and a write buffer is held
+ * however many rows follow. Strings are stored inline rather than in a shared
+ * string table, which would have to be kept in memory until the end; dates
+ * become Excel serial numbers with a date-time format.
+ */
+final class XlsxExportWriter implements ExportWriter {
+
+    /** Row limit of an Excel worksheet. */
+    static final int MAX_ROWS = 1_048_576;
+
+    private static final long EXCEL_EPOCH_DAY = LocalDate.of(1899, 12, 30).toEpochDay();
+    private static final double NANOS_PER_DAY = 86_400_000_000_000d;
+
+    private static final String CONTENT_TYPES = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+            <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+            <Default Extension="xml" ContentType="application/xml"/>\
+            <Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>\
+            <Override PartName="/xl/styles.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml"/>\
+            <Override PartName="/xl/worksheets/sheet1.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>\
+            </Types>""";
+
+    private static final String ROOT_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="xl/workbook.xml"/>\
+            </Relationships>""";
+
+    private static final String WORKBOOK = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" \
+            xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">\
+            <sheets><sheet name="Report" sheetId="1" r:id="rId1"/></sheets>\
+            </workbook>""";
+
+    private static final String WORKBOOK_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" Target="worksheets/sheet1.xml"/>\
+            <Relationship Id="rId2" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles" Target="styles.xml"/>\
+            </Relationships>""";
+
+    // Style 0 is the default, 1 the header (bold), 2 a date-time cell
+    private static final String STYLES = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <styleSheet xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main">\
+            <numFmts count="1"><numFmt numFmtId="164" formatCode="yyyy-mm-dd hh:mm:ss"/></numFmts>\
+            <fonts count="2"><font><sz val="11"/><name val="Calibri"/></font><font><b/><sz val="11"/><name val="Calibri"/></font></fonts>\
+            <fills count="2"><fill><patternFill patternType="none"/></fill><fill><patternFill patternType="gray125"/></fill></fills>\
+            <borders count="1"><border><left/><right/><top/><bottom/><diagonal/></border></borders>\
+            <cellStyleXfs count="1"><xf numFmtId="0" fontId="0" fillId="0" borderId="0"/></cellStyleXfs>\
+            <cellXfs count="3"><xf numFmtId="0" fontId="0" fillId="0" borderId="0" xfId="0"/>\
+            <xf numFmtId="0" fontId="1" fillId="0" borderId="0" xfId="0" applyFont="1"/>\
+            <xf numFmtId="164" fontId="0" fillId="0" borderId="0" xfId="0" applyNumberFormat="1"/></cellXfs>\
+            </styleSheet>""";
+
+    private final ZipOutputStream zip;
+    private final Writer sheet;
+    private int style;
+
+    XlsxExportWriter(OutputStream out) throws IOException {
+        zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        part("[Content_Types].xml", CONTENT_TYPES);
+        part("_rels/.rels", ROOT_RELS);
+        part("xl/workbook.xml", WORKBOOK);
+        part("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+        part("xl/styles.xml", STYLES);
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        sheet = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        sheet.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<sheetViews><sheetView workbookViewId=\"0\"><pane ySplit=\"1\" topLeftCell=\"A2\" state=\"frozen\"/>"
+                + "</sheetView></sheetViews><sheetData>");
+    }
+
+    @Override
+    public void header(List<String> names) throws IOException {
+        style = 1;
+        startRow();
+        for (String name : names) {
+            value(name);
+        }
+        endRow();
+        style = 0;
+    }
+
+    @Override
+    public void startRow() throws IOException {
+        sheet.write("<row>");
+    }
+
+    @Override
+    public void value(Object value) throws IOException {
+        if (value == null) {
+            sheet.write("<c/>");
+        } else if (value instanceof Double d && (d.isNaN() || d.isInfinite())) {
+            inlineString(d.toString());
+        } else if (value instanceof Number) {
+            sheet.write(style == 0 ? "<c><v>" : "<c s=\"" + style + "\"><v>");
+            sheet.write(value.toString());
+            sheet.write("</v></c>");
+        } else if (value instanceof LocalDateTime dateTime) {
+            double serial = dateTime.toLocalDate().toEpochDay() - EXCEL_EPOCH_DAY
+                    + dateTime.toLocalTime().toNanoOfDay() / NANOS_PER_DAY;
+            sheet.write("<c s=\"2\"><v>");
+            sheet.write(Double.toString(serial));
+            sheet.write("</v></c>");
+        } else if (value instanceof Boolean b) {
+            sheet.write(b ? "<c t=\"b\"><v>1</v></c>" : "<c t=\"b\"><v>0</v></c>");
+        } else {
+            inlineString(value.toString());
+        }
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        sheet.write("</row>");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        sheet.flush();
+        zip.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sheet.write("</sheetData></worksheet>");
+        sheet.flush();
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private void part(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private void inlineString(String text) throws IOException {
+        sheet.write(style == 0 ? "<c t=\"inlineStr\"><is><t xml:space=\"preserve\">"
+                : "<c s=\"" + style + "\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> sheet.write("&lt;");
+                case '>' -> sheet.write("&gt;");
+                case '&' -> sheet.write("&amp;");
+                case '"' -> sheet.write("&quot;");
+                default -> {
+                    // Control characters other than tab and line breaks are not valid XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        sheet.write(c);
+                    }
+                }
+            }
+        }
+        sheet.write("</t></is></c>");
+    }
+}
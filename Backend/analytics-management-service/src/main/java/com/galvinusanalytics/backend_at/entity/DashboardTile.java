@@ -35,6 +35,9 @@ public class DashboardTile {
     @Column(name = "x_axis")
     private String xAxis;
     
+    @Column(name = "aggregation", length = 30)
+    private String aggregation; // COUNT/SUM (default), APPROX_DISTINCT, MEDIAN, P90, P95, P99
+    
     @Column(name = "x_range_mode", length = 20)
     private String xRangeMode; // automatic, custom
     
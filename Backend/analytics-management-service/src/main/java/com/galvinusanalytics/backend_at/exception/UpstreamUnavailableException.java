@@ -0,0 +1,17 @@
+package com.galvinusanalytics.backend_at.exception;
+
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+    
+    private final String upstream;
+    
+    public UpstreamUnavailableException(String upstream, String message) {
+        super(message);
+        this.upstream = upstream;
+    }
+    
+    public String getUpstream() {
+        return upstream;
+    }
+}
@@ -2,9 +2,12 @@ package com.galvinusanalytics.backend_at.repository;
 
 import com.galvinusanalytics.backend_at.entity.Report;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -17,6 +20,15 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     @Query("SELECT r FROM Report r WHERE r.userId = :userId AND r.isFavourite = true ORDER BY r.createdAt DESC")
     List<Report> findFavouriteReportsByUserId(@Param("userId") String userId);
     
+    // Find favorite reports of all users
+    List<Report> findByIsFavouriteTrue();
+    
+    // Record a run without touching updatedAt; never moves lastRunAt backwards
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.lastRunAt = :runAt WHERE r.id = :reportId AND (r.lastRunAt IS NULL OR r.lastRunAt < :runAt)")
+    int updateLastRunAt(@Param("reportId") Long reportId, @Param("runAt") LocalDateTime runAt);
+    
     // Find reports by folder ID
     List<Report> findByFolderIdOrderByCreatedAtDesc(Long folderId);
     
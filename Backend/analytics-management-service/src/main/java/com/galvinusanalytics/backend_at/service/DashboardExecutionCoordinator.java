@@ -0,0 +1,119 @@
+package com.galvinusanalytics.backend_at.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the tile queries of one dashboard concurrently on virtual threads.
+ * <p>
+ * All tasks share one deadline, so a dashboard takes as long as its slowest
+ * tile (capped by the deadline) rather than the sum of its tiles. Each
+ * upstream service gets a fixed number of in-flight calls across all
+ * dashboards; a tile that cannot get a permit before the deadline times out
+ * instead of piling more load on a slow upstream.
+ */
+@Slf4j
+@Component
+public class DashboardExecutionCoordinator {
+
+    public enum Status { OK, ERROR, TIMEOUT }
+
+    public record Task<R>(String upstream, Callable<R> work) {
+    }
+
+    public record Outcome<R>(R value, Status status, String error, long durationMs) {
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Semaphore> upstreamPermits = new ConcurrentHashMap<>();
+
+    @Value("${dashboard.render.deadline-ms:10000}")
+    private long deadlineMs;
+
+    @Value("${dashboard.render.upstream-concurrency:4}")
+    private int upstreamConcurrency;
+
+    /**
+     * Run all tasks and wait until they finish or the deadline passes.
+     * Outcomes are returned in task order; unfinished tasks are cancelled
+     * and reported as {@link Status#TIMEOUT}.
+     */
+    public <R> List<Outcome<R>> runAll(List<Task<R>> tasks) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        List<Future<Outcome<R>>> futures = new ArrayList<>(tasks.size());
+        for (Task<R> task : tasks) {
+            futures.add(executor.submit(() -> runWithPermit(task, deadline)));
+        }
+
+        List<Outcome<R>> outcomes = new ArrayList<>(tasks.size());
+        for (Future<Outcome<R>> future : futures) {
+            long remaining = deadline - System.nanoTime();
+            try {
+                outcomes.add(future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                outcomes.add(new Outcome<>(null, Status.TIMEOUT, "Timed out after " + deadlineMs + " ms",
+                        elapsedMs(start)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Dashboard rendering interrupted");
+            } catch (ExecutionException e) {
+                outcomes.add(new Outcome<>(null, Status.ERROR, e.getCause().getMessage(), elapsedMs(start)));
+            }
+        }
+
+        log.debug("Ran {} dashboard tasks in {} ms", tasks.size(), elapsedMs(start));
+        return outcomes;
+    }
+
+    private <R> Outcome<R> runWithPermit(Task<R> task, long deadline) {
+        long start = System.nanoTime();
+        Semaphore permits = upstreamPermits.computeIfAbsent(task.upstream(),
+                key -> new Semaphore(upstreamConcurrency, true));
+        try {
+            if (!permits.tryAcquire(deadline - start, TimeUnit.NANOSECONDS)) {
+                return new Outcome<>(null, Status.TIMEOUT,
+                        "No capacity on upstream '" + task.upstream() + "' before the deadline", elapsedMs(start));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Outcome<>(null, Status.TIMEOUT, "Cancelled", elapsedMs(start));
+        }
+
+        try {
+            return new Outcome<>(task.work().call(), Status.OK, null, elapsedMs(start));
+        } catch (Exception e) {
+            log.warn("Dashboard task on upstream '{}' failed: {}", task.upstream(), e.getMessage());
+            return new Outcome<>(null, Status.ERROR, e.getMessage(), elapsedMs(start));
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
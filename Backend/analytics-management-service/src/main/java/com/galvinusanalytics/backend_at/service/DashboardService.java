@@ -1,7 +1,21 @@
 package com.galvinusanalytics.backend_at.service;
 
+import com.galvinusanalytics.backend_at.dto.AggregationDTO;
 import com.galvinusanalytics.backend_at.dto.DashboardDTO;
+import com.galvinusanalytics.backend_at.dto.DashboardRenderDTO;
 import com.galvinusanalytics.backend_at.dto.DashboardTileDTO;
+import com.galvinusanalytics.backend_at.dto.ReportExecutionDTO;
+import com.galvinusanalytics.backend_at.dto.ReportResultDTO;
+import com.galvinusanalytics.backend_at.dto.TileRenderDTO;
+import com.galvinusanalytics.backend_at.engine.AggregateFunction;
+import com.galvinusanalytics.backend_at.engine.ChartSeriesBuilder;
+import com.galvinusanalytics.backend_at.engine.FieldAccessor;
+import com.galvinusanalytics.backend_at.engine.FieldType;
+import com.galvinusanalytics.backend_at.engine.GroupAggregator;
+import com.galvinusanalytics.backend_at.engine.ModuleFieldRegistry;
+import com.galvinusanalytics.backend_at.engine.ModuleFields;
+import com.galvinusanalytics.backend_at.engine.ReportModule;
+import com.galvinusanalytics.backend_at.engine.TimeBucket;
 import com.galvinusanalytics.backend_at.entity.Dashboard;
 import com.galvinusanalytics.backend_at.entity.DashboardTile;
 import com.galvinusanalytics.backend_at.entity.Folder;
@@ -14,8 +28,11 @@ import com.galvinusanalytics.backend_at.repository.ReportRepository;
 import com.galvinusanalytics.backend_at.validator.DashboardValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -30,6 +47,13 @@ public class DashboardService {
     private final DashboardValidator dashboardValidator;
     private final FolderRepository folderRepository;
     private final ReportRepository reportRepository;
+    private final ReportDefinitionMapper reportDefinitionMapper;
+    private final ReportExecutionService reportExecutionService;
+    private final ChartSeriesBuilder chartSeriesBuilder;
+    private final DashboardExecutionCoordinator dashboardExecutionCoordinator;
+
+    @Value("${dashboard.render.max-points:50}")
+    private int maxPoints;
     
     @Transactional
     public DashboardDTO createDashboard(DashboardDTO dashboardDTO, String userId) {
@@ -64,6 +88,7 @@ public class DashboardService {
                 tile.setChartType(tileDTO.getChartType());
                 tile.setYAxis(tileDTO.getYAxis());
                 tile.setXAxis(tileDTO.getXAxis());
+                tile.setAggregation(tileDTO.getAggregation());
                 tile.setXRangeMode(tileDTO.getXRangeMode());
                 tile.setXMin(tileDTO.getXMin());
                 tile.setXMax(tileDTO.getXMax());
@@ -187,6 +212,7 @@ public class DashboardService {
                 tile.setChartType(tileDTO.getChartType());
                 tile.setYAxis(tileDTO.getYAxis());
                 tile.setXAxis(tileDTO.getXAxis());
+                tile.setAggregation(tileDTO.getAggregation());
                 tile.setXRangeMode(tileDTO.getXRangeMode());
                 tile.setXMin(tileDTO.getXMin());
                 tile.setXMax(tileDTO.getXMax());
@@ -255,6 +281,166 @@ public class DashboardService {
         dashboardRepository.delete(dashboard);
     }
     
+    /**
+     * Run every tile's report and reduce it to the chart series the tile plots.
+     * Tiles run concurrently through {@link DashboardExecutionCoordinator}; a
+     * slow or failing tile is reported in its own status instead of failing
+     * the dashboard. Not transactional: tiles call out to the module services
+     * and should not hold a database connection meanwhile.
+     */
+    public DashboardRenderDTO renderDashboard(Long dashboardId, String userId) {
+        List<String> errors = dashboardValidator.validateDashboardId(dashboardId);
+        if (dashboardValidator.hasErrors(errors)) {
+            throw new ValidationException("Dashboard ID validation failed", errors);
+        }
+        
+        Dashboard dashboard = dashboardRepository.findById(dashboardId)
+                .orElseThrow(() -> new IllegalArgumentException("Dashboard not found"));
+        
+        if (!dashboard.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Unauthorized");
+        }
+        
+        // Resolve reports up front so the database is only touched from this thread
+        List<PreparedTile> prepared = dashboardTileRepository.findByDashboardIdOrderByTileOrder(dashboardId)
+                .stream()
+                .map(this::prepareTile)
+                .collect(Collectors.toList());
+        
+        List<PreparedTile> runnable = prepared.stream()
+                .filter(tile -> tile.executionDTO() != null)
+                .collect(Collectors.toList());
+        List<DashboardExecutionCoordinator.Task<ReportResultDTO>> tasks = runnable.stream()
+                .map(tile -> new DashboardExecutionCoordinator.Task<>(tile.module().getUpstream(),
+                        () -> reportExecutionService.executeReport(tile.executionDTO(), userId)))
+                .collect(Collectors.toList());
+        List<DashboardExecutionCoordinator.Outcome<ReportResultDTO>> outcomes = dashboardExecutionCoordinator.runAll(tasks);
+        
+        for (int i = 0; i < runnable.size(); i++) {
+            completeTile(runnable.get(i), outcomes.get(i));
+        }
+        
+        List<TileRenderDTO> tiles = prepared.stream().map(PreparedTile::dto).collect(Collectors.toList());
+        boolean partial = tiles.stream().anyMatch(tile -> !DashboardExecutionCoordinator.Status.OK.name().equals(tile.getStatus()));
+        return new DashboardRenderDTO(dashboard.getId(), dashboard.getName(), tiles, partial,
+                LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+    }
+    
+    /**
+     * Execution requests of a dashboard's tiles, as {@link #renderDashboard}
+     * runs them. Tiles that cannot be rendered are left out.
+     */
+    public List<ReportExecutionDTO> tileExecutions(Long dashboardId) {
+        return dashboardTileRepository.findByDashboardIdOrderByTileOrder(dashboardId)
+                .stream()
+                .map(this::prepareTile)
+                .map(PreparedTile::executionDTO)
+                .filter(executionDTO -> executionDTO != null)
+                .collect(Collectors.toList());
+    }
+    
+    private record PreparedTile(TileRenderDTO dto, ReportModule module, ReportExecutionDTO executionDTO,
+                                FieldType xType, String measureLabel, boolean additive,
+                                ChartSeriesBuilder.Range range) {
+    }
+    
+    private PreparedTile prepareTile(DashboardTile tile) {
+        TileRenderDTO dto = new TileRenderDTO();
+        dto.setTileId(tile.getId());
+        dto.setReportId(tile.getReportId());
+        dto.setTileOrder(tile.getTileOrder());
+        dto.setChartType(tile.getChartType());
+        dto.setXAxis(tile.getXAxis());
+        dto.setYAxis(tile.getYAxis());
+        dto.setSeries(new ArrayList<>());
+        
+        try {
+            if (tile.getReportId() == null) {
+                throw new IllegalArgumentException("Tile has no report");
+            }
+            Report report = reportRepository.findById(tile.getReportId())
+                    .orElseThrow(() -> new IllegalArgumentException("Report not found"));
+            dto.setReportName(report.getReportName());
+            
+            if (tile.getXAxis() == null || tile.getXAxis().isBlank()) {
+                throw new IllegalArgumentException("Tile has no X-axis field");
+            }
+            ReportModule module = ReportModule.fromName(report.getModule());
+            ModuleFields<?> fields = ModuleFieldRegistry.forModule(module);
+            FieldAccessor<?> xField = fields.require(tile.getXAxis());
+            AggregationDTO measure = tileMeasure(fields, tile.getYAxis(), tile.getAggregation());
+            AggregateFunction function = AggregateFunction.fromName(measure.getFunction());
+            
+            ReportExecutionDTO executionDTO = reportDefinitionMapper.toExecutionDTO(report);
+            executionDTO.setGroups(List.of(xField.name()));
+            if (xField.type() == FieldType.DATE_TIME) {
+                // Per-day buckets, which the chart builder rolls up further if needed. Sketch
+                // measures can't be summed into months there, so they are bucketed by month here.
+                executionDTO.setTimeBucket(function.isAdditive() ? TimeBucket.DAY.name() : TimeBucket.MONTH.name());
+            }
+            executionDTO.setAggregations(List.of(measure));
+            executionDTO.setIncludeRows(false);
+            
+            String measureLabel = GroupAggregator.label(function, measure.getField());
+            return new PreparedTile(dto, module, executionDTO, xField.type(), measureLabel, function.isAdditive(),
+                    new ChartSeriesBuilder.Range(tile.getXRangeMode(), tile.getXMin(), tile.getXMax()));
+        } catch (Exception e) {
+            log.warn("Cannot render tile {} of dashboard {}: {}", tile.getId(), tile.getDashboardId(), e.getMessage());
+            dto.setStatus(DashboardExecutionCoordinator.Status.ERROR.name());
+            dto.setError(e.getMessage());
+            return new PreparedTile(dto, null, null, null, null, true, null);
+        }
+    }
+    
+    private void completeTile(PreparedTile tile, DashboardExecutionCoordinator.Outcome<ReportResultDTO> outcome) {
+        TileRenderDTO dto = tile.dto();
+        dto.setStatus(outcome.status().name());
+        dto.setDurationMs(outcome.durationMs());
+        if (outcome.status() != DashboardExecutionCoordinator.Status.OK) {
+            dto.setError(outcome.error());
+            return;
+        }
+        try {
+            ReportResultDTO result = outcome.value();
+            dto.setSeries(chartSeriesBuilder.build(result.getGroups(), tile.measureLabel(), tile.xType(),
+                    tile.range(), maxPoints, tile.additive()));
+            dto.setTotalRecords(result.getTotalRecords());
+        } catch (Exception e) {
+            log.warn("Failed to build series for tile {}: {}", dto.getTileId(), e.getMessage());
+            dto.setStatus(DashboardExecutionCoordinator.Status.ERROR.name());
+            dto.setError(e.getMessage());
+        }
+    }
+    
+    /**
+     * Tiles plot the record count unless a numeric Y-axis field is chosen, in
+     * which case they plot its sum (same as the chart builder on the client).
+     * A tile aggregation other than COUNT/SUM plots that function of the
+     * Y-axis field instead: an approximate distinct count of any field, or a
+     * percentile of a numeric one.
+     */
+    private AggregationDTO tileMeasure(ModuleFields<?> fields, String yAxis, String aggregation) {
+        AggregateFunction function = aggregation != null && !aggregation.isBlank()
+                ? AggregateFunction.fromName(aggregation) : null;
+        if (function != null && function.isSketch()) {
+            FieldAccessor<?> yField = yAxis != null ? fields.get(yAxis) : null;
+            if (yField == null) {
+                throw new IllegalArgumentException(function + " needs a Y-axis field, got: " + yAxis);
+            }
+            if (function.requiresNumeric() && !yField.isNumeric()) {
+                throw new IllegalArgumentException(function + " requires a numeric Y-axis field, got: " + yAxis);
+            }
+            return new AggregationDTO(yField.name(), function.name());
+        }
+        if (yAxis != null && !yAxis.isBlank() && !"Count (default)".equals(yAxis)) {
+            FieldAccessor<?> yField = fields.get(yAxis);
+            if (yField != null && yField.isNumeric()) {
+                return new AggregationDTO(yField.name(), AggregateFunction.SUM.name());
+            }
+        }
+        return new AggregationDTO(null, AggregateFunction.COUNT.name());
+    }
+    
     private DashboardDTO convertToDTO(Dashboard dashboard) {
         DashboardDTO dto = new DashboardDTO();
         dto.setId(dashboard.getId());
@@ -311,6 +497,7 @@ public class DashboardService {
         dto.setChartType(tile.getChartType());
         dto.setYAxis(tile.getYAxis());
         dto.setXAxis(tile.getXAxis());
+        dto.setAggregation(tile.getAggregation());
         dto.setXRangeMode(tile.getXRangeMode());
         dto.setXMin(tile.getXMin());
         dto.setXMax(tile.getXMax());
@@ -0,0 +1,36 @@
+package com.galvinusanalytics.backend_at.service;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Progress callbacks of one report execution. {@link ReportExecutionService}
+ * reports each phase and calls {@link #checkCancelled()} between phases and
+ * periodically while projecting rows, so long executions can be stopped.
+ */
+public interface ExecutionProgress {
+
+    ExecutionProgress NONE = new ExecutionProgress() {
+    };
+
+    /** Module records loaded before filtering. */
+    default void fetched(long rows) {
+    }
+
+    /** Records left after filtering. */
+    default void filtered(long rows) {
+    }
+
+    /** Additional result rows materialized. */
+    default void projected(long rows) {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Report execution cancelled");
+        }
+    }
+}
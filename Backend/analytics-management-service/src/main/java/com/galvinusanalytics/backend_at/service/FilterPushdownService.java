@@ -0,0 +1,58 @@
+package com.galvinusanalytics.backend_at.service;
+
+import com.galvinusanalytics.backend_at.client.UpstreamQuery;
+import com.galvinusanalytics.backend_at.engine.FilterPlan;
+import com.galvinusanalytics.backend_at.engine.ReportModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Translates a compiled {@link FilterPlan} into query parameters that each
+ * upstream module service understands. Only predicates an upstream enforces
+ * with the same semantics as the in-memory plan are pushed; the rest remain in
+ * {@code plan.without(query.getPushedFilters())}.
+ */
+@Slf4j
+@Component
+public class FilterPushdownService {
+
+    private static final Set<String> LEAD_EQUALITY_PARAMS = Set.of("leadStatus", "leadSource");
+
+    public UpstreamQuery forPlan(FilterPlan plan) {
+        UpstreamQuery query = new UpstreamQuery();
+        ReportModule module = plan.getModule();
+        for (FilterPlan.Predicate predicate : plan.predicates()) {
+            switch (predicate) {
+                // Every module service supports createdFrom/createdTo as inclusive days
+                // of createdAt in the wall time it reports (UTC for leads and sales, the
+                // account host's zone for accounts and contacts), which is how DayRange
+                // reads them, and like DayRange keeps records without a created date.
+                case FilterPlan.DayRange range -> pushDayRange(query, range);
+                // Only the lead service filters on leadStatus/leadSource.
+                case FilterPlan.EqualsIgnoreCase equality when module == ReportModule.LEAD
+                        && LEAD_EQUALITY_PARAMS.contains(equality.filterKey()) ->
+                        query.push(equality.filterKey(), equality.filterKey(), equality.value());
+                // "show=MY" stays in memory for leads: the lead service filters on
+                // leadOwnerId, while the report compares against the leadOwner field.
+                case FilterPlan.OwnerEquals owner when module == ReportModule.ACCOUNT ->
+                        query.push(FilterPlan.SHOW, "ownerId", owner.userId());
+                default -> {
+                }
+            }
+        }
+
+        log.debug("{} pushdown: {}", module.getLabel(), query);
+        return query;
+    }
+
+    private void pushDayRange(UpstreamQuery query, FilterPlan.DayRange range) {
+        if (range.from() != null) {
+            query.push(FilterPlan.CREATED_FROM, "createdFrom", range.from().toString());
+        }
+        if (range.to() != null) {
+            query.push(FilterPlan.CREATED_TO, "createdTo", range.to().toString());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.galvinusanalytics.backend_at.service;
+
+import com.galvinusanalytics.backend_at.dto.ReportResultDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Results written by {@link ReportMaterializationService}, keyed by execution
+ * fingerprint. Unlike {@link ReportResultCache} entries are only replaced by
+ * the next materialization round, so they are kept for
+ * {@code analytics.materialize.max-age-seconds}, which should cover a few
+ * rounds. Results older than the caller's freshness bound are served as stale
+ * copies. Results are shared between callers and must not be modified.
+ */
+@Component
+public class MaterializedResultStore {
+
+    private record Entry(Long reportId, ReportResultDTO result, Instant materializedAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${analytics.materialize.max-age-seconds:900}")
+    private long maxAgeSeconds;
+
+    /**
+     * The materialized result for a fingerprint, null if there is none or it
+     * is older than the maximum age. Once older than {@code freshSeconds} it
+     * is returned flagged {@code stale} with its {@code dataAsOf}.
+     */
+    public ReportResultDTO get(String key, long freshSeconds) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        Instant now = Instant.now();
+        if (isExpired(entry, now)) {
+            entries.remove(key, entry);
+            return null;
+        }
+        if (entry.materializedAt().plusSeconds(freshSeconds).isBefore(now)) {
+            return ReportResultCache.staleCopy(entry.result());
+        }
+        return entry.result();
+    }
+
+    public void put(String key, Long reportId, ReportResultDTO result) {
+        entries.put(key, new Entry(reportId, result, Instant.now()));
+    }
+
+    /**
+     * Drop every result materialized from the given saved report.
+     */
+    public void invalidateReport(Long reportId) {
+        if (reportId != null) {
+            entries.values().removeIf(entry -> Objects.equals(entry.reportId(), reportId));
+        }
+    }
+
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        entries.values().removeIf(entry -> isExpired(entry, now));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean isExpired(Entry entry, Instant now) {
+        return entry.materializedAt().plusSeconds(maxAgeSeconds).isBefore(now);
+    }
+}
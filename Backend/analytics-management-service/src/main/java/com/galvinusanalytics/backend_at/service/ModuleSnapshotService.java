@@ -0,0 +1,225 @@
+package com.galvinusanalytics.backend_at.service;
+
+import com.galvinusanalytics.backend_at.client.AccountManagementClient;
+import com.galvinusanalytics.backend_at.client.ContactManagementClient;
+import com.galvinusanalytics.backend_at.client.LeadManagementClient;
+import com.galvinusanalytics.backend_at.client.OpportunityManagementClient;
+import com.galvinusanalytics.backend_at.client.SalesOrderManagementClient;
+import com.galvinusanalytics.backend_at.client.SalesQuoteManagementClient;
+import com.galvinusanalytics.backend_at.client.UpstreamQuery;
+import com.galvinusanalytics.backend_at.dto.module.AccountDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.ContactDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.LeadDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.OpportunityDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.SalesOrderDataDTO;
+import com.galvinusanalytics.backend_at.dto.module.SalesQuoteDataDTO;
+import com.galvinusanalytics.backend_at.engine.BitmapIndex;
+import com.galvinusanalytics.backend_at.engine.ColumnarTable;
+import com.galvinusanalytics.backend_at.engine.DayRollup;
+import com.galvinusanalytics.backend_at.engine.DaySketches;
+import com.galvinusanalytics.backend_at.engine.ModuleFieldRegistry;
+import com.galvinusanalytics.backend_at.engine.ModuleSnapshot;
+import com.galvinusanalytics.backend_at.engine.ReportModule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Keeps a local snapshot of every CRM module so report executions read from
+ * memory instead of downloading the module on each run.
+ * <p>
+ * A snapshot older than {@code analytics.snapshot.refresh-interval-ms} is
+ * refreshed on the next read by pulling only records updated since its
+ * watermark. Incremental pulls cannot see deletions, so every
+ * {@code analytics.snapshot.full-resync-minutes} the module is reloaded in full.
+ * When a refresh fails, the last good snapshot keeps being served and the
+ * module is reported as degraded until a sync succeeds again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ModuleSnapshotService {
+
+    private final LeadManagementClient leadManagementClient;
+    private final AccountManagementClient accountManagementClient;
+    private final ContactManagementClient contactManagementClient;
+    private final OpportunityManagementClient opportunityManagementClient;
+    private final SalesQuoteManagementClient salesQuoteManagementClient;
+    private final SalesOrderManagementClient salesOrderManagementClient;
+
+    private final ModuleSnapshot<LeadDataDTO> leadSnapshot =
+            new ModuleSnapshot<>(ModuleFieldRegistry.LEAD, LeadDataDTO::getLeadId, LeadDataDTO::getModifiedDate);
+    private final ModuleSnapshot<AccountDataDTO> accountSnapshot =
+            new ModuleSnapshot<>(ModuleFieldRegistry.ACCOUNT, AccountDataDTO::getAccountId, AccountDataDTO::getUpdatedAt);
+    private final ModuleSnapshot<ContactDataDTO> contactSnapshot =
+            new ModuleSnapshot<>(ModuleFieldRegistry.CONTACT, ContactDataDTO::getContactId, ContactDataDTO::getUpdatedAt);
+    private final ModuleSnapshot<OpportunityDataDTO> opportunitySnapshot =
+            new ModuleSnapshot<>(ModuleFieldRegistry.OPPORTUNITY, OpportunityDataDTO::getId, OpportunityDataDTO::getUpdatedAt);
+    private final ModuleSnapshot<SalesQuoteDataDTO> salesQuoteSnapshot =
+            new ModuleSnapshot<>(ModuleFieldRegistry.SALES_QUOTES, SalesQuoteDataDTO::getId, SalesQuoteDataDTO::getUpdatedAt);
+    private final ModuleSnapshot<SalesOrderDataDTO> salesOrderSnapshot =
+            new ModuleSnapshot<>(ModuleFieldRegistry.SALES_ORDER, SalesOrderDataDTO::getId, SalesOrderDataDTO::getUpdatedAt);
+
+    private final Map<ReportModule, Instant> failedSince = new ConcurrentHashMap<>();
+
+    @Value("${analytics.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.snapshot.refresh-interval-ms:30000}")
+    private long refreshIntervalMs;
+
+    @Value("${analytics.snapshot.full-resync-minutes:60}")
+    private long fullResyncMinutes;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current columnar snapshot of a module, synced first if it is stale.
+     */
+    public ColumnarTable table(ReportModule module) {
+        return switch (module) {
+            case LEAD -> read(leadSnapshot, leadManagementClient::fetchLeads);
+            case ACCOUNT -> read(accountSnapshot, accountManagementClient::fetchAccounts);
+            case CONTACT -> read(contactSnapshot, contactManagementClient::fetchContacts);
+            case OPPORTUNITY -> read(opportunitySnapshot, opportunityManagementClient::fetchOpportunities);
+            case SALES_QUOTES -> read(salesQuoteSnapshot, salesQuoteManagementClient::fetchSalesQuotes);
+            case SALES_ORDER -> read(salesOrderSnapshot, salesOrderManagementClient::fetchSalesOrders);
+        };
+    }
+
+    /**
+     * Whether the last refresh of the module failed, so its snapshot may lag
+     * behind the upstream.
+     */
+    public boolean isDegraded(ReportModule module) {
+        return failedSince.containsKey(module);
+    }
+
+    /**
+     * When the module's snapshot was last synced successfully, null if never.
+     */
+    public Instant syncedAt(ReportModule module) {
+        return snapshot(module).syncedAt();
+    }
+
+    /**
+     * Per-day rollup of a timestamp field for {@code table}, null unless
+     * {@code table} is the module's current snapshot.
+     */
+    public DayRollup rollup(ReportModule module, ColumnarTable table, String dateField) {
+        return snapshot(module).rollup(table, dateField);
+    }
+
+    /**
+     * Per-day distinct and quantile sketches of a timestamp field for
+     * {@code table}, null unless {@code table} is the module's current
+     * snapshot and the field is its created field.
+     */
+    public DaySketches sketches(ReportModule module, ColumnarTable table, String dateField) {
+        return snapshot(module).sketches(table, dateField);
+    }
+
+    /**
+     * Bitmap indexes over {@code table} by field name, empty unless
+     * {@code table} is the module's current snapshot.
+     */
+    public Map<String, BitmapIndex> indexes(ReportModule module, ColumnarTable table) {
+        return snapshot(module).indexes(table);
+    }
+
+    /**
+     * Record ids by row of {@code table}, null unless {@code table} is the
+     * module's current snapshot.
+     */
+    public String[] ids(ReportModule module, ColumnarTable table) {
+        return snapshot(module).ids(table);
+    }
+
+    private ModuleSnapshot<?> snapshot(ReportModule module) {
+        return switch (module) {
+            case LEAD -> leadSnapshot;
+            case ACCOUNT -> accountSnapshot;
+            case CONTACT -> contactSnapshot;
+            case OPPORTUNITY -> opportunitySnapshot;
+            case SALES_QUOTES -> salesQuoteSnapshot;
+            case SALES_ORDER -> salesOrderSnapshot;
+        };
+    }
+
+    /**
+     * Return the snapshot, syncing it first if needed. The first load blocks
+     * all readers; later refreshes are done by one reader while the others
+     * keep using the current version.
+     */
+    private <T> ColumnarTable read(ModuleSnapshot<T> snapshot, Function<UpstreamQuery, List<T>> fetch) {
+        if (!snapshot.isLoaded()) {
+            snapshot.syncLock().lock();
+            try {
+                if (!snapshot.isLoaded()) {
+                    sync(snapshot, fetch);
+                }
+            } finally {
+                snapshot.syncLock().unlock();
+            }
+        } else if (isStale(snapshot) && snapshot.syncLock().tryLock()) {
+            try {
+                if (isStale(snapshot)) {
+                    sync(snapshot, fetch);
+                }
+            } catch (Exception e) {
+                failedSince.putIfAbsent(snapshot.getModule(), Instant.now());
+                log.warn("Refreshing {} snapshot failed, serving {} cached records: {}",
+                        snapshot.getModule().getLabel(), snapshot.size(), e.getMessage());
+            } finally {
+                snapshot.syncLock().unlock();
+            }
+        }
+        return snapshot.table();
+    }
+
+    private boolean isStale(ModuleSnapshot<?> snapshot) {
+        Instant syncedAt = snapshot.syncedAt();
+        return syncedAt == null || Duration.between(syncedAt, Instant.now()).toMillis() >= refreshIntervalMs;
+    }
+
+    private <T> void sync(ModuleSnapshot<T> snapshot, Function<UpstreamQuery, List<T>> fetch) {
+        String module = snapshot.getModule().getLabel();
+        LocalDateTime watermark = snapshot.watermark();
+        Instant fullSyncedAt = snapshot.fullSyncedAt();
+        boolean fullResyncDue = fullSyncedAt == null
+                || Duration.between(fullSyncedAt, Instant.now()).toMinutes() >= fullResyncMinutes;
+
+        if (watermark == null || fullResyncDue) {
+            List<T> all = fetch.apply(UpstreamQuery.none());
+            // An empty module is far more likely an upstream glitch than a real wipe
+            if (all.isEmpty() && snapshot.size() > 0) {
+                log.warn("Full sync of {} returned no records, keeping {} cached records", module, snapshot.size());
+                snapshot.merge(all);
+                failedSince.remove(snapshot.getModule());
+                return;
+            }
+            snapshot.replaceAll(all);
+            failedSince.remove(snapshot.getModule());
+            log.info("Full sync of {} snapshot: {} records (~{} KB columnar), watermark {}", module, snapshot.size(),
+                    snapshot.table().estimatedBytes() / 1024, snapshot.watermark());
+            return;
+        }
+
+        List<T> changed = fetch.apply(UpstreamQuery.none().param("updatedFrom", watermark.toString()));
+        int added = snapshot.merge(changed);
+        failedSince.remove(snapshot.getModule());
+        log.debug("Incremental sync of {} snapshot since {}: {} changed, {} new, {} total",
+                module, watermark, changed.size(), added, snapshot.size());
+    }
+}
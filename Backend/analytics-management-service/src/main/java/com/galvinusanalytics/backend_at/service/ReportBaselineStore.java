@@ -0,0 +1,77 @@
+package com.galvinusanalytics.backend_at.service;
+
+import com.galvinusanalytics.backend_at.dto.ReportResultDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Last result of each saved report per user, kept without rows so the next
+ * delta run can tell which groups changed, which records it had matched and
+ * up to which modification time. Holds at most
+ * {@code analytics.delta.max-baselines} entries and
+ * {@code analytics.delta.max-baseline-keys} record ids in total, evicting the
+ * least recently used. Baselines live in memory only; after a restart the first delta run of
+ * a report returns everything.
+ */
+@Component
+public class ReportBaselineStore {
+
+    private final Map<String, ReportResultDTO> baselines = new LinkedHashMap<>(64, 0.75f, true);
+
+    @Value("${analytics.delta.max-baselines:1000}")
+    private int maxBaselines;
+
+    @Value("${analytics.delta.max-baseline-keys:2000000}")
+    private long maxKeys;
+
+    private long keys;
+
+    public synchronized ReportResultDTO get(Long reportId, String userId) {
+        return baselines.get(key(reportId, userId));
+    }
+
+    /**
+     * Store the groups and totals of a run; rows are dropped.
+     */
+    public synchronized void put(Long reportId, String userId, ReportResultDTO result) {
+        ReportResultDTO baseline = new ReportResultDTO();
+        baseline.setColumns(result.getColumns());
+        baseline.setTotalRecords(result.getTotalRecords());
+        baseline.setGroups(result.getGroups());
+        baseline.setTotals(result.getTotals());
+        baseline.setExecutedAt(result.getExecutedAt());
+        baseline.setWatermark(result.getWatermark());
+        baseline.setRowKeys(result.getRowKeys());
+        keys -= keyCount(baselines.put(key(reportId, userId), baseline));
+        keys += keyCount(baseline);
+        while (baselines.size() > maxBaselines || (keys > maxKeys && baselines.size() > 1)) {
+            Iterator<ReportResultDTO> eldest = baselines.values().iterator();
+            keys -= keyCount(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidateReport(Long reportId) {
+        String prefix = reportId + "|";
+        Iterator<Map.Entry<String, ReportResultDTO>> entries = baselines.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, ReportResultDTO> entry = entries.next();
+            if (entry.getKey().startsWith(prefix)) {
+                keys -= keyCount(entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    private static long keyCount(ReportResultDTO baseline) {
+        return baseline != null && baseline.getRowKeys() != null ? baseline.getRowKeys().length : 0;
+    }
+
+    private static String key(Long reportId, String userId) {
+        return reportId + "|" + userId;
+    }
+}
@@ -0,0 +1,65 @@
+package com.galvinusanalytics.backend_at.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.galvinusanalytics.backend_at.dto.ReportExecutionDTO;
+import com.galvinusanalytics.backend_at.entity.Report;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a saved {@link Report} (filters, groups and columns stored as JSON
+ * strings) into the {@link ReportExecutionDTO} the frontend would post to
+ * {@code /reports/execute}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReportDefinitionMapper {
+
+    private static final TypeReference<Map<String, Object>> FILTERS_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<String>> NAMES_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    public ReportExecutionDTO toExecutionDTO(Report report) {
+        ReportExecutionDTO dto = new ReportExecutionDTO();
+        dto.setReportId(report.getId());
+        dto.setModule(report.getModule());
+        dto.setColumns(readNames(report.getColumns(), report.getId()));
+        dto.setGroups(readNames(report.getGroups(), report.getId()));
+        dto.setFilters(readFilters(report.getFilters(), report.getId()));
+        return dto;
+    }
+
+    private Map<String, Object> readFilters(String json, Long reportId) {
+        if (json == null || json.isBlank()) {
+            Map<String, Object> filters = new HashMap<>();
+            filters.put("show", "ALL");
+            return filters;
+        }
+        try {
+            return objectMapper.readValue(json, FILTERS_TYPE);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid filters on report " + reportId);
+        }
+    }
+
+    private List<String> readNames(String json, Long reportId) {
+        if (json == null || json.isBlank()) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(json, NAMES_TYPE);
+        } catch (Exception e) {
+            log.warn("Report {} has unreadable column/group list: {}", reportId, json);
+            return new ArrayList<>();
+        }
+    }
+}
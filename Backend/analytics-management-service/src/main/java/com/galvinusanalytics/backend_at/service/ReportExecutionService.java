@@ -6,613 +6,661 @@ import com.galvinusanalytics.backend_at.client.ContactManagementClient;
 import com.galvinusanalytics.backend_at.client.OpportunityManagementClient;
 import com.galvinusanalytics.backend_at.client.SalesQuoteManagementClient;
 import com.galvinusanalytics.backend_at.client.SalesOrderManagementClient;
+import com.galvinusanalytics.backend_at.client.UpstreamQuery;
+import com.galvinusanalytics.backend_at.dto.ReportDeltaDTO;
 import com.galvinusanalytics.backend_at.dto.ReportExecutionDTO;
 import com.galvinusanalytics.backend_at.dto.ReportResultDTO;
-import com.galvinusanalytics.backend_at.dto.module.LeadDataDTO;
-import com.galvinusanalytics.backend_at.dto.module.AccountDataDTO;
-import com.galvinusanalytics.backend_at.dto.module.ContactDataDTO;
-import com.galvinusanalytics.backend_at.dto.module.OpportunityDataDTO;
-import com.galvinusanalytics.backend_at.dto.module.SalesQuoteDataDTO;
-import com.galvinusanalytics.backend_at.dto.module.SalesOrderDataDTO;
+import com.galvinusanalytics.backend_at.engine.Column;
+import com.galvinusanalytics.backend_at.engine.BitmapIndex;
+import com.galvinusanalytics.backend_at.engine.ColumnarTable;
+import com.galvinusanalytics.backend_at.engine.DateTimeColumn;
+import com.galvinusanalytics.backend_at.engine.ExecutionFingerprint;
+import com.galvinusanalytics.backend_at.engine.ExportFormat;
+import com.galvinusanalytics.backend_at.engine.ExportWriter;
+import com.galvinusanalytics.backend_at.engine.FilterPlan;
+import com.galvinusanalytics.backend_at.engine.GroupAggregator;
+import com.galvinusanalytics.backend_at.engine.GroupDiff;
+import com.galvinusanalytics.backend_at.engine.HashJoin;
+import com.galvinusanalytics.backend_at.engine.ModuleFieldRegistry;
+import com.galvinusanalytics.backend_at.engine.ModuleFields;
+import com.galvinusanalytics.backend_at.engine.PivotAggregator;
+import com.galvinusanalytics.backend_at.engine.Projection;
+import com.galvinusanalytics.backend_at.engine.ReportModule;
+import com.galvinusanalytics.backend_at.engine.RowSorter;
+import com.galvinusanalytics.backend_at.engine.DayRollup;
+import com.galvinusanalytics.backend_at.engine.DaySketches;
+import com.galvinusanalytics.backend_at.engine.FieldAccessor;
+import com.galvinusanalytics.backend_at.engine.FieldType;
+import com.galvinusanalytics.backend_at.engine.TimeBucket;
+import com.galvinusanalytics.backend_at.engine.TimeBucketAggregator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDate;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
+/**
+ * Executes reports over a columnar copy of the module data: filters narrow a
+ * row selection column by column, then the selection is grouped and/or
+ * projected into result rows.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ReportExecutionService {
 
+    private static final int STREAM_FLUSH_ROWS = 1000;
+    private static final int PROGRESS_ROWS = 4096;
+
     private final LeadManagementClient leadManagementClient;
     private final AccountManagementClient accountManagementClient;
     private final ContactManagementClient contactManagementClient;
     private final OpportunityManagementClient opportunityManagementClient;
     private final SalesQuoteManagementClient salesQuoteManagementClient;
     private final SalesOrderManagementClient salesOrderManagementClient;
-
+    private final FilterPushdownService filterPushdownService;
+    private final GroupAggregator groupAggregator;
+    private final TimeBucketAggregator timeBucketAggregator;
+    private final PivotAggregator pivotAggregator;
+    private final ModuleSnapshotService moduleSnapshotService;
+    private final ObjectMapper objectMapper;
+    private final ReportResultCache reportResultCache;
+    private final MaterializedResultStore materializedResultStore;
+
+    @Value("${analytics.rollup.storage-zone:}")
+    private String storageZone;
+
+    /**
+     * Execute a report, serving a materialized result when one exists (flagged
+     * stale once older than the module's cache TTL) and repeated requests
+     * from {@link ReportResultCache}.
+     */
     public ReportResultDTO executeReport(ReportExecutionDTO executionDTO, String userId) {
-        log.info("Executing report for module: {}, user: {}", executionDTO.getModule(), userId);
-
-        String module = executionDTO.getModule();
-        if (module == null) {
-            throw new IllegalArgumentException("Module is required");
+        ReportModule module = ReportModule.fromName(executionDTO.getModule());
+        FilterPlan plan = FilterPlan.compile(ModuleFieldRegistry.forModule(module), executionDTO.getFilters(), userId);
+        String key = ExecutionFingerprint.of(executionDTO, plan, compileJoin(module, executionDTO, userId));
+        ReportResultDTO materialized = materializedResultStore.get(key, reportResultCache.ttlSeconds(module));
+        if (materialized != null) {
+            return materialized;
         }
-
-        switch (module.toUpperCase()) {
-            case "LEAD":
-                return executeLeadReport(executionDTO, userId);
-            case "ACCOUNT":
-                return executeAccountReport(executionDTO, userId);
-            case "CONTACT":
-                return executeContactReport(executionDTO, userId);
-            case "OPPORTUNITY":
-                return executeOpportunityReport(executionDTO, userId);
-            case "SALES QUOTES":
-                return executeSalesQuoteReport(executionDTO, userId);
-            case "SALES ORDER":
-                return executeSalesOrderReport(executionDTO, userId);
-            default:
-                throw new IllegalArgumentException("Unsupported module: " + executionDTO.getModule());
+        if (!reportResultCache.isEnabled()) {
+            return run(executionDTO, plan, userId);
         }
+        return reportResultCache.get(key, module, executionDTO.getReportId(),
+                () -> run(executionDTO, plan, userId));
     }
 
-    /* ===================== LEAD ===================== */
-
-    private ReportResultDTO executeLeadReport(ReportExecutionDTO executionDTO, String userId) {
-        List<LeadDataDTO> allLeads = leadManagementClient.fetchAllLeads();
-        log.info("Fetched {} leads from Lead Management Service", allLeads.size());
-
-        List<LeadDataDTO> filteredLeads = applyLeadFilters(allLeads, executionDTO.getFilters(), userId);
-        log.info("After filtering: {} leads", filteredLeads.size());
-
-        List<Map<String, Object>> rows = filteredLeads.stream()
-                .map(lead -> transformLeadData(lead, executionDTO.getColumns()))
-                .collect(Collectors.toList());
-
-        ReportResultDTO result = new ReportResultDTO();
-        result.setColumns(executionDTO.getColumns());
-        result.setRows(rows);
-        result.setTotalRecords(rows.size());
-        result.setExecutedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
-
+    /**
+     * Execute a report bypassing the cache and store the result in
+     * {@link MaterializedResultStore}, where {@link #executeReport(ReportExecutionDTO, String)}
+     * picks it up for the same request and user.
+     */
+    public ReportResultDTO materialize(ReportExecutionDTO executionDTO, String userId) {
+        ReportModule module = ReportModule.fromName(executionDTO.getModule());
+        FilterPlan plan = FilterPlan.compile(ModuleFieldRegistry.forModule(module), executionDTO.getFilters(), userId);
+        ReportResultDTO result = run(executionDTO, plan, userId);
+        materializedResultStore.put(ExecutionFingerprint.of(executionDTO, plan, compileJoin(module, executionDTO, userId)),
+                executionDTO.getReportId(), result);
         return result;
     }
 
-    private List<LeadDataDTO> applyLeadFilters(List<LeadDataDTO> leads,
-                                               Map<String, Object> filters,
-                                               String userId) {
-        if (filters == null || filters.isEmpty()) {
-            return leads;
-        }
-
-        LocalDate fromDate = parseLocalDate(filters.get("createdDateFrom"));
-        LocalDate toDate = parseLocalDate(filters.get("createdDateTo"));
-
-        return leads.stream()
-                .filter(lead -> {
-                    if (filters.containsKey("show")) {
-                        String showFilter = String.valueOf(filters.get("show"));
-                        if ("MY_LEADS".equalsIgnoreCase(showFilter) || showFilter.toUpperCase().contains("MY")) {
-                            if (lead.getLeadOwner() == null || !lead.getLeadOwner().equals(userId)) {
-                                return false;
-                            }
-                        }
-                    }
-
-                    LocalDate created = lead.getCreatedDate() != null
-                            ? lead.getCreatedDate().toLocalDate()
-                            : null;
-
-                    if (fromDate != null && created != null && created.isBefore(fromDate)) {
-                        return false;
-                    }
-                    if (toDate != null && created != null && created.isAfter(toDate)) {
-                        return false;
-                    }
-
-                    if (filters.containsKey("leadStatus")) {
-                        String status = (String) filters.get("leadStatus");
-                        if (status != null && !status.isEmpty()) {
-                            if (lead.getLeadStatus() == null || !lead.getLeadStatus().equalsIgnoreCase(status)) {
-                                return false;
-                            }
-                        }
-                    }
-
-                    if (filters.containsKey("leadSource")) {
-                        String source = (String) filters.get("leadSource");
-                        if (source != null && !source.isEmpty()) {
-                            if (lead.getLeadSource() == null || !lead.getLeadSource().equalsIgnoreCase(source)) {
-                                return false;
-                            }
-                        }
-                    }
+    /**
+     * Execute a report without the result cache, reporting progress as it goes.
+     * Used for background jobs, which are cancelled through {@code progress}.
+     */
+    public ReportResultDTO executeReport(ReportExecutionDTO executionDTO, String userId, ExecutionProgress progress) {
+        ReportModule module = ReportModule.fromName(executionDTO.getModule());
+        FilterPlan plan = FilterPlan.compile(ModuleFieldRegistry.forModule(module), executionDTO.getFilters(), userId);
+        return run(executionDTO, plan, userId, progress);
+    }
 
-                    return true;
-                })
-                .collect(Collectors.toList());
+    /**
+     * @param diff    what changed since the previous result
+     * @param current groups and totals of this run, without rows, to diff the next run against
+     */
+    public record Delta(ReportDeltaDTO diff, ReportResultDTO current) {
     }
 
-    private Map<String, Object> transformLeadData(LeadDataDTO lead, List<String> columns) {
-        Map<String, Object> row = new LinkedHashMap<>();
-
-        for (String column : columns) {
-            Object value = switch (column) {
-                case "Lead ID" -> lead.getLeadId();
-                case "First Name" -> lead.getFirstName();
-                case "Last Name" -> lead.getLastName();
-                case "Lead Name" -> ((lead.getFirstName() != null ? lead.getFirstName() : "") + " " +
-                        (lead.getLastName() != null ? lead.getLastName() : "")).trim();
-                case "Email" -> lead.getEmail();
-                case "Phone" -> lead.getPhoneNumber();
-                case "Title" -> lead.getTitle();
-                case "Company/Account" -> lead.getCompany();
-                case "Lead Source" -> lead.getLeadSource();
-                case "Status" -> lead.getLeadStatus();
-                case "Stage" -> lead.getInterestLevel();
-                case "Interest Level" -> lead.getInterestLevel();
-                case "Budget" -> lead.getBudget();
-                case "Potential Revenue" -> lead.getPotentialRevenue();
-                case "City" -> lead.getCity();
-                case "State" -> lead.getState();
-                case "Country" -> lead.getCountry();
-                case "Created By" -> lead.getCreatedBy();
-                case "Created Date" -> lead.getCreatedDate();
-                case "Last Interaction" -> lead.getLastInteractionDate();
-                default -> null;
-            };
-            row.put(column, value);
+    /**
+     * Execute a report and return only what changed since {@code previous}:
+     * the matching records modified after the previous result's watermark or
+     * new to the selection, the records that matched then but no longer do,
+     * and the groups whose count or aggregates moved. The watermark is the
+     * newest modification time in the data the previous result was computed
+     * from, so it is in the upstream's own clock and zone and accounts for
+     * snapshot lag; timestamps only have second precision, so a record
+     * modified within the watermark's second but synced later is reported only
+     * if it is new to the selection. The module is read from the snapshot,
+     * which only pulls records updated since its last sync, so a delta run
+     * costs an incremental fetch plus one in-memory aggregation pass. Group
+     * aggregates are recomputed rather than patched, as MIN and MAX cannot be
+     * retracted when a record leaves a group. Without a previous result every
+     * matching record and group is returned.
+     */
+    public Delta executeDelta(ReportExecutionDTO executionDTO, String userId, ReportResultDTO previous) {
+        ReportModule module = ReportModule.fromName(executionDTO.getModule());
+        ModuleFields<?> fields = ModuleFieldRegistry.forModule(module);
+        FilterPlan plan = FilterPlan.compile(fields, executionDTO.getFilters(), userId);
+        Selection selection = select(executionDTO, plan, userId, ExecutionProgress.NONE);
+        ColumnarTable table = selection.table();
+        int[] rows = selection.rows();
+        String executedAt = LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME);
+
+        ReportResultDTO current = new ReportResultDTO();
+        current.setColumns(executionDTO.getColumns());
+        current.setRows(Collections.emptyList());
+        current.setTotalRecords(rows.length);
+        current.setExecutedAt(executedAt);
+        current.setWatermark(selection.watermark());
+        current.setRowKeys(rowKeys(selection));
+        boolean grouped = executionDTO.getGroups() != null && !executionDTO.getGroups().isEmpty();
+        if (grouped) {
+            GroupAggregator.Result aggregated = aggregate(executionDTO, selection);
+            current.setGroups(aggregated.groups());
+            current.setTotals(aggregated.totals());
         }
 
-        return row;
+        LocalDateTime since = previous != null && previous.getWatermark() != null
+                ? LocalDateTime.parse(previous.getWatermark()) : null;
+        boolean baseline = since == null;
+        String[] previousKeys = baseline ? null : previous.getRowKeys();
+        boolean keyed = previousKeys != null && current.getRowKeys() != null;
+        int[] changed = baseline ? rows
+                : changedRows(table, rows, fields.getUpdatedField(), since, keyed ? selection.ids() : null, previousKeys);
+        changed = RowSorter.compile(table, executionDTO.getSort()).sort(changed);
+
+        ReportDeltaDTO diff = new ReportDeltaDTO();
+        diff.setSince(baseline ? null : previous.getWatermark());
+        diff.setBaseline(baseline);
+        diff.setColumns(executionDTO.getColumns());
+        diff.setChangedRows(project(Projection.compile(table, executionDTO.getColumns()), changed, ExecutionProgress.NONE));
+        diff.setRemovedIds(baseline ? Collections.emptyList()
+                : keyed ? missing(previousKeys, current.getRowKeys()) : null);
+        diff.setTotalRecords(rows.length);
+        diff.setGroups(grouped ? GroupDiff.diff(baseline ? null : previous.getGroups(), current.getGroups())
+                : Collections.emptyList());
+        diff.setTotals(current.getTotals());
+        diff.setExecutedAt(executedAt);
+        if (selection.dataAsOf() != null) {
+            diff.setStale(true);
+            diff.setDataAsOf(selection.dataAsOf());
+        }
+        log.info("Delta run of {} report: {} of {} records changed and {} removed since {}, {} top-level groups changed",
+                module.getLabel(), changed.length, rows.length,
+                diff.getRemovedIds() != null ? diff.getRemovedIds().size() : "untracked",
+                diff.getSince(), diff.getGroups().size());
+        return new Delta(diff, current);
     }
 
-    /* ===================== ACCOUNT ===================== */
-
-    private ReportResultDTO executeAccountReport(ReportExecutionDTO executionDTO, String userId) {
-        List<AccountDataDTO> allAccounts = accountManagementClient.fetchAllAccounts();
-        log.info("Fetched {} accounts from Account service", allAccounts.size());
-
-        List<AccountDataDTO> filtered = applyAccountFilters(allAccounts, executionDTO.getFilters(), userId);
-        log.info("After filtering accounts: {}", filtered.size());
-
-        List<Map<String, Object>> rows = filtered.stream()
-                .map(acc -> transformAccountData(acc, executionDTO.getColumns()))
-                .collect(Collectors.toList());
-
-        ReportResultDTO result = new ReportResultDTO();
-        result.setColumns(executionDTO.getColumns());
-        result.setRows(rows);
-        result.setTotalRecords(rows.size());
-        result.setExecutedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
-
-        return result;
+    /**
+     * Rows modified after {@code since}, plus, when {@code ids} are given,
+     * rows whose record was not among {@code previousKeys}. Records without a
+     * modification time are only caught by the latter.
+     */
+    private static int[] changedRows(ColumnarTable table, int[] rows, String updatedField, LocalDateTime since,
+                                     String[] ids, String[] previousKeys) {
+        Column column = updatedField != null ? table.column(updatedField) : null;
+        if (!(column instanceof DateTimeColumn updated)) {
+            return rows;
+        }
+        long sinceDay = since.toLocalDate().toEpochDay();
+        long sinceMillis = since.toLocalTime().toNanoOfDay() / 1_000_000L;
+        int[] result = new int[rows.length];
+        int count = 0;
+        for (int row : rows) {
+            int day = updated.epochDay(row);
+            boolean modified = day != DateTimeColumn.NULL_DAY
+                    && (day > sinceDay || (day == sinceDay && updated.millisOfDay(row) > sinceMillis));
+            if (modified || (ids != null && Arrays.binarySearch(previousKeys, ids[row]) < 0)) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
     }
 
-    private List<AccountDataDTO> applyAccountFilters(List<AccountDataDTO> accounts,
-                                                     Map<String, Object> filters,
-                                                     String userId) {
-        if (filters == null || filters.isEmpty()) {
-            return accounts;
+    /** Sorted keys in {@code previous} but not in {@code current}. */
+    private static List<String> missing(String[] previous, String[] current) {
+        List<String> missing = new ArrayList<>();
+        int j = 0;
+        for (String key : previous) {
+            while (j < current.length && current[j].compareTo(key) < 0) {
+                j++;
+            }
+            if (j == current.length || !current[j].equals(key)) {
+                missing.add(key);
+            }
         }
-
-        LocalDate fromDate = parseLocalDate(filters.get("createdDateFrom"));
-        LocalDate toDate = parseLocalDate(filters.get("createdDateTo"));
-
-        return accounts.stream()
-                .filter(acc -> {
-                    if (filters.containsKey("show")) {
-                        String show = String.valueOf(filters.get("show"));
-                        if (show != null && show.toUpperCase().contains("MY")) {
-                            if (acc.getOwnerId() == null || !acc.getOwnerId().equals(userId)) {
-                                return false;
-                            }
-                        }
-                    }
-
-                    LocalDate created = acc.getCreatedAt() != null
-                            ? acc.getCreatedAt().toLocalDate()
-                            : null;
-
-                    if (fromDate != null && created != null && created.isBefore(fromDate)) {
-                        return false;
-                    }
-                    if (toDate != null && created != null && created.isAfter(toDate)) {
-                        return false;
-                    }
-
-                    return true;
-                })
-                .collect(Collectors.toList());
+        return missing;
     }
 
-    private Map<String, Object> transformAccountData(AccountDataDTO acc, List<String> columns) {
-        Map<String, Object> row = new LinkedHashMap<>();
-
-        for (String column : columns) {
-            Object value = switch (column) {
-                case "Account ID" -> acc.getAccountId();
-                case "Account Name" -> acc.getName();
-                case "Account Owner" -> acc.getOwnerId();
-                case "Account Type" -> acc.getType();
-                case "Industry" -> acc.getIndustry();
-                case "Website" -> acc.getWebsite();
-                case "Note" -> acc.getNote();
-                case "Parent Account" -> acc.getParentAccountId();
-
-                case "Billing Country" -> acc.getBillingCountry();
-                case "Billing State" -> acc.getBillingState();
-                case "Billing City" -> acc.getBillingCity();
-                case "Billing ZIP Code" -> acc.getBillingZipCode();
-                case "Billing Address Line 1" -> acc.getBillingAddressLine1();
-                case "Billing Address Line 2" -> acc.getBillingAddressLine2();
-
-                case "Shipping Country" -> acc.getShippingCountry();
-                case "Shipping State" -> acc.getShippingState();
-                case "Shipping City" -> acc.getShippingCity();
-                case "Shipping ZIP Code" -> acc.getShippingZipCode();
-                case "Shipping Address Line 1" -> acc.getShippingAddressLine1();
-                case "Shipping Address Line 2" -> acc.getShippingAddressLine2();
-
-                case "Created Date" -> acc.getCreatedAt();
-                case "Last Modified Date" -> acc.getUpdatedAt();
-
-                default -> null;
-            };
-
-            row.put(column, value);
+    /**
+     * Sorted record ids of the selected rows, null when the rows do not map
+     * to single records (a join, or snapshots disabled).
+     */
+    private static String[] rowKeys(Selection selection) {
+        if (selection.ids() == null) {
+            return null;
         }
-
-        return row;
+        String[] keys = new String[selection.rows().length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = selection.ids()[selection.rows()[i]];
+        }
+        Arrays.sort(keys);
+        return keys;
     }
 
-    /* ===================== CONTACT ===================== */
-
-    private ReportResultDTO executeContactReport(ReportExecutionDTO executionDTO, String userId) {
-        List<ContactDataDTO> allContacts = contactManagementClient.fetchAllContacts();
-        log.info("Fetched {} contacts from Contact service", allContacts.size());
-
-        List<ContactDataDTO> filtered = applyContactFilters(allContacts, executionDTO.getFilters(), userId);
-        log.info("After filtering contacts: {}", filtered.size());
-
-        List<Map<String, Object>> rows = filtered.stream()
-                .map(contact -> transformContactData(contact, executionDTO.getColumns()))
-                .collect(Collectors.toList());
-
-        ReportResultDTO result = new ReportResultDTO();
-        result.setColumns(executionDTO.getColumns());
-        result.setRows(rows);
-        result.setTotalRecords(rows.size());
-        result.setExecutedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+    /**
+     * Newest value of the module's modification field over the whole table,
+     * as stored (upstream zone), or null when it has none.
+     */
+    private static String watermark(ColumnarTable table, String updatedField) {
+        Column column = updatedField != null ? table.column(updatedField) : null;
+        if (!(column instanceof DateTimeColumn updated)) {
+            return null;
+        }
+        int newest = -1;
+        for (int row = 0; row < updated.size(); row++) {
+            int day = updated.epochDay(row);
+            if (day == DateTimeColumn.NULL_DAY) {
+                continue;
+            }
+            if (newest < 0 || day > updated.epochDay(newest)
+                    || (day == updated.epochDay(newest) && updated.millisOfDay(row) > updated.millisOfDay(newest))) {
+                newest = row;
+            }
+        }
+        return newest < 0 ? null : updated.get(newest).format(DateTimeFormatter.ISO_DATE_TIME);
+    }
 
-        return result;
+    private ReportResultDTO run(ReportExecutionDTO executionDTO, FilterPlan plan, String userId) {
+        return run(executionDTO, plan, userId, ExecutionProgress.NONE);
     }
 
-    private List<ContactDataDTO> applyContactFilters(List<ContactDataDTO> contacts,
-                                                      Map<String, Object> filters,
-                                                      String userId) {
-        if (filters == null || filters.isEmpty()) {
-            return contacts;
+    private ReportResultDTO run(ReportExecutionDTO executionDTO, FilterPlan plan, String userId,
+                                ExecutionProgress progress) {
+        Selection selection = select(executionDTO, plan, userId, progress);
+        ReportResultDTO result = buildResult(executionDTO, selection, progress);
+        result.setWatermark(selection.watermark());
+        result.setRowKeys(rowKeys(selection));
+        if (selection.dataAsOf() != null) {
+            result.setStale(true);
+            result.setDataAsOf(selection.dataAsOf());
         }
+        return result;
+    }
 
-        LocalDate fromDate = parseLocalDate(filters.get("createdDateFrom"));
-        LocalDate toDate = parseLocalDate(filters.get("createdDateTo"));
-
-        return contacts.stream()
-                .filter(contact -> {
-                    if (filters.containsKey("show")) {
-                        String show = String.valueOf(filters.get("show"));
-                        if (show != null && show.toUpperCase().contains("MY")) {
-                            // Add owner filtering if your Contact model has ownerId field
-                            // For now, we'll show all contacts
-                        }
-                    }
-
-                    LocalDate created = contact.getCreatedAt() != null
-                            ? contact.getCreatedAt().toLocalDate()
-                            : null;
-
-                    if (fromDate != null && created != null && created.isBefore(fromDate)) {
-                        return false;
+    /**
+     * Execute a report as NDJSON. Filtering and grouping happen up front, so
+     * invalid requests still fail before anything is written; the returned
+     * body then writes one line per row straight from the columnar table:
+     * <pre>
+     * {"columns":[...]}
+     * [value, value, ...]
+     * {"totalRecords":n,"nextCursor":"...","executedAt":"...","groups":[...],"totals":{...}}
+     * </pre>
+     * The trailer marks a complete stream. Rows follow the requested sort and
+     * page; they are omitted for grouped reports with {@code includeRows=false}.
+     */
+    public StreamingResponseBody streamReport(ReportExecutionDTO executionDTO, String userId) {
+        ReportModule module = ReportModule.fromName(executionDTO.getModule());
+        FilterPlan plan = FilterPlan.compile(ModuleFieldRegistry.forModule(module), executionDTO.getFilters(), userId);
+        Selection selection = select(executionDTO, plan, userId, ExecutionProgress.NONE);
+        ColumnarTable table = selection.table();
+        int[] rows = selection.rows();
+
+        boolean grouped = executionDTO.getGroups() != null && !executionDTO.getGroups().isEmpty();
+        GroupAggregator.Result aggregated = grouped
+                ? aggregate(executionDTO, selection)
+                : null;
+        boolean withRows = !grouped || !Boolean.FALSE.equals(executionDTO.getIncludeRows());
+        RowSorter.Page page = withRows ? page(executionDTO, table, rows) : new RowSorter.Page(new int[0], null);
+        int[] pageRows = page.rows();
+        Projection projection = Projection.compile(table, executionDTO.getColumns());
+
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+                generator.writeStartObject();
+                generator.writePOJOField("columns",
+                        executionDTO.getColumns() != null ? executionDTO.getColumns() : List.of());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                generator.flush();
+
+                for (int i = 0; i < pageRows.length; i++) {
+                    generator.writeStartArray();
+                    for (int c = 0; c < projection.width(); c++) {
+                        generator.writeObject(projection.value(c, pageRows[i]));
                     }
-                    if (toDate != null && created != null && created.isAfter(toDate)) {
-                        return false;
+                    generator.writeEndArray();
+                    generator.writeRaw('\n');
+                    if ((i + 1) % STREAM_FLUSH_ROWS == 0) {
+                        generator.flush();
                     }
-
-                    return true;
-                })
-                .collect(Collectors.toList());
+                }
+
+                generator.writeStartObject();
+                generator.writeNumberField("totalRecords", rows.length);
+                if (page.nextCursor() != null) {
+                    generator.writeStringField("nextCursor", page.nextCursor());
+                }
+                generator.writeStringField("executedAt",
+                        LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+                if (selection.dataAsOf() != null) {
+                    generator.writeBooleanField("stale", true);
+                    generator.writeStringField("dataAsOf", selection.dataAsOf());
+                }
+                if (aggregated != null) {
+                    generator.writePOJOField("groups", aggregated.groups());
+                    generator.writePOJOField("totals", aggregated.totals());
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+            log.info("Streamed {} of {} {} records", pageRows.length, rows.length, table.getModule().getLabel());
+        };
     }
 
-    private Map<String, Object> transformContactData(ContactDataDTO contact, List<String> columns) {
-        Map<String, Object> row = new LinkedHashMap<>();
-
-        for (String column : columns) {
-            Object value = switch (column) {
-                case "Contact Name" -> ((contact.getFirstName() != null ? contact.getFirstName() : "") + " " +
-                        (contact.getLastName() != null ? contact.getLastName() : "")).trim();
-                case "Contact ID" -> contact.getContactId();
-                case "First Name" -> contact.getFirstName();
-                case "Last Name" -> contact.getLastName();
-                case "Email" -> contact.getEmail();
-                case "Phone" -> contact.getPhone();
-                case "Account Name" -> contact.getAccount() != null ? contact.getAccount().getName() : null;
-                case "Account Type" -> contact.getAccount() != null ? contact.getAccount().getType() : null;
-                case "Department" -> contact.getDepartment();
-                case "Role" -> contact.getRole();
-                case "Website" -> contact.getAccount() != null ? contact.getAccount().getWebsite() : null;
-                case "Address Line 1" -> contact.getBillingAddressLine1();
-                case "Country" -> contact.getBillingCountry();
-                case "Created At" -> contact.getCreatedAt();
-                default -> null;
-            };
-            row.put(column, value);
+    /**
+     * Stream every selected row, in the requested sort order, as a CSV or
+     * XLSX file. Page size and cursor are ignored. The selection is made
+     * before the body is returned, so bad requests and unavailable upstreams
+     * fail fast; rows are then projected straight into the writer with no
+     * intermediate result.
+     */
+    public StreamingResponseBody exportReport(ReportExecutionDTO executionDTO, String userId, ExportFormat format) {
+        ReportModule module = ReportModule.fromName(executionDTO.getModule());
+        FilterPlan plan = FilterPlan.compile(ModuleFieldRegistry.forModule(module), executionDTO.getFilters(), userId);
+        Selection selection = select(executionDTO, plan, userId, ExecutionProgress.NONE);
+        ColumnarTable table = selection.table();
+        if (selection.rows().length >= format.maxRows()) {
+            throw new IllegalArgumentException("Too many rows for " + format + " export: " + selection.rows().length
+                    + " (limit " + (format.maxRows() - 1) + ")");
         }
-
-        return row;
+        int[] rows = RowSorter.compile(table, executionDTO.getSort()).page(selection.rows(), null, null).rows();
+        Projection projection = Projection.compile(table, executionDTO.getColumns());
+        List<String> columns = executionDTO.getColumns() != null ? executionDTO.getColumns() : List.of();
+
+        return out -> {
+            try (ExportWriter writer = format.open(out)) {
+                writer.header(columns);
+                writer.flush();
+                for (int i = 0; i < rows.length; i++) {
+                    writer.startRow();
+                    for (int c = 0; c < projection.width(); c++) {
+                        writer.value(projection.value(c, rows[i]));
+                    }
+                    writer.endRow();
+                    if ((i + 1) % STREAM_FLUSH_ROWS == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+            log.info("Exported {} {} records as {}", rows.length, table.getModule().getLabel(), format);
+        };
     }
 
-    /* ===================== OPPORTUNITY ===================== */
-
-    private ReportResultDTO executeOpportunityReport(ReportExecutionDTO executionDTO, String userId) {
-        List<OpportunityDataDTO> allOpportunities = opportunityManagementClient.fetchAllOpportunities();
-        log.info("Fetched {} opportunities from Opportunity service", allOpportunities.size());
-
-        List<OpportunityDataDTO> filtered = applyOpportunityFilters(allOpportunities, executionDTO.getFilters(), userId);
-        log.info("After filtering opportunities: {}", filtered.size());
-
-        List<Map<String, Object>> rows = filtered.stream()
-                .map(opp -> transformOpportunityData(opp, executionDTO.getColumns()))
-                .collect(Collectors.toList());
-
-        ReportResultDTO result = new ReportResultDTO();
-        result.setColumns(executionDTO.getColumns());
-        result.setRows(rows);
-        result.setTotalRecords(rows.size());
-        result.setExecutedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+    /* ===================== SELECTION ===================== */
 
-        return result;
+    /**
+     * @param plan     predicates {@code rows} were selected from {@code table} with, null after a join
+     * @param dataAsOf  last successful sync when the data may be behind the upstream, otherwise null
+     * @param watermark newest modification time in the module's data, null if it has none
+     * @param ids       record id by row of {@code table}, null after a join or when read from the upstream
+     */
+    private record Selection(ColumnarTable table, int[] rows, FilterPlan plan, String dataAsOf,
+                             String watermark, String[] ids) {
     }
 
-    private List<OpportunityDataDTO> applyOpportunityFilters(List<OpportunityDataDTO> opportunities,
-                                                              Map<String, Object> filters,
-                                                              String userId) {
-        if (filters == null || filters.isEmpty()) {
-            return opportunities;
+    private Selection select(ReportExecutionDTO executionDTO, FilterPlan plan, String userId,
+                             ExecutionProgress progress) {
+        log.info("Executing report for module: {}, user: {}", executionDTO.getModule(), userId);
+
+        ReportModule module = plan.getModule();
+        Source source = load(plan);
+        ColumnarTable table = source.table();
+        log.info("Loaded {} {} records from {}", table.rowCount(), module.getLabel(), source.origin());
+        progress.fetched(table.rowCount());
+        progress.checkCancelled();
+
+        int[] rows = source.plan().select(table, source.indexes());
+        log.info("After filtering: {} {} records", rows.length, module.getLabel());
+        String dataAsOf = source.dataAsOf();
+        FilterPlan applied = source.plan();
+        String watermark = watermark(table, ModuleFieldRegistry.forModule(module).getUpdatedField());
+        String[] ids = source.ids();
+
+        HashJoin join = compileJoin(module, executionDTO, userId);
+        if (join != null) {
+            Source joined = load(join.getFilter());
+            int[] joinedRows = joined.plan().select(joined.table(), joined.indexes());
+            progress.checkCancelled();
+            table = join.join(table, rows, joined.table(), joinedRows);
+            rows = new int[table.rowCount()];
+            Arrays.setAll(rows, i -> i);
+            applied = null;
+            ids = null;
+            log.info("Joined {} {} records from {}: {} rows", joinedRows.length, join.getModule().getLabel(),
+                    joined.origin(), rows.length);
+            if (dataAsOf == null) {
+                dataAsOf = joined.dataAsOf();
+            }
         }
+        progress.filtered(rows.length);
+        progress.checkCancelled();
 
-        LocalDate fromDate = parseLocalDate(filters.get("createdDateFrom"));
-        LocalDate toDate = parseLocalDate(filters.get("createdDateTo"));
-
-        return opportunities.stream()
-                .filter(opp -> {
-                    if (filters.containsKey("show")) {
-                        String show = String.valueOf(filters.get("show"));
-                        if (show != null && show.toUpperCase().contains("MY")) {
-                            if (opp.getOwnerId() == null || !opp.getOwnerId().equals(userId)) {
-                                return false;
-                            }
-                        }
-                    }
+        return new Selection(table, rows, applied, dataAsOf, watermark, ids);
+    }
 
-                    LocalDate created = opp.getCreatedAt() != null
-                            ? opp.getCreatedAt().toLocalDate()
-                            : null;
+    private static HashJoin compileJoin(ReportModule module, ReportExecutionDTO executionDTO, String userId) {
+        return HashJoin.compile(ModuleFieldRegistry.forModule(module), executionDTO.getJoin(), userId);
+    }
 
-                    if (fromDate != null && created != null && created.isBefore(fromDate)) {
-                        return false;
-                    }
-                    if (toDate != null && created != null && created.isAfter(toDate)) {
-                        return false;
-                    }
+    /* ===================== SOURCES ===================== */
 
-                    return true;
-                })
-                .collect(Collectors.toList());
+    /**
+     * @param indexes bitmap indexes over {@code table}, empty when it came from the upstream
+     * @param ids     record id by row of {@code table}, null when it came from the upstream
+     */
+    private record Source(ColumnarTable table, FilterPlan plan, String origin, String dataAsOf,
+                          Map<String, BitmapIndex> indexes, String[] ids) {
     }
 
-    private Map<String, Object> transformOpportunityData(OpportunityDataDTO opp, List<String> columns) {
-        Map<String, Object> row = new LinkedHashMap<>();
-
-        for (String column : columns) {
-            Object value = switch (column) {
-                case "Account Id" -> opp.getAccountId();
-                case "Opportunities Name" -> opp.getName();
-                case "Opportunities Owner" -> opp.getOwnerId();
-                case "Account Type" -> opp.getType();
-                case "Status" -> opp.getStatus();
-                case "Probability" -> opp.getProbability();
-                case "Stage" -> opp.getStage();
-                case "Amount" -> opp.getAmount();
-                case "Lead Sources" -> opp.getLeadSource();
-                case "Created At" -> opp.getCreatedAt();
-                default -> null;
-            };
-            row.put(column, value);
+    /**
+     * Read the module from the local snapshot (the whole plan then runs in
+     * memory) or, with snapshots disabled, from the upstream with the pushdown
+     * applied (only the remaining predicates run in memory).
+     */
+    private Source load(FilterPlan plan) {
+        if (moduleSnapshotService.isEnabled()) {
+            ColumnarTable table = moduleSnapshotService.table(plan.getModule());
+            String dataAsOf = null;
+            if (moduleSnapshotService.isDegraded(plan.getModule())) {
+                Instant syncedAt = moduleSnapshotService.syncedAt(plan.getModule());
+                dataAsOf = syncedAt != null ? syncedAt.toString() : null;
+                log.warn("{} upstream is degraded, serving snapshot synced at {}", plan.getModule().getLabel(), dataAsOf);
+            }
+            return new Source(table, plan, "snapshot", dataAsOf,
+                    moduleSnapshotService.indexes(plan.getModule(), table),
+                    moduleSnapshotService.ids(plan.getModule(), table));
         }
-
-        return row;
+        UpstreamQuery query = filterPushdownService.forPlan(plan);
+        return switch (plan.getModule()) {
+            case LEAD -> fetch(ModuleFieldRegistry.LEAD, leadManagementClient::fetchLeads, query, plan);
+            case ACCOUNT -> fetch(ModuleFieldRegistry.ACCOUNT, accountManagementClient::fetchAccounts, query, plan);
+            case CONTACT -> fetch(ModuleFieldRegistry.CONTACT, contactManagementClient::fetchContacts, query, plan);
+            case OPPORTUNITY -> fetch(ModuleFieldRegistry.OPPORTUNITY,
+                    opportunityManagementClient::fetchOpportunities, query, plan);
+            case SALES_QUOTES -> fetch(ModuleFieldRegistry.SALES_QUOTES,
+                    salesQuoteManagementClient::fetchSalesQuotes, query, plan);
+            case SALES_ORDER -> fetch(ModuleFieldRegistry.SALES_ORDER,
+                    salesOrderManagementClient::fetchSalesOrders, query, plan);
+        };
     }
 
-    /* ===================== SALES QUOTE ===================== */
-
-    private ReportResultDTO executeSalesQuoteReport(ReportExecutionDTO executionDTO, String userId) {
-        List<SalesQuoteDataDTO> allQuotes = salesQuoteManagementClient.fetchAllSalesQuotes();
-        log.info("Fetched {} sales quotes from Sales Quote service", allQuotes.size());
-
-        List<SalesQuoteDataDTO> filtered = applySalesQuoteFilters(allQuotes, executionDTO.getFilters(), userId);
-        log.info("After filtering sales quotes: {}", filtered.size());
-
-        List<Map<String, Object>> rows = filtered.stream()
-                .map(quote -> transformSalesQuoteData(quote, executionDTO.getColumns()))
-                .collect(Collectors.toList());
-
-        ReportResultDTO result = new ReportResultDTO();
-        result.setColumns(executionDTO.getColumns());
-        result.setRows(rows);
-        result.setTotalRecords(rows.size());
-        result.setExecutedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
-
-        return result;
+    private <T> Source fetch(ModuleFields<T> fields, Function<UpstreamQuery, List<T>> client,
+                             UpstreamQuery query, FilterPlan plan) {
+        return new Source(ColumnarTable.of(fields, client.apply(query)),
+                plan.without(query.getPushedFilters()), "upstream", null, Map.of(), null);
     }
 
-    private List<SalesQuoteDataDTO> applySalesQuoteFilters(List<SalesQuoteDataDTO> quotes,
-                                                            Map<String, Object> filters,
-                                                            String userId) {
-        if (filters == null || filters.isEmpty()) {
-            return quotes;
+    /* ===================== RESULT ===================== */
+
+    /**
+     * Group the selection. A single date group with a {@code timeBucket} is
+     * bucketed by calendar period, from the module's per-day rollup and
+     * sketches when the selection is the whole snapshot, or the snapshot
+     * narrowed only by a date range on the bucketed field, and the buckets
+     * follow the storage zone; otherwise by scanning the rows.
+     */
+    private GroupAggregator.Result aggregate(ReportExecutionDTO executionDTO, Selection selection) {
+        ColumnarTable table = selection.table();
+        int[] rows = selection.rows();
+        TimeBucket bucket = TimeBucket.fromName(executionDTO.getTimeBucket());
+        List<String> groups = executionDTO.getGroups();
+        if (bucket == null || groups.size() != 1 || table.require(groups.get(0)).type() != FieldType.DATE_TIME) {
+            return groupAggregator.aggregate(table, rows, groups, executionDTO.getAggregations());
         }
 
-        LocalDate fromDate = parseLocalDate(filters.get("createdDateFrom"));
-        LocalDate toDate = parseLocalDate(filters.get("createdDateTo"));
-
-        return quotes.stream()
-                .filter(quote -> {
-                    if (filters.containsKey("show")) {
-                        String show = String.valueOf(filters.get("show"));
-                        if (show != null && show.toUpperCase().contains("MY")) {
-                            if (quote.getQuoteOwnerId() == null || !quote.getQuoteOwnerId().equals(userId)) {
-                                return false;
-                            }
-                        }
-                    }
-
-                    LocalDate created = quote.getCreatedAt() != null
-                            ? quote.getCreatedAt().toLocalDate()
-                            : null;
-
-                    if (fromDate != null && created != null && created.isBefore(fromDate)) {
-                        return false;
-                    }
-                    if (toDate != null && created != null && created.isAfter(toDate)) {
-                        return false;
-                    }
-
-                    return true;
-                })
-                .collect(Collectors.toList());
+        // Rollups are kept under the field's own name, not its aliases
+        FieldAccessor<?> accessor = ModuleFieldRegistry.forModule(table.getModule()).get(groups.get(0));
+        String field = accessor != null ? accessor.name() : groups.get(0);
+        ZoneId storage = storageZone == null || storageZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(storageZone);
+        ZoneId zone = executionDTO.getTimeZone() == null || executionDTO.getTimeZone().isBlank()
+                ? storage : parseZone(executionDTO.getTimeZone());
+
+        FilterPlan.DayRange range = rollupRange(selection.plan(), field);
+        if (range != null && zone.equals(storage) && moduleSnapshotService.isEnabled()) {
+            DayRollup rollup = moduleSnapshotService.rollup(table.getModule(), table, field);
+            DaySketches sketches = moduleSnapshotService.sketches(table.getModule(), table, field);
+            if (rollup != null && TimeBucketAggregator.supports(rollup, sketches, executionDTO.getAggregations())) {
+                log.info("Bucketing {} by {} from the per-day rollup ({} day cells)", field, bucket, rollup.days());
+                return timeBucketAggregator.aggregate(rollup, sketches, bucket, executionDTO.getAggregations(),
+                        range.from(), range.to());
+            }
+        }
+        return timeBucketAggregator.aggregate(table, rows, groups.get(0), bucket, storage, zone,
+                executionDTO.getAggregations());
     }
 
-    private Map<String, Object> transformSalesQuoteData(SalesQuoteDataDTO quote, List<String> columns) {
-        Map<String, Object> row = new LinkedHashMap<>();
-
-        for (String column : columns) {
-            Object value = switch (column) {
-                case "Sales Quotes Name" -> quote.getSubject();
-                case "Sales Quotes ID" -> quote.getQuoteId();
-                case "Sales Quotes Owner" -> quote.getQuoteOwnerId();
-                case "Opportunities Name" -> quote.getOpportunity() != null ? quote.getOpportunity().getName() : null;
-                case "Created At" -> quote.getCreatedAt();
-                case "Status" -> quote.getStatus();
-                case "Amount" -> quote.getAmount();
-                case "Success Rate" -> quote.getSuccessRate();
-                case "Due Date" -> quote.getDueDate();
-                default -> null;
-            };
-            row.put(column, value);
+    /**
+     * Day range the per-day rollup of {@code field} must be read over to
+     * reproduce a selection made with {@code plan}: unbounded for an empty
+     * plan, the plan's own range when that is its only predicate and is on
+     * {@code field}, otherwise null (the rollup cannot answer it).
+     */
+    private static FilterPlan.DayRange rollupRange(FilterPlan plan, String field) {
+        if (plan == null) {
+            return null;
         }
-
-        return row;
+        if (plan.isEmpty()) {
+            return new FilterPlan.DayRange(field, null, null);
+        }
+        return plan.predicates().size() == 1
+                && plan.predicates().get(0) instanceof FilterPlan.DayRange range && range.field().equals(field)
+                ? range : null;
     }
 
-    /* ===================== SALES ORDER ===================== */
-
-    private ReportResultDTO executeSalesOrderReport(ReportExecutionDTO executionDTO, String userId) {
-        List<SalesOrderDataDTO> allOrders = salesOrderManagementClient.fetchAllSalesOrders();
-        log.info("Fetched {} sales orders from Sales Order service", allOrders.size());
-
-        List<SalesOrderDataDTO> filtered = applySalesOrderFilters(allOrders, executionDTO.getFilters(), userId);
-        log.info("After filtering sales orders: {}", filtered.size());
-
-        List<Map<String, Object>> rows = filtered.stream()
-                .map(order -> transformSalesOrderData(order, executionDTO.getColumns()))
-                .collect(Collectors.toList());
+    private static ZoneId parseZone(String zone) {
+        try {
+            return ZoneId.of(zone.trim());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Unknown time zone: " + zone);
+        }
+    }
 
+    private ReportResultDTO buildResult(ReportExecutionDTO executionDTO, Selection selection,
+                                        ExecutionProgress progress) {
+        ColumnarTable table = selection.table();
+        int[] rows = selection.rows();
         ReportResultDTO result = new ReportResultDTO();
         result.setColumns(executionDTO.getColumns());
-        result.setRows(rows);
-        result.setTotalRecords(rows.size());
-        result.setExecutedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
-
-        return result;
-    }
-
-    private List<SalesOrderDataDTO> applySalesOrderFilters(List<SalesOrderDataDTO> orders,
-                                                            Map<String, Object> filters,
-                                                            String userId) {
-        if (filters == null || filters.isEmpty()) {
-            return orders;
+        result.setTotalRecords(rows.length);
+
+        boolean grouped = executionDTO.getGroups() != null && !executionDTO.getGroups().isEmpty();
+        if (grouped) {
+            GroupAggregator.Result aggregated = aggregate(executionDTO, selection);
+            result.setGroups(aggregated.groups());
+            result.setTotals(aggregated.totals());
+            log.info("Grouped {} records into {} top-level groups", rows.length, aggregated.groups().size());
+            progress.checkCancelled();
         }
 
-        LocalDate fromDate = parseLocalDate(filters.get("createdDateFrom"));
-        LocalDate toDate = parseLocalDate(filters.get("createdDateTo"));
-
-        return orders.stream()
-                .filter(order -> {
-                    if (filters.containsKey("show")) {
-                        String show = String.valueOf(filters.get("show"));
-                        if (show != null && show.toUpperCase().contains("MY")) {
-                            if (order.getOwnerId() == null || !order.getOwnerId().equals(userId)) {
-                                return false;
-                            }
-                        }
-                    }
+        boolean pivoted = executionDTO.getPivot() != null;
+        if (pivoted) {
+            result.setPivot(pivotAggregator.aggregate(table, rows, executionDTO.getPivot()));
+            log.info("Pivoted {} records into {} x {} cells", rows.length,
+                    result.getPivot().getRowHeaders().size(), result.getPivot().getColumnHeaders().size());
+            progress.checkCancelled();
+        }
 
-                    LocalDate created = order.getCreatedAt() != null
-                            ? order.getCreatedAt().toLocalDate()
-                            : null;
+        // Grouped reports may skip the detail rows; plain reports always carry them
+        // and pivots never do.
+        if (!pivoted && (!grouped || !Boolean.FALSE.equals(executionDTO.getIncludeRows()))) {
+            RowSorter.Page page = page(executionDTO, table, rows);
+            result.setNextCursor(page.nextCursor());
+            Projection projection = Projection.compile(table, executionDTO.getColumns());
+            if (Boolean.TRUE.equals(executionDTO.getCompact())) {
+                result.setRows(Collections.emptyList());
+                result.setRowValues(projectValues(projection, page.rows(), progress));
+            } else {
+                result.setRows(project(projection, page.rows(), progress));
+            }
+        } else {
+            result.setRows(Collections.emptyList());
+        }
 
-                    if (fromDate != null && created != null && created.isBefore(fromDate)) {
-                        return false;
-                    }
-                    if (toDate != null && created != null && created.isAfter(toDate)) {
-                        return false;
-                    }
+        result.setExecutedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+        return result;
+    }
 
-                    return true;
-                })
-                .collect(Collectors.toList());
+    /**
+     * Sort the selection and cut the requested page; without sort keys or a
+     * page size the selection is returned as is.
+     */
+    private RowSorter.Page page(ReportExecutionDTO executionDTO, ColumnarTable table, int[] rows) {
+        RowSorter sorter = RowSorter.compile(table, executionDTO.getSort());
+        return sorter.page(rows, executionDTO.getCursor(), executionDTO.getPageSize());
     }
 
-    private Map<String, Object> transformSalesOrderData(SalesOrderDataDTO order, List<String> columns) {
-        Map<String, Object> row = new LinkedHashMap<>();
-
-        for (String column : columns) {
-            Object value = switch (column) {
-                case "Sales Order Name" -> order.getSubject();
-                case "Sales Order ID" -> order.getOrderId();
-                case "Sales Order Owner" -> order.getOwnerId();
-                case "Opportunities Name" -> order.getOpportunity() != null ? order.getOpportunity().getName() : null;
-                case "Created At" -> order.getCreatedAt();
-                case "Status" -> order.getStatus();
-                case "Amount" -> order.getAmount();
-                case "Purchase Order" -> order.getPurchaseOrder();
-                case "Due Date" -> order.getDueDate();
-                case "Commission" -> order.getCommission();
-                case "Budget" -> order.getBudget();
-                default -> null;
-            };
-            row.put(column, value);
+    /**
+     * Materialize the selected rows keyed by column name.
+     */
+    private List<Map<String, Object>> project(Projection projection, int[] rows, ExecutionProgress progress) {
+        List<Map<String, Object>> result = new ArrayList<>(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            result.add(projection.toMap(rows[i]));
+            reportProjected(progress, i + 1, rows.length);
         }
-
-        return row;
+        return result;
     }
 
-    /* ===================== COMMON ===================== */
+    /**
+     * Materialize the selected rows as positional arrays matching {@code columns}.
+     */
+    private List<Object[]> projectValues(Projection projection, int[] rows, ExecutionProgress progress) {
+        List<Object[]> result = new ArrayList<>(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            result.add(projection.toArray(rows[i]));
+            reportProjected(progress, i + 1, rows.length);
+        }
+        return result;
+    }
 
-    private LocalDate parseLocalDate(Object dateObj) {
-        if (dateObj == null) return null;
-        try {
-            return LocalDate.parse(dateObj.toString());
-        } catch (Exception e) {
-            log.warn("Failed to parse LocalDate from: {}", dateObj);
-            return null;
+    private void reportProjected(ExecutionProgress progress, int done, int total) {
+        if (done % PROGRESS_ROWS == 0 || done == total) {
+            progress.projected(done % PROGRESS_ROWS == 0 ? PROGRESS_ROWS : done % PROGRESS_ROWS);
+            progress.checkCancelled();
         }
     }
 }
@@ -0,0 +1,241 @@
+package com.galvinusanalytics.backend_at.service;
+
+import com.galvinusanalytics.backend_at.dto.ReportExecutionDTO;
+import com.galvinusanalytics.backend_at.dto.ReportJobDTO;
+import com.galvinusanalytics.backend_at.dto.ReportResultDTO;
+import com.galvinusanalytics.backend_at.entity.Report;
+import com.galvinusanalytics.backend_at.repository.ReportRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs saved reports as background jobs, so heavy reports do not hold a
+ * request thread and the browser connection for the whole run.
+ * <p>
+ * At most {@code analytics.jobs.max-concurrent} jobs run at once, with up to
+ * {@code analytics.jobs.queue-capacity} waiting; further submissions are
+ * rejected. Finished jobs keep their result for
+ * {@code analytics.jobs.retention-minutes}. Cancellation is cooperative: a
+ * running job stops at its next progress checkpoint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportJobService {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+    private final ReportRepository reportRepository;
+    private final ReportDefinitionMapper reportDefinitionMapper;
+    private final ReportExecutionService reportExecutionService;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @Value("${analytics.jobs.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${analytics.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${analytics.jobs.retention-minutes:30}")
+    private long retentionMinutes;
+
+    private static final class Job implements ExecutionProgress {
+        final String id = UUID.randomUUID().toString();
+        final Long reportId;
+        final String userId;
+        final Instant submittedAt = Instant.now();
+        final AtomicLong fetched = new AtomicLong();
+        final AtomicLong filtered = new AtomicLong();
+        final AtomicLong projected = new AtomicLong();
+        volatile Status status = Status.QUEUED;
+        volatile boolean cancelled;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile String error;
+        volatile ReportResultDTO result;
+        volatile Future<?> future;
+
+        Job(Long reportId, String userId) {
+            this.reportId = reportId;
+            this.userId = userId;
+        }
+
+        @Override
+        public void fetched(long rows) {
+            fetched.set(rows);
+        }
+
+        @Override
+        public void filtered(long rows) {
+            filtered.set(rows);
+        }
+
+        @Override
+        public void projected(long rows) {
+            projected.addAndGet(rows);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("report-job-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue an execution of a saved report. The report must belong to the
+     * user or be public, as for running it directly.
+     *
+     * @throws RejectedExecutionException when the job queue is full
+     */
+    public ReportJobDTO submit(Long reportId, String userId) {
+        Report report = reportRepository.findById(reportId)
+                .orElseThrow(() -> new IllegalArgumentException("Report not found"));
+
+        if (!report.getUserId().equals(userId) && !"PUBLIC".equals(report.getVisibility())) {
+            throw new IllegalArgumentException("Unauthorized");
+        }
+
+        ReportExecutionDTO executionDTO = reportDefinitionMapper.toExecutionDTO(report);
+        purgeExpired();
+
+        Job job = new Job(reportId, userId);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job, executionDTO));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new RejectedExecutionException("Too many report jobs queued, try again later");
+        }
+        log.info("Queued report job {} for report {} (user {})", job.id, reportId, userId);
+        return toDTO(job);
+    }
+
+    public ReportJobDTO getJob(String jobId, String userId) {
+        return toDTO(find(jobId, userId));
+    }
+
+    /**
+     * Cancel a queued or running job; finished jobs are left as they are.
+     */
+    public ReportJobDTO cancel(String jobId, String userId) {
+        Job job = find(jobId, userId);
+        if (job.status == Status.QUEUED || job.status == Status.RUNNING) {
+            job.cancelled = true;
+            Future<?> future = job.future;
+            if (future != null && future.cancel(false)) {
+                // Never started: record the cancellation here, the task will not run
+                finish(job, Status.CANCELLED, null);
+            }
+            log.info("Cancellation requested for report job {}", jobId);
+        }
+        return toDTO(job);
+    }
+
+    /**
+     * @throws IllegalStateException when the job has not succeeded
+     */
+    public ReportResultDTO getResult(String jobId, String userId) {
+        Job job = find(jobId, userId);
+        if (job.status != Status.SUCCEEDED) {
+            throw new IllegalStateException("Report job is " + job.status);
+        }
+        return job.result;
+    }
+
+    private void run(Job job, ReportExecutionDTO executionDTO) {
+        if (job.cancelled) {
+            finish(job, Status.CANCELLED, null);
+            return;
+        }
+        job.startedAt = Instant.now();
+        job.status = Status.RUNNING;
+        try {
+            job.result = reportExecutionService.executeReport(executionDTO, job.userId, job);
+            finish(job, Status.SUCCEEDED, null);
+        } catch (CancellationException e) {
+            finish(job, Status.CANCELLED, null);
+        } catch (Exception e) {
+            log.error("Report job {} failed", job.id, e);
+            finish(job, Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(Job job, Status status, String error) {
+        job.error = error;
+        job.finishedAt = Instant.now();
+        job.status = status;
+        log.info("Report job {} {} after fetching {} and projecting {} rows",
+                job.id, status, job.fetched.get(), job.projected.get());
+    }
+
+    private Job find(String jobId, String userId) {
+        purgeExpired();
+        Job job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new IllegalArgumentException("Report job not found");
+        }
+        return job;
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retentionMinutes, ChronoUnit.MINUTES);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private ReportJobDTO toDTO(Job job) {
+        ReportJobDTO dto = new ReportJobDTO();
+        dto.setJobId(job.id);
+        dto.setReportId(job.reportId);
+        dto.setStatus(job.status.name());
+        dto.setRowsFetched(job.fetched.get());
+        dto.setRowsFiltered(job.filtered.get());
+        dto.setRowsProjected(job.projected.get());
+        dto.setError(job.error);
+        dto.setSubmittedAt(format(job.submittedAt));
+        dto.setStartedAt(format(job.startedAt));
+        dto.setFinishedAt(format(job.finishedAt));
+        dto.setExpiresAt(job.finishedAt != null
+                ? format(job.finishedAt.plus(retentionMinutes, ChronoUnit.MINUTES)) : null);
+        return dto;
+    }
+
+    private String format(Instant instant) {
+        return instant != null
+                ? LocalDateTime.ofInstant(instant, ZoneId.systemDefault()).format(DateTimeFormatter.ISO_DATE_TIME)
+                : null;
+    }
+}
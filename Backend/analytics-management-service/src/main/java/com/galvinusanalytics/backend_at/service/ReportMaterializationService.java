@@ -0,0 +1,136 @@
+package com.galvinusanalytics.backend_at.service;
+
+import com.galvinusanalytics.backend_at.dto.ReportExecutionDTO;
+import com.galvinusanalytics.backend_at.dto.ReportResultDTO;
+import com.galvinusanalytics.backend_at.entity.Dashboard;
+import com.galvinusanalytics.backend_at.entity.Report;
+import com.galvinusanalytics.backend_at.repository.DashboardRepository;
+import com.galvinusanalytics.backend_at.repository.ReportRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically re-runs the reports people open all the time, so they are
+ * served from {@link MaterializedResultStore} instead of hitting the module
+ * services on open.
+ * <p>
+ * Every {@code analytics.materialize.interval-ms} the favourite reports and
+ * the tiles of every dashboard are collected, each run as its owner would run
+ * it. Runs are spread evenly over {@code analytics.materialize.spread-ms} and
+ * executed by at most {@code analytics.materialize.workers} threads, so a
+ * round never bursts the upstreams. A target still queued or running from the
+ * previous round is skipped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportMaterializationService {
+
+    private final ReportRepository reportRepository;
+    private final DashboardRepository dashboardRepository;
+    private final DashboardService dashboardService;
+    private final ReportDefinitionMapper reportDefinitionMapper;
+    private final ReportExecutionService reportExecutionService;
+    private final MaterializedResultStore materializedResultStore;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private ScheduledThreadPoolExecutor executor;
+
+    @Value("${analytics.materialize.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.materialize.workers:2}")
+    private int workers;
+
+    @Value("${analytics.materialize.spread-ms:60000}")
+    private long spreadMs;
+
+    private record Target(Long reportId, String userId, ReportExecutionDTO executionDTO) {
+
+        /** Identifies the run across rounds; tiles of one report differ in groups and measures. */
+        String key() {
+            return userId + "|" + executionDTO;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        executor = new ScheduledThreadPoolExecutor(workers, Thread.ofPlatform().name("report-materializer-", 0).daemon().factory());
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.materialize.interval-ms:300000}",
+            initialDelayString = "${analytics.materialize.initial-delay-ms:30000}")
+    public void materializeAll() {
+        if (!enabled) {
+            return;
+        }
+        materializedResultStore.purgeExpired();
+
+        List<Target> targets = collectTargets();
+        int scheduled = 0;
+        for (int i = 0; i < targets.size(); i++) {
+            Target target = targets.get(i);
+            if (!pending.add(target.key())) {
+                continue;
+            }
+            long delayMs = spreadMs * i / targets.size();
+            executor.schedule(() -> materialize(target), delayMs, TimeUnit.MILLISECONDS);
+            scheduled++;
+        }
+        log.info("Scheduled {} of {} report materializations ({} skipped as still pending)",
+                scheduled, targets.size(), targets.size() - scheduled);
+    }
+
+    private List<Target> collectTargets() {
+        Map<String, Target> targets = new LinkedHashMap<>();
+        for (Report report : reportRepository.findByIsFavouriteTrue()) {
+            try {
+                Target target = new Target(report.getId(), report.getUserId(),
+                        reportDefinitionMapper.toExecutionDTO(report));
+                targets.putIfAbsent(target.key(), target);
+            } catch (Exception e) {
+                log.warn("Skipping materialization of report {}: {}", report.getId(), e.getMessage());
+            }
+        }
+        for (Dashboard dashboard : dashboardRepository.findAll()) {
+            for (ReportExecutionDTO executionDTO : dashboardService.tileExecutions(dashboard.getId())) {
+                Target target = new Target(executionDTO.getReportId(), dashboard.getUserId(), executionDTO);
+                targets.putIfAbsent(target.key(), target);
+            }
+        }
+        return new ArrayList<>(targets.values());
+    }
+
+    private void materialize(Target target) {
+        try {
+            ReportResultDTO result = reportExecutionService.materialize(target.executionDTO(), target.userId());
+            reportRepository.updateLastRunAt(target.reportId(), LocalDateTime.parse(result.getExecutedAt()));
+        } catch (Exception e) {
+            log.warn("Materialization of report {} for {} failed: {}",
+                    target.reportId(), target.userId(), e.getMessage());
+        } finally {
+            pending.remove(target.key());
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.galvinusanalytics.backend_at.service;
+
+import com.galvinusanalytics.backend_at.dto.GroupResultDTO;
+import com.galvinusanalytics.backend_at.dto.ReportResultDTO;
+import com.galvinusanalytics.backend_at.engine.ReportModule;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of report results keyed by execution fingerprint.
+ * <p>
+ * Entries are fresh for the module's TTL
+ * ({@code analytics.cache.ttl-seconds.<module>}, falling back to
+ * {@code analytics.cache.ttl-seconds}). For a further
+ * {@code analytics.cache.stale-seconds} a stale entry is still served while
+ * one background refresh replaces it. The cache holds at most
+ * {@code analytics.cache.max-bytes} of estimated result size and evicts the
+ * least recently used entries beyond that. Entries built from a saved report
+ * are dropped when that report changes.
+ * <p>
+ * When loading fails, for example because an upstream circuit is open, the
+ * last cached result for the key is returned regardless of age, flagged as
+ * {@code stale}. Expired entries are therefore kept until evicted.
+ * <p>
+ * Cached results are shared between callers and must not be modified.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReportResultCache {
+
+    private final Environment environment;
+
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    @Value("${analytics.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${analytics.cache.ttl-seconds:30}")
+    private long defaultTtlSeconds;
+
+    @Value("${analytics.cache.stale-seconds:300}")
+    private long staleSeconds;
+
+    private static final class Entry {
+        final ReportResultDTO result;
+        final ReportModule module;
+        final Set<Long> reportIds = new HashSet<>();
+        final long bytes;
+        final long loadedAt;
+        boolean refreshing;
+
+        Entry(ReportResultDTO result, ReportModule module, long bytes, long loadedAt) {
+            this.result = result;
+            this.module = module;
+            this.bytes = bytes;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cached result for {@code key}, loading it on a miss. A stale hit is
+     * returned immediately and refreshed in the background.
+     *
+     * @param reportId saved report the request was built from, or null
+     */
+    public ReportResultDTO get(String key, ReportModule module, Long reportId, Supplier<ReportResultDTO> loader) {
+        long now = System.nanoTime();
+        boolean refresh = false;
+        ReportResultDTO cached = null;
+        ReportResultDTO expired = null;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                long age = now - entry.loadedAt;
+                long ttl = TimeUnit.SECONDS.toNanos(ttlSeconds(module));
+                if (age <= ttl) {
+                    tag(entry, reportId);
+                    return entry.result;
+                }
+                if (age <= ttl + TimeUnit.SECONDS.toNanos(staleSeconds)) {
+                    tag(entry, reportId);
+                    cached = entry.result;
+                    refresh = !entry.refreshing;
+                    entry.refreshing = true;
+                } else {
+                    expired = entry.result;
+                }
+            }
+        }
+
+        if (cached != null) {
+            if (refresh) {
+                refresher.submit(() -> refresh(key, module, reportId, loader));
+            }
+            log.debug("Serving stale {} result {}", module.getLabel(), key);
+            return cached;
+        }
+
+        ReportResultDTO result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException e) {
+            if (expired == null) {
+                throw e;
+            }
+            log.warn("Loading {} result failed, serving last cached result: {}", module.getLabel(), e.getMessage());
+            return staleCopy(expired);
+        }
+        put(key, module, reportId, result);
+        return result;
+    }
+
+    /**
+     * Drop every result computed for the given saved report.
+     */
+    public synchronized void invalidateReport(Long reportId) {
+        if (reportId == null) {
+            return;
+        }
+        int removed = 0;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.reportIds.contains(reportId)) {
+                totalBytes -= entry.bytes;
+                iterator.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Invalidated {} cached results of report {}", removed, reportId);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    /** A copy of {@code result} flagged stale, as of when its data was read. */
+    static ReportResultDTO staleCopy(ReportResultDTO result) {
+        ReportResultDTO copy = new ReportResultDTO();
+        copy.setColumns(result.getColumns());
+        copy.setRows(result.getRows());
+        copy.setRowValues(result.getRowValues());
+        copy.setTotalRecords(result.getTotalRecords());
+        copy.setNextCursor(result.getNextCursor());
+        copy.setExecutedAt(result.getExecutedAt());
+        copy.setGroups(result.getGroups());
+        copy.setTotals(result.getTotals());
+        copy.setPivot(result.getPivot());
+        copy.setWatermark(result.getWatermark());
+        copy.setRowKeys(result.getRowKeys());
+        copy.setStale(true);
+        copy.setDataAsOf(result.getDataAsOf() != null ? result.getDataAsOf() : result.getExecutedAt());
+        return copy;
+    }
+
+    private void refresh(String key, ReportModule module, Long reportId, Supplier<ReportResultDTO> loader) {
+        try {
+            put(key, module, reportId, loader.get());
+        } catch (Exception e) {
+            log.warn("Background refresh of {} result failed: {}", module.getLabel(), e.getMessage());
+            synchronized (this) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    entry.refreshing = false;
+                }
+            }
+        }
+    }
+
+    private synchronized void put(String key, ReportModule module, Long reportId, ReportResultDTO result) {
+        long bytes = estimateBytes(result);
+        Entry previous = entries.get(key);
+        if (bytes > maxBytes / 4) {
+            // One huge result would push out everything else; recompute it instead.
+            if (previous != null) {
+                remove(key);
+            }
+            log.debug("Not caching {} result of ~{} bytes", module.getLabel(), bytes);
+            return;
+        }
+
+        Entry entry = new Entry(result, module, bytes, System.nanoTime());
+        if (previous != null) {
+            entry.reportIds.addAll(previous.reportIds);
+            remove(key);
+        }
+        tag(entry, reportId);
+        entries.put(key, entry);
+        totalBytes += bytes;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.bytes;
+        }
+    }
+
+    private void tag(Entry entry, Long reportId) {
+        if (reportId != null) {
+            entry.reportIds.add(reportId);
+        }
+    }
+
+    /** How long results over the module are served as fresh. */
+    long ttlSeconds(ReportModule module) {
+        return environment.getProperty("analytics.cache.ttl-seconds." + module.name().toLowerCase(),
+                Long.class, defaultTtlSeconds);
+    }
+
+    /* ===================== SIZE ESTIMATE ===================== */
+
+    /**
+     * Rough retained size of a result: object headers, references and string
+     * payloads. Good enough to bound the cache, not an exact measurement.
+     */
+    static long estimateBytes(ReportResultDTO result) {
+        long bytes = 128;
+        bytes += estimateValue(result.getColumns());
+        bytes += estimateValue(result.getRows());
+        bytes += estimateValue(result.getRowValues());
+        bytes += estimateValue(result.getTotals());
+        if (result.getRowKeys() != null) {
+            bytes += 16L + 8L * result.getRowKeys().length;
+        }
+        if (result.getPivot() != null) {
+            bytes += estimateValue(result.getPivot().getRowHeaders());
+            bytes += estimateValue(result.getPivot().getColumnHeaders());
+            bytes += estimateValue(result.getPivot().getCells());
+            bytes += estimateValue(result.getPivot().getRowTotals());
+            bytes += estimateValue(result.getPivot().getColumnTotals());
+        }
+        if (result.getGroups() != null) {
+            for (GroupResultDTO group : result.getGroups()) {
+                bytes += estimateGroup(group);
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateGroup(GroupResultDTO group) {
+        long bytes = 64 + estimateValue(group.getValue()) + estimateValue(group.getAggregates());
+        if (group.getSubgroups() != null) {
+            for (GroupResultDTO subgroup : group.getSubgroups()) {
+                bytes += estimateGroup(subgroup);
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateValue(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String text) {
+            return 40 + 2L * text.length();
+        }
+        if (value instanceof Map<?, ?> map) {
+            long bytes = 48 + 36L * map.size();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                // Keys are usually shared column names; count the value only.
+                bytes += estimateValue(entry.getValue());
+            }
+            return bytes;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = 40 + 8L * collection.size();
+            for (Object element : collection) {
+                bytes += estimateValue(element);
+            }
+            return bytes;
+        }
+        if (value instanceof Object[] array) {
+            long bytes = 16 + 8L * array.length;
+            for (Object element : array) {
+                bytes += estimateValue(element);
+            }
+            return bytes;
+        }
+        return 24;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -1,8 +1,11 @@
 package com.galvinusanalytics.backend_at.service;
 
 import com.galvinusanalytics.backend_at.dto.ReportDTO;
+import com.galvinusanalytics.backend_at.dto.ReportExecutionDTO;
+import com.galvinusanalytics.backend_at.dto.ReportResultDTO;
 import com.galvinusanalytics.backend_at.entity.Report;
 import com.galvinusanalytics.backend_at.entity.Folder;
+import com.galvinusanalytics.backend_at.engine.ExportFormat;
 import com.galvinusanalytics.backend_at.exception.ValidationException;
 import com.galvinusanalytics.backend_at.repository.ReportRepository;
 import com.galvinusanalytics.backend_at.repository.FolderRepository;
@@ -11,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -23,6 +27,11 @@ public class ReportService {
     private final ReportRepository reportRepository;
     private final ReportValidator reportValidator;
     private final FolderRepository folderRepository;
+    private final ReportResultCache reportResultCache;
+    private final MaterializedResultStore materializedResultStore;
+    private final ReportDefinitionMapper reportDefinitionMapper;
+    private final ReportExecutionService reportExecutionService;
+    private final ReportBaselineStore reportBaselineStore;
 
     @Transactional
     public ReportDTO createReport(ReportDTO reportDTO, String userId) {
@@ -160,11 +169,20 @@ public class ReportService {
         }
         
         Report updatedReport = reportRepository.save(report);
+        reportResultCache.invalidateReport(reportId);
+        materializedResultStore.invalidateReport(reportId);
+        reportBaselineStore.invalidateReport(reportId);
         return convertToDTO(updatedReport);
     }
     
-    @Transactional
-    public ReportDTO runReport(Long reportId, String userId) {
+    /**
+     * Execute a saved report. Favourite reports are usually served from their
+     * last materialization, in which case {@code lastRunAt} is that time.
+     * In delta mode only the rows and groups that changed since this user's
+     * previous run are returned, in {@link ReportDTO#getDelta()}.
+     * Not transactional: the execution may call out to the module services.
+     */
+    public ReportDTO runReport(Long reportId, String userId, boolean delta) {
         Report report = reportRepository.findById(reportId)
                 .orElseThrow(() -> new IllegalArgumentException("Report not found"));
         
@@ -172,9 +190,52 @@ public class ReportService {
             throw new IllegalArgumentException("Unauthorized");
         }
         
-        report.setLastRunAt(LocalDateTime.now());
-        Report updatedReport = reportRepository.save(report);
-        return convertToDTO(updatedReport);
+        ReportExecutionDTO executionDTO = reportDefinitionMapper.toExecutionDTO(report);
+        ReportResultDTO result = null;
+        ReportExecutionService.Delta changes = null;
+        if (delta) {
+            ReportResultDTO previous = reportBaselineStore.get(reportId, userId);
+            changes = reportExecutionService.executeDelta(executionDTO, userId, previous);
+            reportBaselineStore.put(reportId, userId, changes.current());
+        } else {
+            result = reportExecutionService.executeReport(executionDTO, userId);
+            reportBaselineStore.put(reportId, userId, result);
+        }
+        
+        LocalDateTime runAt = LocalDateTime.parse(delta ? changes.current().getExecutedAt() : result.getExecutedAt());
+        reportRepository.updateLastRunAt(reportId, runAt);
+        if (report.getLastRunAt() == null || report.getLastRunAt().isBefore(runAt)) {
+            report.setLastRunAt(runAt);
+        }
+        
+        ReportDTO dto = convertToDTO(report);
+        dto.setResult(result);
+        dto.setDelta(delta ? changes.diff() : null);
+        return dto;
+    }
+    
+    public record Export(String fileName, ExportFormat format, StreamingResponseBody body) {
+    }
+
+    /**
+     * Export all rows of a saved report, which must belong to the user or be
+     * public. Not transactional: the rows are fetched and written after the
+     * report is loaded.
+     */
+    public Export exportReport(Long reportId, String userId, String format) {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        Report report = reportRepository.findById(reportId)
+                .orElseThrow(() -> new IllegalArgumentException("Report not found"));
+
+        if (!report.getUserId().equals(userId) && !"PUBLIC".equals(report.getVisibility())) {
+            throw new IllegalArgumentException("Unauthorized");
+        }
+
+        ReportExecutionDTO executionDTO = reportDefinitionMapper.toExecutionDTO(report);
+        StreamingResponseBody body = reportExecutionService.exportReport(executionDTO, userId, exportFormat);
+        String name = report.getReportName() != null && !report.getReportName().isBlank()
+                ? report.getReportName().trim() : "report-" + reportId;
+        return new Export(name + "." + exportFormat.getExtension(), exportFormat, body);
     }
     
     @Transactional
@@ -201,6 +262,9 @@ public class ReportService {
         }
         
         reportRepository.delete(report);
+        reportResultCache.invalidateReport(reportId);
+        materializedResultStore.invalidateReport(reportId);
+        reportBaselineStore.invalidateReport(reportId);
     }
     
     @Transactional(readOnly = true)
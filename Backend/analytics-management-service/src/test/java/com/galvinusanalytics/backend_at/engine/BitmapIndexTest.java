@@ -0,0 +1,91 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.module.LeadDataDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BitmapIndexTest {
+
+	private static final String FIELD = "Lead Status";
+	private static final String[] STATUSES = {"OPEN", "IN_PROGRESS", "CONVERTED", "LOST", null};
+
+	@Test
+	void indexesEachValueAndSkipsNulls() {
+		ColumnarTable table = leads(Arrays.asList("OPEN", "LOST", "OPEN", "Open", null));
+
+		BitmapIndex index = BitmapIndex.build(table, FIELD);
+
+		assertEquals(3, index.distinctValues());
+		assertArrayEquals(new int[] {0, 2}, index.get("OPEN").toArray());
+		assertArrayEquals(new int[] {0, 2, 3}, index.getIgnoreCase("open").toArray());
+		assertEquals(0, index.get("MISSING").cardinality());
+	}
+
+	@Test
+	void updateMatchesARebuild() {
+		Random random = new Random(11);
+		List<String> before = new ArrayList<>();
+		for (int row = 0; row < 150_000; row++) {
+			before.add(STATUSES[random.nextInt(STATUSES.length)]);
+		}
+		List<String> after = new ArrayList<>(before);
+		int[] replaced = new int[5_000];
+		int count = 0;
+		for (int row = random.nextInt(30); row < before.size() && count < replaced.length; row += 1 + random.nextInt(60)) {
+			after.set(row, STATUSES[random.nextInt(STATUSES.length)]);
+			replaced[count++] = row;
+		}
+		for (int row = 0; row < 20_000; row++) {
+			after.add(STATUSES[random.nextInt(STATUSES.length)]);
+		}
+		ColumnarTable beforeTable = leads(before);
+		ColumnarTable afterTable = leads(after);
+
+		BitmapIndex updated = BitmapIndex.build(beforeTable, FIELD).update(beforeTable, afterTable, replaced, count);
+		BitmapIndex rebuilt = BitmapIndex.build(afterTable, FIELD);
+
+		assertEquals(rebuilt.distinctValues(), updated.distinctValues());
+		for (String status : STATUSES) {
+			if (status != null) {
+				assertArrayEquals(rebuilt.get(status).toArray(), updated.get(status).toArray(), status);
+			}
+		}
+	}
+
+	@Test
+	void updateDropsValuesThatNoLongerOccur() {
+		ColumnarTable before = leads(List.of("OPEN", "LOST"));
+		ColumnarTable after = leads(List.of("OPEN", "OPEN"));
+
+		BitmapIndex updated = BitmapIndex.build(before, FIELD).update(before, after, new int[] {1}, 1);
+
+		assertEquals(1, updated.distinctValues());
+		assertArrayEquals(new int[] {0, 1}, updated.get("OPEN").toArray());
+	}
+
+	@Test
+	void updateWithoutChangesKeepsTheIndex() {
+		ColumnarTable table = leads(List.of("OPEN", "LOST"));
+		BitmapIndex index = BitmapIndex.build(table, FIELD);
+
+		assertSame(index, index.update(table, table, new int[] {0, 1}, 2));
+	}
+
+	private static ColumnarTable leads(List<String> statuses) {
+		List<LeadDataDTO> leads = new ArrayList<>(statuses.size());
+		for (String status : statuses) {
+			LeadDataDTO lead = new LeadDataDTO();
+			lead.setLeadStatus(status);
+			leads.add(lead);
+		}
+		return ColumnarTable.of(ModuleFieldRegistry.LEAD, leads);
+	}
+}
@@ -0,0 +1,72 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+	// Three standard errors of a 2^12-register sketch
+	private static final double TOLERANCE = 3 * 1.04 / Math.sqrt(1 << HyperLogLog.PRECISION);
+
+	@Test
+	void emptySketchEstimatesZero() {
+		HyperLogLog sketch = new HyperLogLog();
+
+		assertTrue(sketch.isEmpty());
+		assertEquals(0L, sketch.estimate());
+	}
+
+	@Test
+	void estimatesSmallCardinalitiesClosely() {
+		for (int n : new int[] {1, 10, 100}) {
+			long estimate = sketch(0, n).estimate();
+			assertTrue(Math.abs(estimate - n) <= Math.max(1, n * 0.02), n + " estimated as " + estimate);
+		}
+	}
+
+	@Test
+	void staysWithinTheErrorBoundAcrossSparseAndDenseForms() {
+		for (int n : new int[] {1_000, 5_000, 50_000, 1_000_000}) {
+			assertWithinBound(n, sketch(0, n).estimate());
+		}
+	}
+
+	@Test
+	void ignoresDuplicates() {
+		HyperLogLog sketch = sketch(0, 10_000);
+		long estimate = sketch.estimate();
+		for (int i = 0; i < 10_000; i++) {
+			sketch.add(HyperLogLog.hash("value-" + i));
+		}
+
+		assertEquals(estimate, sketch.estimate());
+	}
+
+	@Test
+	void mergeEstimatesTheUnion() {
+		HyperLogLog sparse = sketch(0, 500);
+		HyperLogLog dense = sketch(250, 60_000);
+		HyperLogLog merged = sparse.copy();
+		merged.merge(dense);
+
+		assertWithinBound(60_000, merged.estimate());
+		assertEquals(sketch(0, 60_000).estimate(), merged.estimate());
+		assertEquals(sketch(0, 500).estimate(), sparse.estimate());
+	}
+
+	private static void assertWithinBound(long expected, long estimate) {
+		double error = Math.abs(estimate - expected) / (double) expected;
+		assertTrue(error <= TOLERANCE, expected + " estimated as " + estimate);
+	}
+
+	/** Sketch of the distinct values {@code value-from} .. {@code value-(to - 1)}. */
+	private static HyperLogLog sketch(int from, int to) {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = from; i < to; i++) {
+			sketch.add(HyperLogLog.hash("value-" + i));
+		}
+		return sketch;
+	}
+}
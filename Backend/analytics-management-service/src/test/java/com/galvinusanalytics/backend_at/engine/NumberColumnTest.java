@@ -0,0 +1,46 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NumberColumnTest {
+
+	private static final ModuleFields<Object[]> FIELDS = new ModuleFields<Object[]>(ReportModule.LEAD)
+			.number("Value", row -> row[0]);
+
+	@Test
+	void keepsIntegersAsIntegers() {
+		Column column = column(1, (short) 2, null);
+
+		assertEquals(Integer.valueOf(1), column.get(0));
+		assertEquals(Integer.valueOf(2), column.get(1));
+		assertNull(column.get(2));
+	}
+
+	@Test
+	void keepsLongsBeyondTheIntRange() {
+		long large = 3_000_000_000L;
+		Column column = column(7, large);
+
+		assertEquals(Long.valueOf(7), column.get(0));
+		assertEquals(Long.valueOf(large), column.get(1));
+	}
+
+	@Test
+	void fallsBackToDoublesForFractionalValues() {
+		Column column = column(1L, 2.5);
+
+		assertEquals(Double.valueOf(1.0), column.get(0));
+		assertEquals(Double.valueOf(2.5), column.get(1));
+	}
+
+	private static Column column(Object... values) {
+		List<Object[]> rows = Arrays.stream(values).map(value -> new Object[] {value}).toList();
+		return ColumnarTable.of(FIELDS, rows).require("Value");
+	}
+}
@@ -0,0 +1,100 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowBitmapTest {
+
+	private static final int CHUNK = 1 << 16;
+
+	// Per-chunk densities: above 4096 rows a chunk is a bitset, below it an array.
+	// Chunk 2 is dense on one side and sparse on the other; chunk 3 exists only in the left operand.
+	private static final double[] LEFT = {0.5, 0.01, 0.6, 0.02, 0.0};
+	private static final double[] RIGHT = {0.5, 0.03, 0.005, 0.0, 0.4};
+
+	@Test
+	void roundTripsRowsThroughArrayAndBitsetChunks() {
+		BitSet expected = rows(new Random(1), LEFT);
+		RowBitmap bitmap = bitmap(expected);
+
+		assertEquals(expected.cardinality(), bitmap.cardinality());
+		assertArrayEquals(expected.stream().toArray(), bitmap.toArray());
+		for (int row = 0; row < LEFT.length * CHUNK; row += 97) {
+			assertEquals(expected.get(row), bitmap.contains(row), "contains " + row);
+		}
+	}
+
+	@Test
+	void andMatchesBitSet() {
+		BitSet left = rows(new Random(2), LEFT);
+		BitSet right = rows(new Random(3), RIGHT);
+		BitSet expected = (BitSet) left.clone();
+		expected.and(right);
+
+		assertMatches(expected, bitmap(left).and(bitmap(right)));
+		assertMatches(expected, bitmap(right).and(bitmap(left)));
+	}
+
+	@Test
+	void orMatchesBitSet() {
+		BitSet left = rows(new Random(4), LEFT);
+		BitSet right = rows(new Random(5), RIGHT);
+		BitSet expected = (BitSet) left.clone();
+		expected.or(right);
+
+		assertMatches(expected, bitmap(left).or(bitmap(right)));
+		assertMatches(expected, bitmap(right).or(bitmap(left)));
+	}
+
+	@Test
+	void andNotMatchesBitSet() {
+		BitSet left = rows(new Random(6), LEFT);
+		BitSet right = rows(new Random(7), RIGHT);
+		BitSet leftOnly = (BitSet) left.clone();
+		leftOnly.andNot(right);
+		BitSet rightOnly = (BitSet) right.clone();
+		rightOnly.andNot(left);
+
+		assertMatches(leftOnly, bitmap(left).andNot(bitmap(right)));
+		assertMatches(rightOnly, bitmap(right).andNot(bitmap(left)));
+	}
+
+	@Test
+	void dropsChunksThatBecomeEmpty() {
+		RowBitmap bitmap = bitmap(rows(new Random(8), LEFT));
+
+		assertTrue(bitmap.andNot(bitmap).isEmpty());
+		assertTrue(bitmap.and(RowBitmap.EMPTY).isEmpty());
+		assertFalse(bitmap.or(RowBitmap.EMPTY).isEmpty());
+		assertEquals(0, bitmap.andNot(bitmap).toArray().length);
+	}
+
+	private static void assertMatches(BitSet expected, RowBitmap actual) {
+		assertEquals(expected.cardinality(), actual.cardinality());
+		assertArrayEquals(expected.stream().toArray(), actual.toArray());
+	}
+
+	private static BitSet rows(Random random, double[] densities) {
+		BitSet rows = new BitSet();
+		for (int chunk = 0; chunk < densities.length; chunk++) {
+			for (int low = 0; low < CHUNK; low++) {
+				if (random.nextDouble() < densities[chunk]) {
+					rows.set(chunk * CHUNK + low);
+				}
+			}
+		}
+		return rows;
+	}
+
+	private static RowBitmap bitmap(BitSet rows) {
+		int[] values = rows.stream().toArray();
+		return RowBitmap.of(values, values.length);
+	}
+}
@@ -0,0 +1,107 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.SortDTO;
+import com.galvinusanalytics.backend_at.dto.module.LeadDataDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RowSorterTest {
+
+	@Test
+	void pagesThroughLongTextKeys() {
+		// Longer than the 65,535 encoded bytes DataOutputStream.writeUTF accepts
+		String prefix = "\u00e9".repeat(40_000);
+		List<LeadDataDTO> leads = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			leads.add(lead(prefix + (4 - i), (double) i));
+		}
+		ColumnarTable table = ColumnarTable.of(ModuleFieldRegistry.LEAD, leads);
+		RowSorter sorter = RowSorter.compile(table, List.of(sort("Title", "ASC")));
+
+		assertArrayEquals(new int[] {4, 3, 2, 1, 0}, pageThrough(sorter, table, 2));
+	}
+
+	@Test
+	void pagesMatchTheFullSortWithTiesAndNulls() {
+		Random random = new Random(31);
+		List<LeadDataDTO> leads = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			String title = random.nextInt(10) == 0 ? null : "Title " + random.nextInt(7);
+			Double budget = random.nextInt(10) == 0 ? null : (double) random.nextInt(5);
+			leads.add(lead(title, budget));
+		}
+		ColumnarTable table = ColumnarTable.of(ModuleFieldRegistry.LEAD, leads);
+		RowSorter sorter = RowSorter.compile(table, List.of(sort("Title", "ASC"), sort("Budget", "DESC")));
+
+		int[] sorted = sorter.sort(IntStream.range(0, table.rowCount()).toArray());
+		for (int pageSize : new int[] {1, 7, 64, 500}) {
+			assertArrayEquals(sorted, pageThrough(sorter, table, pageSize), "page size " + pageSize);
+		}
+	}
+
+	@Test
+	void rejectsACursorFromAnotherSort() {
+		ColumnarTable table = ColumnarTable.of(ModuleFieldRegistry.LEAD, List.of(lead("a", 1.0), lead("b", 2.0)));
+		int[] rows = {0, 1};
+		String cursor = RowSorter.compile(table, List.of(sort("Title", "ASC"))).page(rows, null, 1).nextCursor();
+		RowSorter other = RowSorter.compile(table, List.of(sort("Title", "DESC")));
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> other.page(rows, cursor, 1));
+		assertEquals("Cursor does not match the requested sort", e.getMessage());
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		ColumnarTable table = ColumnarTable.of(ModuleFieldRegistry.LEAD, List.of(lead("a", 1.0), lead("b", 2.0)));
+		RowSorter sorter = RowSorter.compile(table, List.of(sort("Title", "ASC")));
+		int[] rows = {0, 1};
+		String cursor = sorter.page(rows, null, 1).nextCursor();
+		byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+		String truncated = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(bytes, bytes.length - 1));
+		// A string length larger than the remaining input
+		bytes[0] = 0x7f;
+		String oversized = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+		for (String bad : new String[] {"not base64!", "AAAA", truncated, oversized}) {
+			assertThrows(IllegalArgumentException.class, () -> sorter.page(rows, bad, 1), bad);
+		}
+	}
+
+	private static int[] pageThrough(RowSorter sorter, ColumnarTable table, int pageSize) {
+		int[] rows = IntStream.range(0, table.rowCount()).toArray();
+		List<Integer> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			RowSorter.Page page = sorter.page(rows, cursor, pageSize);
+			for (int row : page.rows()) {
+				seen.add(row);
+			}
+			cursor = page.nextCursor();
+		} while (cursor != null);
+		return seen.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static SortDTO sort(String field, String direction) {
+		SortDTO sort = new SortDTO();
+		sort.setField(field);
+		sort.setDirection(direction);
+		return sort;
+	}
+
+	private static LeadDataDTO lead(String title, Double budget) {
+		LeadDataDTO lead = new LeadDataDTO();
+		lead.setTitle(title);
+		lead.setBudget(budget);
+		return lead;
+	}
+}
@@ -0,0 +1,98 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TDigestTest {
+
+	private static final double[] QUANTILES = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+
+	@Test
+	void emptyDigestHasNoQuantiles() {
+		TDigest digest = new TDigest();
+
+		assertTrue(digest.isEmpty());
+		assertTrue(Double.isNaN(digest.quantile(0.5)));
+	}
+
+	@Test
+	void smallDigestsAreExactAtTheEnds() {
+		TDigest digest = new TDigest();
+		for (int i = 1; i <= 99; i++) {
+			digest.add(i);
+		}
+
+		assertEquals(99L, digest.count());
+		assertEquals(1.0, digest.quantile(0), 0.0);
+		assertEquals(99.0, digest.quantile(1), 0.0);
+		assertEquals(50.0, digest.quantile(0.5), 0.5);
+	}
+
+	@Test
+	void uniformQuantilesStayWithinRankBound() {
+		Random random = new Random(21);
+		double[] values = new double[200_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextDouble() * 1000;
+		}
+
+		assertRankErrors(values, digest(values, 0, values.length));
+	}
+
+	@Test
+	void skewedQuantilesStayWithinRankBound() {
+		Random random = new Random(22);
+		double[] values = new double[200_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.exp(random.nextGaussian() * 2);
+		}
+
+		assertRankErrors(values, digest(values, 0, values.length));
+	}
+
+	@Test
+	void mergedDigestsStayWithinRankBound() {
+		Random random = new Random(23);
+		double[] values = new double[200_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextGaussian() * 50 + (i % 2 == 0 ? 0 : 300);
+		}
+		TDigest merged = new TDigest();
+		for (int part = 0; part < 20; part++) {
+			merged.merge(digest(values, part * 10_000, (part + 1) * 10_000));
+		}
+
+		assertEquals((long) values.length, merged.count());
+		assertRankErrors(values, merged);
+	}
+
+	/**
+	 * The estimate of every quantile q must fall between the true values at
+	 * ranks q +/- 0.5% of the input (0.2% in the outer tails).
+	 */
+	private static void assertRankErrors(double[] values, TDigest digest) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		for (double q : QUANTILES) {
+			double bound = q < 0.05 || q > 0.95 ? 0.002 : 0.005;
+			double low = sorted[(int) Math.max(0, Math.floor((q - bound) * (sorted.length - 1)))];
+			double high = sorted[(int) Math.min(sorted.length - 1, Math.ceil((q + bound) * (sorted.length - 1)))];
+			double estimate = digest.quantile(q);
+			assertTrue(estimate >= low && estimate <= high,
+					"q=" + q + " estimated " + estimate + ", expected within [" + low + ", " + high + "]");
+		}
+	}
+
+	private static TDigest digest(double[] values, int from, int to) {
+		TDigest digest = new TDigest();
+		for (int i = from; i < to; i++) {
+			digest.add(values[i]);
+		}
+		return digest;
+	}
+}
@@ -0,0 +1,67 @@
+package com.galvinusanalytics.backend_at.engine;
+
+import com.galvinusanalytics.backend_at.dto.GroupResultDTO;
+import com.galvinusanalytics.backend_at.dto.module.LeadDataDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TimeBucketAggregatorTest {
+
+	private final TimeBucketAggregator aggregator = new TimeBucketAggregator();
+
+	@Test
+	void fillsEmptyDaysBetweenTheFirstAndLastBucket() {
+		ColumnarTable table = leads(LocalDateTime.of(2024, 3, 1, 9, 0), LocalDateTime.of(2024, 3, 4, 18, 0), null);
+
+		List<GroupResultDTO> groups = bucketByDay(table);
+
+		assertEquals(List.of("2024-03-01", "2024-03-02", "2024-03-03", "2024-03-04"),
+				groups.subList(0, 4).stream().map(GroupResultDTO::getValue).toList());
+		assertEquals(0L, groups.get(1).getCount());
+		assertNull(groups.get(4).getValue());
+		assertEquals(1L, groups.get(4).getCount());
+	}
+
+	@Test
+	void leavesGapsWhenTheSpanExceedsTheFillLimit() {
+		ColumnarTable table = leads(LocalDateTime.of(1, 1, 1, 0, 0), LocalDateTime.of(2024, 3, 1, 9, 0),
+				LocalDateTime.of(9999, 12, 31, 23, 0));
+
+		List<GroupResultDTO> groups = bucketByDay(table);
+
+		assertEquals(List.of("0001-01-01", "2024-03-01", "9999-12-31"),
+				groups.stream().map(GroupResultDTO::getValue).toList());
+	}
+
+	@Test
+	void fillsASpanOfExactlyTheLimit() {
+		LocalDateTime first = LocalDateTime.of(2000, 1, 1, 12, 0);
+		ColumnarTable table = leads(first, first.plusDays(TimeBucketAggregator.MAX_FILLED_BUCKETS - 1));
+
+		assertEquals(TimeBucketAggregator.MAX_FILLED_BUCKETS, bucketByDay(table).size());
+	}
+
+	private List<GroupResultDTO> bucketByDay(ColumnarTable table) {
+		int[] rows = IntStream.range(0, table.rowCount()).toArray();
+		return aggregator.aggregate(table, rows, "Created Date", TimeBucket.DAY, ZoneOffset.UTC, ZoneOffset.UTC, null)
+				.groups();
+	}
+
+	private static ColumnarTable leads(LocalDateTime... createdDates) {
+		List<LeadDataDTO> leads = new ArrayList<>();
+		for (LocalDateTime createdDate : createdDates) {
+			LeadDataDTO lead = new LeadDataDTO();
+			lead.setCreatedDate(createdDate);
+			leads.add(lead);
+		}
+		return ColumnarTable.of(ModuleFieldRegistry.LEAD, leads);
+	}
+}
@@ -65,11 +65,13 @@ exports.uploadLeadAttachments = async (req, res) => {
 
 exports.getAllLeads = async (req, res) => {
 	try {
-		const leads = await leadService.getAllLeads();
+		const leads = await leadService.getAllLeads({
+			...req.query
+		});
 		res.status(200).json(leads);
 	} catch (err) {
 		console.error(err);
-		res.status(500).json({ message: err.message });
+		res.status(err.statusCode || 500).json({ message: err.message });
 	}
 }
 
@@ -1,7 +1,8 @@
-const { PrismaClient } = require("@prisma/client");
+const { PrismaClient, LeadStatus, LeadSource } = require("@prisma/client");
 const prisma = new PrismaClient();
 const axios = require("axios");
 const { uploadToS3, deleteFromS3 } = require("../utils/s3");
+const { buildListWhere } = require("../utils/listFilters");
 
 // Helper functions
 function extractNumericSuffix(leadId) {
@@ -185,8 +186,28 @@ exports.uploadLeadAttachments = async (id, files) => {
 	return attachments;
 };
 
-exports.getAllLeads = async () => {
+// Optional filters (used by the analytics service to push report filters down):
+// leadStatus, leadSource, createdFrom, createdTo (yyyy-MM-dd, inclusive),
+// updatedFrom (ISO timestamp, UTC when no offset is given)
+exports.getAllLeads = async (params = {}) => {
+	const { leadStatus = "", leadSource = "" } = params;
+
+	const where = {};
+	if (leadStatus) {
+		const status = String(leadStatus).toUpperCase();
+		// Unknown enum values match nothing instead of failing the whole query
+		if (!Object.values(LeadStatus).includes(status)) return [];
+		where.leadStatus = status;
+	}
+	if (leadSource) {
+		const source = String(leadSource).toUpperCase();
+		if (!Object.values(LeadSource).includes(source)) return [];
+		where.leadSource = source;
+	}
+	Object.assign(where, buildListWhere(params));
+
 	return await prisma.lead.findMany({
+		where,
 		orderBy: {
 			createdAt: "desc",
 		},
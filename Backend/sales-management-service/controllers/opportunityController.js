@@ -48,11 +48,13 @@ exports.addOpportunityNote = async (req, res) => {
 
 exports.getAllOpportunities = async (req, res) => {
 	try {
-		const opportunities = await opportunityService.getAllOpportunities();
+		const opportunities = await opportunityService.getAllOpportunities({
+			...req.query
+		});
 		res.status(200).json(opportunities);
 	} catch (err) {
 		console.error(err);
-		res.status(500).json({ message: err.message });
+		res.status(err.statusCode || 500).json({ message: err.message });
 	}
 };
 
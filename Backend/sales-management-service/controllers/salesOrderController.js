@@ -47,11 +47,13 @@ exports.addSalesOrderNote = async (req, res) => {
 
 exports.getAllSalesOrders = async (req, res) => {
 	try {
-		const salesOrders = await salesOrderService.getAllSalesOrders();
+		const salesOrders = await salesOrderService.getAllSalesOrders({
+			...req.query
+		});
 		res.status(200).json(salesOrders);
 	} catch (err) {
 		console.error(err);
-		res.status(500).json({ message: err.message });
+		res.status(err.statusCode || 500).json({ message: err.message });
 	}
 };
 
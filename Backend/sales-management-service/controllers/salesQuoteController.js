@@ -59,11 +59,13 @@ exports.addSalesQuoteNote = async (req, res) => {
 
 exports.getAllSalesQuotes = async (req, res) => {
 	try {
-		const salesQuotes = await salesQuoteService.getAllSalesQuotes();
+		const salesQuotes = await salesQuoteService.getAllSalesQuotes({
+			...req.query
+		});
 		res.status(200).json(salesQuotes);
 	} catch (err) {
 		console.error(err);
-		res.status(500).json({ message: err.message });
+		res.status(err.statusCode || 500).json({ message: err.message });
 	}
 };
 
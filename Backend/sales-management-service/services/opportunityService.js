@@ -1,6 +1,7 @@
 const { PrismaClient } = require("@prisma/client");
 const prisma = new PrismaClient();
 const { uploadToS3, deleteFromS3 } = require("../utils/s3");
+const { buildListWhere } = require("../utils/listFilters");
 const axios = require("axios");
 
 const normalizeEmptyStrings = (data) => {
@@ -62,8 +63,12 @@ exports.addOpportunityNote = async (id, text, author) => {
 	});
 };
 
-exports.getAllOpportunities = async () => {
-	return await prisma.opportunity.findMany();
+// Optional filters (used by the analytics service to push report filters down):
+// createdFrom, createdTo (yyyy-MM-dd, inclusive), updatedFrom (ISO timestamp)
+exports.getAllOpportunities = async (params = {}) => {
+	return await prisma.opportunity.findMany({
+		where: buildListWhere(params),
+	});
 };
 
 exports.getAllOpportunitiesPaginated = async (params) => {
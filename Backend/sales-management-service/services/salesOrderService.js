@@ -1,6 +1,7 @@
 const { PrismaClient } = require("@prisma/client");
 const prisma = new PrismaClient();
 const { uploadToS3, deleteFromS3 } = require("../utils/s3");
+const { buildListWhere } = require("../utils/listFilters");
 const axios = require("axios");
 
 // Helper functions
@@ -100,8 +101,11 @@ exports.addSalesOrderNote = async (id, text, author) => {
 	});
 };
 
-exports.getAllSalesOrders = async () => {
+// Optional filters (used by the analytics service to push report filters down):
+// createdFrom, createdTo (yyyy-MM-dd, inclusive), updatedFrom (ISO timestamp)
+exports.getAllSalesOrders = async (params = {}) => {
 	return await prisma.salesOrder.findMany({
+		where: buildListWhere(params),
 		include: {
 			opportunity: {
 				select: {
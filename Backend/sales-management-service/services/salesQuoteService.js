@@ -2,6 +2,7 @@ const { PrismaClient } = require("@prisma/client");
 const prisma = new PrismaClient();
 const salesOrderService = require("./salesOrderService");
 const { uploadToS3, deleteFromS3 } = require("../utils/s3");
+const { buildListWhere } = require("../utils/listFilters");
 const html_to_pdf = require("html-pdf-node");
 const axios = require("axios");
 const template = require("../templates/salesQuotePdfTemplate");
@@ -222,8 +223,11 @@ exports.addSalesQuoteNote = async (id, text, author) => {
 	});
 };
 
-exports.getAllSalesQuotes = async () => {
+// Optional filters (used by the analytics service to push report filters down):
+// createdFrom, createdTo (yyyy-MM-dd, inclusive), updatedFrom (ISO timestamp)
+exports.getAllSalesQuotes = async (params = {}) => {
 	return await prisma.salesQuote.findMany({
+		where: buildListWhere(params),
 		include: {
 			opportunity: {
 				select: {
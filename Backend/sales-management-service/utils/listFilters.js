@@ -0,0 +1,41 @@
+// Prisma where-clauses for the createdFrom/createdTo/updatedFrom list filters
+// that the analytics service pushes down with report requests.
+
+const DAY = /^\d{4}-\d{2}-\d{2}$/;
+
+const badRequest = (message) => {
+	const err = new Error(message);
+	err.statusCode = 400;
+	return err;
+};
+
+// yyyy-MM-dd as the given time of that UTC day; anything else is a 400
+const parseDay = (name, value, time) => {
+	const text = String(value);
+	const date = new Date(`${text}T${time}Z`);
+	if (!DAY.test(text) || isNaN(date) || !date.toISOString().startsWith(text)) {
+		throw badRequest(`${name} must be a date in yyyy-MM-dd format`);
+	}
+	return date;
+};
+
+const buildListWhere = ({ createdFrom = "", createdTo = "", updatedFrom = "" } = {}) => {
+	const where = {};
+	// Inclusive calendar days of createdAt in UTC, as the API returns it;
+	// createdAt is required, so no rows are lost for lacking one.
+	if (createdFrom || createdTo) {
+		where.createdAt = {};
+		if (createdFrom) where.createdAt.gte = parseDay("createdFrom", createdFrom, "00:00:00");
+		if (createdTo) where.createdAt.lte = parseDay("createdTo", createdTo, "23:59:59.999");
+	}
+	if (updatedFrom) {
+		// Timestamps without an offset are UTC, matching what the API returns
+		const value = String(updatedFrom);
+		const since = new Date(/(Z|[+-]\d{2}:?\d{2})$/i.test(value) ? value : `${value}Z`);
+		if (isNaN(since)) throw badRequest("updatedFrom must be an ISO timestamp");
+		where.updatedAt = { gte: since };
+	}
+	return where;
+};
+
+module.exports = { buildListWhere };